@@ -0,0 +1,33 @@
+package dev.latvian.mods.rhino.benchmark;
+
+import dev.latvian.mods.rhino.Script;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Parsing and compiling a script with {@code Context.compileString}, to interpreter bytecode at optimization level -1
+ * and to Java classes otherwise.
+ *
+ * @author ZZZank
+ */
+public class CompileBenchmark extends ContextState {
+	@Param({"-1", "0", "9"})
+	public int optLevel;
+
+	private String source;
+
+	@Override
+	protected int optimizationLevel() {
+		return optLevel;
+	}
+
+	@Override
+	protected void setup() {
+		source = Workloads.all();
+	}
+
+	@Benchmark
+	public Script compile() {
+		return compile("compile.js", source);
+	}
+}
@@ -0,0 +1,58 @@
+package dev.latvian.mods.rhino.benchmark;
+
+import dev.latvian.mods.rhino.ConsString;
+import dev.latvian.mods.rhino.Script;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Building strings out of many parts with {@link ConsString}, and flattening them, directly and from scripts.
+ *
+ * @author ZZZank
+ */
+public class ConsStringBenchmark extends ContextState {
+	@Param({"16", "1024"})
+	public int parts;
+
+	private String[] pieces;
+	private Script appendScript;
+	private Script prependScript;
+
+	@Override
+	protected void setup() {
+		pieces = new String[parts];
+		for (int i = 0; i < parts; i++) {
+			pieces[i] = "part" + i;
+		}
+		appendScript = compile("append.js", "var s = ''; for (var i = 0; i < " + parts + "; i++) { s += 'part' + i; } s.length;");
+		prependScript = compile("prepend.js", "var s = ''; for (var i = 0; i < " + parts + "; i++) { s = 'part' + i + s; } s.length;");
+	}
+
+	@Benchmark
+	public String appendAndFlatten() {
+		CharSequence s = "";
+		for (String piece : pieces) {
+			s = new ConsString(s, piece);
+		}
+		return s.toString();
+	}
+
+	@Benchmark
+	public String prependAndFlatten() {
+		CharSequence s = "";
+		for (String piece : pieces) {
+			s = new ConsString(piece, s);
+		}
+		return s.toString();
+	}
+
+	@Benchmark
+	public Object scriptAppend() {
+		return appendScript.exec(cx, scope);
+	}
+
+	@Benchmark
+	public Object scriptPrepend() {
+		return prependScript.exec(cx, scope);
+	}
+}
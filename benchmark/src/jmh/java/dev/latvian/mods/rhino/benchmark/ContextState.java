@@ -0,0 +1,59 @@
+package dev.latvian.mods.rhino.benchmark;
+
+import dev.latvian.mods.rhino.Context;
+import dev.latvian.mods.rhino.Script;
+import dev.latvian.mods.rhino.ScriptableObject;
+import dev.latvian.mods.rhino.mod.RhinoProperties;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Base state of the benchmarks: a Context entered on the benchmark thread, and a scope with the standard objects.
+ * <p>
+ * {@link RhinoProperties#enableCompiler} is turned on, so that optimization levels from 0 up are executed by
+ * generated bytecode, like in-game with the compiler enabled.
+ *
+ * @author ZZZank
+ */
+@State(Scope.Thread)
+public abstract class ContextState {
+	public Context cx;
+	public ScriptableObject scope;
+
+	/**
+	 * @return the optimization level of the Context, -1 for the interpreter
+	 */
+	protected int optimizationLevel() {
+		return -1;
+	}
+
+	@Setup
+	public void enterContext() throws Exception {
+		RhinoProperties.INSTANCE.enableCompiler = true;
+		cx = Context.enterWithNewFactory();
+		cx.setOptimizationLevel(optimizationLevel());
+		scope = cx.initStandardObjects();
+		setup();
+	}
+
+	/**
+	 * Prepare the inputs of the benchmark, called with the Context entered
+	 */
+	protected void setup() throws Exception {
+	}
+
+	@TearDown
+	public void exitContext() {
+		Context.exit();
+	}
+
+	protected Script compile(String name, String source) {
+		return cx.compileString(source, name, 1, null);
+	}
+
+	protected Object eval(String source) {
+		return cx.evaluateString(scope, source, "setup", 1, null);
+	}
+}
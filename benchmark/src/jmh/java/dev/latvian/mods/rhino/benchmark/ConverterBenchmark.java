@@ -0,0 +1,60 @@
+package dev.latvian.mods.rhino.benchmark;
+
+import dev.latvian.mods.rhino.Context;
+import dev.latvian.mods.rhino.native_java.type.info.TypeInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Conversions of JavaScript values to Java types, as done for the arguments of every Java call, through
+ * {@link Context#jsToJava(Context, Object, TypeInfo)}.
+ *
+ * @author ZZZank
+ */
+public class ConverterBenchmark extends ContextState {
+	private static final TypeInfo INT_ARRAY = TypeInfo.of(int[].class);
+	private static final TypeInfo STRING_LIST = TypeInfo.of(List.class).withParams(TypeInfo.STRING);
+	private static final TypeInfo STRING_MAP = TypeInfo.of(Map.class).withParams(TypeInfo.STRING, TypeInfo.OBJECT);
+
+	private Object number;
+	private Object string;
+	private Object numberArray;
+	private Object stringArray;
+	private Object object;
+
+	@Override
+	protected void setup() {
+		number = eval("42.0");
+		string = eval("'con' + 'cat' + 'enated'");
+		numberArray = eval("var a = []; for (var i = 0; i < 64; i++) a.push(i); a");
+		stringArray = eval("var a = []; for (var i = 0; i < 64; i++) a.push('s' + i); a");
+		object = eval("({a: 1, b: 'two', c: [3], d: {e: 4}})");
+	}
+
+	@Benchmark
+	public Object numberToInt() {
+		return Context.jsToJava(cx, number, TypeInfo.PRIMITIVE_INT);
+	}
+
+	@Benchmark
+	public Object stringToString() {
+		return Context.jsToJava(cx, string, TypeInfo.STRING);
+	}
+
+	@Benchmark
+	public Object arrayToIntArray() {
+		return Context.jsToJava(cx, numberArray, INT_ARRAY);
+	}
+
+	@Benchmark
+	public Object arrayToStringList() {
+		return Context.jsToJava(cx, stringArray, STRING_LIST);
+	}
+
+	@Benchmark
+	public Object objectToMap() {
+		return Context.jsToJava(cx, object, STRING_MAP);
+	}
+}
@@ -0,0 +1,36 @@
+package dev.latvian.mods.rhino.benchmark;
+
+import dev.latvian.mods.rhino.Script;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Executing precompiled scripts, by the interpreter at optimization level -1 and as generated bytecode otherwise, see
+ * {@link Workloads} for what each script exercises.
+ *
+ * @author ZZZank
+ */
+public class ExecutionBenchmark extends ContextState {
+	@Param({"-1", "0", "9"})
+	public int optLevel;
+
+	@Param({"fib", "loop", "objects", "arrays", "strings"})
+	public String workload;
+
+	private Script script;
+
+	@Override
+	protected int optimizationLevel() {
+		return optLevel;
+	}
+
+	@Override
+	protected void setup() {
+		script = compile(workload + ".js", Workloads.get(workload));
+	}
+
+	@Benchmark
+	public Object exec() {
+		return script.exec(cx, scope);
+	}
+}
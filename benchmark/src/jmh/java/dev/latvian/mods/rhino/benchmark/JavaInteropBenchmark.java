@@ -0,0 +1,106 @@
+package dev.latvian.mods.rhino.benchmark;
+
+import dev.latvian.mods.rhino.Context;
+import dev.latvian.mods.rhino.NativeJavaClass;
+import dev.latvian.mods.rhino.Script;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Calls from scripts to Java methods through {@code NativeJavaMethod}: plain and overloaded instance methods, static
+ * methods, fields, bean properties, functions passed as interfaces, a wrapped Java collection and for-of over it. Each
+ * script makes 100 calls.
+ * Java objects returned to scripts are wrapped again on every call, unless the wrapper cache is enabled.
+ *
+ * @author ZZZank
+ */
+public class JavaInteropBenchmark extends ContextState {
+	public static class Target {
+		public int value;
+		private final List<String> names = new ArrayList<>();
+
+		public int add(int a, int b) {
+			return a + b;
+		}
+
+		public String describe(String s) {
+			return s;
+		}
+
+		public String describe(int i) {
+			return "int";
+		}
+
+		public String describe(Object o) {
+			return "object";
+		}
+
+		public String describe(String s, int i) {
+			return s;
+		}
+
+		public int getCount() {
+			return value;
+		}
+
+		public int run(Runnable runnable) {
+			runnable.run();
+			return 1;
+		}
+
+		public List<String> getNames() {
+			return names;
+		}
+
+		public static double scale(double d) {
+			return d * 2;
+		}
+	}
+
+	@Param({"-1", "9"})
+	public int optLevel;
+
+	@Param({"method", "overload", "static", "field", "bean", "lambda", "collection", "forOf"})
+	public String call;
+
+	@Param({"false", "true"})
+	public boolean wrapperCache;
+
+	private Script script;
+
+	@Override
+	protected int optimizationLevel() {
+		return optLevel;
+	}
+
+	@Override
+	protected void setup() {
+		cx.getWrapFactory().setWrapperCache(wrapperCache);
+		Target target = new Target();
+		for (int i = 0; i < 16; i++) {
+			target.names.add("name" + i);
+		}
+		scope.put("target", scope, Context.javaToJS(cx, target, scope));
+		scope.put("Target", scope, new NativeJavaClass(cx, scope, Target.class));
+		String body = switch (call) {
+			case "method" -> "r = target.add(r, i) | 0;";
+			case "overload" -> "r += target.describe('s').length() + target.describe(i).length() + target.describe('s', i).length() + target.describe(target).length();";
+			case "static" -> "r += Target.scale(i);";
+			case "field" -> "target.value = i; r += target.value;";
+			case "bean" -> "r += target.count;";
+			case "lambda" -> "r += target.run(function () { r++; });";
+			case "collection" -> "r += target.names[i & 15].length() + target.names.size();";
+			case "forOf" -> "for (var name of target.names) r++;";
+			default -> throw new IllegalArgumentException(call);
+		};
+		script = compile(call + ".js", "var r = 0;\nfor (var i = 0; i < 100; i++) {\n" + body + "\n}\nr;");
+	}
+
+	@Benchmark
+	public Object call() {
+		return script.exec(cx, scope);
+	}
+}
@@ -0,0 +1,62 @@
+package dev.latvian.mods.rhino.benchmark;
+
+import dev.latvian.mods.rhino.NativeJSON;
+import dev.latvian.mods.rhino.Undefined;
+import dev.latvian.mods.rhino.json.JsonParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * JSON.parse, to JavaScript and to Java values, and JSON.stringify of a document of records with nested objects, arrays, strings and numbers.
+ *
+ * @author ZZZank
+ */
+public class JsonBenchmark extends ContextState {
+	private static final JsonParser JAVA_PARSER = new JsonParser();
+
+	@Param({"10", "1000"})
+	public int records;
+
+	private String json;
+	private JsonParser parser;
+	private Object value;
+
+	@Override
+	protected void setup() throws Exception {
+		StringBuilder sb = new StringBuilder("{\"records\":[");
+		for (int i = 0; i < records; i++) {
+			if (i > 0) {
+				sb.append(',');
+			}
+			sb.append("{\"id\":").append(i)
+				.append(",\"name\":\"record \\\"").append(i).append("\\\"\"")
+				.append(",\"weight\":").append(i * 0.25)
+				.append(",\"enabled\":").append(i % 2 == 0)
+				.append(",\"tags\":[\"a\",\"b\",\"c").append(i % 7).append("\"]")
+				.append(",\"pos\":{\"x\":").append(i).append(",\"y\":-").append(i).append(",\"z\":null}}");
+		}
+		json = sb.append("]}").toString();
+		parser = new JsonParser(cx, scope);
+		value = parser.parseValue(json);
+	}
+
+	@Benchmark
+	public Object parse() throws JsonParser.ParseException {
+		return parser.parseValue(json);
+	}
+
+	@Benchmark
+	public Object parseJava() throws JsonParser.ParseException {
+		return JAVA_PARSER.parseValue(json);
+	}
+
+	@Benchmark
+	public String stringify() {
+		return NativeJSON.stringify(cx, scope, value, Undefined.instance, Undefined.instance);
+	}
+
+	@Benchmark
+	public String stringifyIndented() {
+		return NativeJSON.stringify(cx, scope, value, Undefined.instance, 2);
+	}
+}
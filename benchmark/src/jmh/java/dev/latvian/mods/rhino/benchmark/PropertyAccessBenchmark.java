@@ -0,0 +1,78 @@
+package dev.latvian.mods.rhino.benchmark;
+
+import dev.latvian.mods.rhino.Script;
+import dev.latvian.mods.rhino.Scriptable;
+import dev.latvian.mods.rhino.ScriptableObject;
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Named and indexed property access on a NativeObject, from Java and from an interpreted script.
+ *
+ * @author ZZZank
+ */
+public class PropertyAccessBenchmark extends ContextState {
+	private static final String[] KEYS = {"alpha", "beta", "gamma", "delta", "epsilon", "zeta", "eta", "theta"};
+
+	private Scriptable object;
+	private Scriptable child;
+	private Script readScript;
+	private int counter;
+
+	@Override
+	protected void setup() {
+		object = cx.newObject(scope);
+		for (int i = 0; i < KEYS.length; i++) {
+			ScriptableObject.putProperty(object, KEYS[i], i);
+			ScriptableObject.putProperty(object, i, i);
+		}
+		child = cx.newObject(scope);
+		child.setPrototype(object);
+		scope.put("obj", scope, object);
+		readScript = compile("read.js", """
+			var sum = 0;
+			for (var i = 0; i < 100; i++) {
+				sum += obj.alpha + obj.delta + obj.theta + obj[i & 7];
+			}
+			sum;
+			""");
+	}
+
+	@Benchmark
+	public Object getNamed() {
+		return ScriptableObject.getProperty(object, KEYS[counter++ & 7]);
+	}
+
+	@Benchmark
+	public Object getIndexed() {
+		return ScriptableObject.getProperty(object, counter++ & 7);
+	}
+
+	@Benchmark
+	public Object getInherited() {
+		return ScriptableObject.getProperty(child, KEYS[counter++ & 7]);
+	}
+
+	@Benchmark
+	public Object getMissing() {
+		return ScriptableObject.getProperty(child, "missing");
+	}
+
+	@Benchmark
+	public void putExisting() {
+		ScriptableObject.putProperty(object, KEYS[counter & 7], counter++);
+	}
+
+	@Benchmark
+	public Scriptable putNewObject() {
+		Scriptable o = cx.newObject(scope);
+		for (String key : KEYS) {
+			ScriptableObject.putProperty(o, key, key);
+		}
+		return o;
+	}
+
+	@Benchmark
+	public Object scriptRead() {
+		return readScript.exec(cx, scope);
+	}
+}
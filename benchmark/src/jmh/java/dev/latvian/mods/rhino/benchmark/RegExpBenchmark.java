@@ -0,0 +1,43 @@
+package dev.latvian.mods.rhino.benchmark;
+
+import dev.latvian.mods.rhino.Script;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Regular expressions from scripts: compiling a literal, test, exec with capture groups, global replace and split.
+ *
+ * @author ZZZank
+ */
+public class RegExpBenchmark extends ContextState {
+	@Param({"compile", "test", "exec", "replace", "split"})
+	public String operation;
+
+	private Script script;
+
+	@Override
+	protected void setup() {
+		eval("""
+			var ids = [];
+			for (var i = 0; i < 50; i++) {
+				ids.push('minecraft:item_' + i + '@' + (i * 7));
+			}
+			var text = ids.join(' ');
+			var idPattern = /^([a-z_]+):([a-z0-9_]+)@(\\d+)$/;
+			""");
+		String body = switch (operation) {
+			case "compile" -> "r += new RegExp('^([a-z_]+):([a-z0-9_]+)@' + i + '$').source.length;";
+			case "test" -> "r += idPattern.test(ids[i]) ? 1 : 0;";
+			case "exec" -> "r += idPattern.exec(ids[i])[2].length;";
+			case "replace" -> "r += ids[i].replace(/[aeiou]/g, '').length;";
+			case "split" -> "r += ids[i].split(/[:@]/).length;";
+			default -> throw new IllegalArgumentException(operation);
+		};
+		script = compile(operation + ".js", "var r = 0;\nfor (var i = 0; i < ids.length; i++) {\n" + body + "\n}\nr;");
+	}
+
+	@Benchmark
+	public Object run() {
+		return script.exec(cx, scope);
+	}
+}
@@ -0,0 +1,45 @@
+package dev.latvian.mods.rhino.benchmark;
+
+import dev.latvian.mods.rhino.Script;
+import dev.latvian.mods.rhino.ScriptableObject;
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Creating a top-level scope per script pack or sandbox: initializing every standard object again, or a child scope of
+ * the sealed standard objects shared by the ContextFactory. The {@code run} variants also run a small script in the
+ * new scope, which is where a fresh standard scope initializes the prototypes it uses.
+ * <p>
+ * Run with {@code -Pjmh.profilers=gc}, {@code gc.alloc.rate.norm} is the memory allocated per sandbox.
+ *
+ * @author ZZZank
+ */
+public class ScopeBenchmark extends ContextState {
+	private Script script;
+
+	@Override
+	protected void setup() {
+		// create the shared scope outside of measurements
+		cx.newChildScope();
+		script = compile("sandbox.js", "var total = 0;\n[1, 2, 3].forEach(function (v) { total += v; });\nJSON.stringify({total: total, max: Math.max(total, 1)});");
+	}
+
+	@Benchmark
+	public ScriptableObject standardScope() {
+		return cx.initStandardObjects();
+	}
+
+	@Benchmark
+	public ScriptableObject childScope() {
+		return cx.newChildScope();
+	}
+
+	@Benchmark
+	public Object runInStandardScope() {
+		return script.exec(cx, cx.initStandardObjects());
+	}
+
+	@Benchmark
+	public Object runInChildScope() {
+		return script.exec(cx, cx.newChildScope());
+	}
+}
@@ -0,0 +1,93 @@
+package dev.latvian.mods.rhino.benchmark;
+
+import dev.latvian.mods.rhino.Context;
+import dev.latvian.mods.rhino.ContextFactory;
+import dev.latvian.mods.rhino.Script;
+import dev.latvian.mods.rhino.Scriptable;
+import dev.latvian.mods.rhino.ScriptableObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Scripts reading a sealed scope shared between threads, with {@link Context#FEATURE_THREAD_SAFE_OBJECTS} enabled.
+ * Since reads of a thread-safe object do not take its lock, the time per script should stay about the same from
+ * {@code oneThread} to {@code fourThreads}.
+ *
+ * @author ZZZank
+ */
+@State(Scope.Benchmark)
+public class SharedScopeContentionBenchmark {
+	private ContextFactory factory;
+	private ScriptableObject shared;
+	private Script script;
+
+	@Setup
+	public void createSharedScope() {
+		factory = new ContextFactory() {
+			@Override
+			protected boolean hasFeature(Context cx, int featureIndex) {
+				return featureIndex == Context.FEATURE_THREAD_SAFE_OBJECTS || super.hasFeature(cx, featureIndex);
+			}
+		};
+
+		Context cx = factory.enterContext();
+		try {
+			shared = cx.initStandardObjects(null, true);
+			ScriptableObject config = (ScriptableObject) cx.newObject(shared);
+			config.put("a", config, 1);
+			config.put("b", config, 2);
+			config.sealObject();
+			shared.put("CONFIG", shared, config);
+			shared.put("LIMIT", shared, 64);
+			shared.sealObject();
+			script = cx.compileString("""
+				var s = 0;
+				for (var i = 0; i < 64; i++) {
+					s += CONFIG.a + CONFIG.b + LIMIT + Math.abs(-i);
+				}
+				s;
+				""", "contention.js", 1, null);
+		} finally {
+			Context.exit();
+		}
+	}
+
+	/**
+	 * A Context entered on one benchmark thread, and the scope of that thread: variables declared by the script go
+	 * there, reads fall through to the shared scope
+	 */
+	@State(Scope.Thread)
+	public static class ThreadScope {
+		public Context cx;
+		public Scriptable local;
+
+		@Setup
+		public void enterContext(SharedScopeContentionBenchmark benchmark) {
+			cx = benchmark.factory.enterContext();
+			local = cx.newObject(benchmark.shared);
+			local.setPrototype(benchmark.shared);
+			local.setParentScope(null);
+		}
+
+		@TearDown
+		public void exitContext() {
+			Context.exit();
+		}
+	}
+
+	@Benchmark
+	@Threads(1)
+	public Object oneThread(ThreadScope thread) {
+		return script.exec(thread.cx, thread.local);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public Object fourThreads(ThreadScope thread) {
+		return script.exec(thread.cx, thread.local);
+	}
+}
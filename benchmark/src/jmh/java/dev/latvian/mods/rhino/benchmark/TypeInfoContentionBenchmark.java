@@ -0,0 +1,85 @@
+package dev.latvian.mods.rhino.benchmark;
+
+import dev.latvian.mods.rhino.native_java.type.TypeConsolidator;
+import dev.latvian.mods.rhino.native_java.type.info.TypeInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * {@link TypeInfo#of(Type)} and {@link TypeConsolidator#getMapping(Class)} of the types in the signatures of a few
+ * classes, from one and from four threads. With lock-free interning, the time per lookup should stay about the same
+ * instead of growing once threads contend.
+ *
+ * @author ZZZank
+ */
+@State(Scope.Benchmark)
+public class TypeInfoContentionBenchmark {
+	private static final Class<?>[] CLASSES = {
+		ArrayList.class, HashMap.class, BiFunction.class, TimeUnit.class,
+		StringBuilder.class, LinkedList.class, Thread.class, Iterator.class
+	};
+
+	private Type[] types;
+
+	@Setup
+	public void collectTypes() {
+		List<Type> list = new ArrayList<>();
+		for (Class<?> c : CLASSES) {
+			list.add(c);
+			for (Method m : c.getMethods()) {
+				list.add(m.getGenericReturnType());
+				Collections.addAll(list, m.getGenericParameterTypes());
+			}
+		}
+		types = list.toArray(new Type[0]);
+	}
+
+	/**
+	 * position of one benchmark thread in the types, threads start at different types
+	 */
+	@State(Scope.Thread)
+	public static class Cursor {
+		private static int nextOffset;
+		public int index;
+
+		@Setup
+		public void start() {
+			synchronized (Cursor.class) {
+				index = nextOffset;
+				nextOffset += 31;
+			}
+		}
+	}
+
+	private Object lookup(Cursor cursor) {
+		Type type = types[Math.floorMod(cursor.index++, types.length)];
+		TypeInfo info = TypeInfo.of(type);
+		return type instanceof Class<?> c ? TypeConsolidator.getMapping(c) : info;
+	}
+
+	@Benchmark
+	@Threads(1)
+	public Object oneThread(Cursor cursor) {
+		return lookup(cursor);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public Object fourThreads(Cursor cursor) {
+		return lookup(cursor);
+	}
+}
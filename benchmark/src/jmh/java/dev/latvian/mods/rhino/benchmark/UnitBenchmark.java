@@ -0,0 +1,77 @@
+package dev.latvian.mods.rhino.benchmark;
+
+import dev.latvian.mods.rhino.util.unit.FixedUnit;
+import dev.latvian.mods.rhino.util.unit.Unit;
+import dev.latvian.mods.rhino.util.unit.UnitStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Parsing {@link Unit} expressions, and evaluating the parsed trees and their compiled classes. Units do not need a
+ * Context.
+ * <p>
+ * Units are compiled once per trial. Compiling defines a new class in a new class loader each time, so compiling in a
+ * loop would measure class definition and metaspace growth rather than the one-off cost of compiling a unit.
+ *
+ * @author ZZZank
+ */
+@State(Scope.Thread)
+public class UnitBenchmark {
+	@Param({
+		"((2 * PI) + 1)",
+		"((sin(($time * 4)) * 0.5) + 0.5)",
+		"(if(($x > 10), (min($x, 100) / 2), max(sqrt($x), 1)) + (atan2($y, $x) % 3))",
+	})
+	public String expression;
+
+	private UnitStorage storage;
+	private Unit unit;
+	private Unit compiled;
+	private int counter;
+
+	@Setup
+	public void setup() {
+		storage = new UnitStorage();
+		storage.setVariable("time", FixedUnit.of(1.5F));
+		storage.setVariable("x", FixedUnit.of(42F));
+		storage.setVariable("y", FixedUnit.of(-3F));
+		unit = storage.parse(expression);
+		compiled = storage.compile(unit);
+	}
+
+	@Benchmark
+	public Unit parse() {
+		storage.clearParseCache();
+		return storage.parse(expression);
+	}
+
+	@Benchmark
+	public Unit parseCached() {
+		return storage.parse(expression);
+	}
+
+	@Benchmark
+	public float get() {
+		return unit.get();
+	}
+
+	@Benchmark
+	public float getChangingVariable() {
+		storage.setVariable("x", FixedUnit.of(counter++ & 127));
+		return unit.get();
+	}
+
+	@Benchmark
+	public float getCompiled() {
+		return compiled.get();
+	}
+
+	@Benchmark
+	public float getCompiledChangingVariable() {
+		storage.setVariable("x", FixedUnit.of(counter++ & 127));
+		return compiled.get();
+	}
+}
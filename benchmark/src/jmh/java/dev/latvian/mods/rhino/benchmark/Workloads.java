@@ -0,0 +1,102 @@
+package dev.latvian.mods.rhino.benchmark;
+
+/**
+ * Scripts shared by the compilation and execution benchmarks. Each one returns a value depending on all of its work,
+ * so that nothing can be skipped.
+ *
+ * @author ZZZank
+ */
+public final class Workloads {
+	/**
+	 * recursive calls and number arithmetic
+	 */
+	public static final String FIB = """
+		function fib(n) {
+			return n < 2 ? n : fib(n - 1) + fib(n - 2);
+		}
+		fib(20);
+		""";
+
+	/**
+	 * loops over local variables, int-range arithmetic and bitwise operations
+	 */
+	public static final String LOOP = """
+		var sum = 0;
+		for (var i = 0; i < 10000; i++) {
+			sum = (sum + (i * 31) ^ (i >> 2)) | 0;
+		}
+		sum;
+		""";
+
+	/**
+	 * object literals, named property reads and writes, and method calls through prototypes
+	 */
+	public static final String OBJECTS = """
+		function Vec(x, y) {
+			this.x = x;
+			this.y = y;
+		}
+		Vec.prototype.add = function (o) {
+			return new Vec(this.x + o.x, this.y + o.y);
+		};
+		Vec.prototype.len2 = function () {
+			return this.x * this.x + this.y * this.y;
+		};
+		var acc = new Vec(0, 0);
+		var total = 0;
+		for (var i = 0; i < 1000; i++) {
+			acc = acc.add({x: i, y: -i});
+			total += acc.len2() % 7;
+		}
+		total;
+		""";
+
+	/**
+	 * array creation, indexed access and the Array.prototype callbacks
+	 */
+	public static final String ARRAYS = """
+		var arr = [];
+		for (var i = 0; i < 1000; i++) {
+			arr.push(i);
+		}
+		arr.map(function (v) { return v * 2; })
+			.filter(function (v) { return v % 3 == 0; })
+			.reduce(function (a, b) { return a + b; }, 0);
+		""";
+
+	/**
+	 * string concatenation, as done when building messages or ids
+	 */
+	public static final String STRINGS = """
+		var s = '';
+		for (var i = 0; i < 1000; i++) {
+			s += 'item' + i + ',';
+		}
+		s.length;
+		""";
+
+	public static String get(String name) {
+		return switch (name) {
+			case "fib" -> FIB;
+			case "loop" -> LOOP;
+			case "objects" -> OBJECTS;
+			case "arrays" -> ARRAYS;
+			case "strings" -> STRINGS;
+			default -> throw new IllegalArgumentException(name);
+		};
+	}
+
+	/**
+	 * @return all workloads, each in its own function so that they do not share variables
+	 */
+	public static String all() {
+		StringBuilder sb = new StringBuilder();
+		for (String name : new String[]{"fib", "loop", "objects", "arrays", "strings"}) {
+			sb.append("function ").append(name).append("Workload() {\n").append(get(name)).append("}\n");
+		}
+		return sb.toString();
+	}
+
+	private Workloads() {
+	}
+}
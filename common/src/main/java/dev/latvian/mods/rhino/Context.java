@@ -19,7 +19,6 @@ import dev.latvian.mods.rhino.optimizer.Codegen;
 import dev.latvian.mods.rhino.regexp.RegExp;
 import dev.latvian.mods.rhino.util.remapper.Remapper;
 import dev.latvian.mods.rhino.util.wrap.TypeWrappers;
-import lombok.Setter;
 import lombok.val;
 import org.jetbrains.annotations.Nullable;
 
@@ -229,6 +228,14 @@ public class Context {
      */
     public static final int FEATURE_LITTLE_ENDIAN = 19;
 
+    /**
+     * If set, then new objects store their properties in a layout shared with all objects that had the same
+     * properties added in the same order, instead of a hash table of their own. This reduces the memory used by
+     * many small objects of the same structure, and lets the interpreter cache property lookups across such
+     * objects. The default is false.
+     */
+    public static final int FEATURE_SHAPED_OBJECTS = 20;
+
     public static final String languageVersionProperty = "language version";
     public static final String errorReporterProperty = "error reporter";
 
@@ -263,6 +270,10 @@ public class Context {
     // For instruction counting (interpreter only)
     int instructionCount;
     int instructionThreshold;
+    // For profiling (interpreter only), set on each top-level call
+    ScriptProfiler activeProfiler;
+    int profilerInstructions;
+    long profilerTime;
     // It can be used to return the second uint32 result from function
     long scratchUint32;
     // It can be used to return the second Scriptable result from function
@@ -280,13 +291,17 @@ public class Context {
     private Object propertyListeners;
     private Map<Object, Object> threadLocalMap;
     private ClassLoader applicationClassLoader;
-    @Setter
     private Remapper remapper;
+    private ScriptCache scriptCache;
+    private ScriptProfiler profiler;
     private final Map<String, Object> customProperties;
     public final Object lock = new Object();
     /**
      * a map from classes to associated JavaMembers objects
      * <p>
+     * JavaMembers are bound to this Context, but the reflection behind them is shared
+     * between all Contexts, see {@link dev.latvian.mods.rhino.native_java.JavaMembersCache}
+     * <p>
      * it uses 1 as concurrency level here and for other concurrent hash maps
      * as we don't expect high levels of sustained concurrent writes.
      */
@@ -818,6 +833,58 @@ public class Context {
         return remapper == null ? factory.remapper : remapper;
     }
 
+    /**
+     * Set the remapper used by this Context, or {@code null} to use the one from its factory.
+     * <p>
+     * JavaMembers already reflected by this Context are dropped, because member names may change.
+     */
+    public void setRemapper(Remapper remapper) {
+        if (this.remapper != remapper) {
+            this.remapper = remapper;
+            classTable.clear();
+        }
+    }
+
+    /**
+     * Get the cache consulted before compiling a script or function, or {@code null} if sources are always compiled.
+     * <p>
+     * Unless set explicitly, the cache of the factory of this Context is used.
+     *
+     * @see ScriptCache
+     */
+    public ScriptCache getScriptCache() {
+        return scriptCache == null ? factory.getScriptCache() : scriptCache;
+    }
+
+    /**
+     * Set the cache of compiled scripts used by this Context, or {@code null} to use the one from its factory.
+     */
+    public final void setScriptCache(ScriptCache scriptCache) {
+        if (sealed) {
+            onSealedMutation();
+        }
+        this.scriptCache = scriptCache;
+    }
+
+    /**
+     * Get the profiler of scripts run by this Context, or {@code null} if they are not profiled.
+     * <p>
+     * Unless set explicitly, the profiler of the factory of this Context is used.
+     *
+     * @see ScriptProfiler
+     */
+    public ScriptProfiler getProfiler() {
+        return profiler == null ? factory.getProfiler() : profiler;
+    }
+
+    /**
+     * Set the profiler of scripts run by this Context, or {@code null} to use the one from its factory. The change
+     * takes effect on the next top-level call.
+     */
+    public final void setProfiler(ScriptProfiler profiler) {
+        this.profiler = profiler;
+    }
+
     public Object getCustomProperty(String name) {
         return customProperties.get(name);
     }
@@ -1206,6 +1273,20 @@ public class Context {
         return ScriptRuntime.initSafeStandardObjects(this, scope, sealed);
     }
 
+    /**
+     * Create a top-level scope for one script or sandbox, backed by the standard objects shared by all Contexts of
+     * the factory instead of initializing them again like {@link #initStandardObjects()} does, which makes it much
+     * cheaper to create and to keep around.
+     * <p>
+     * The standard objects are sealed: scripts can define and assign globals in the new scope, including ones hiding
+     * standard objects, but can not change the standard objects themselves.
+     *
+     * @see ContextFactory#getSharedScope(Context)
+     */
+    public final ScriptableObject newChildScope() {
+        return ScriptRuntime.newChildScope(factory.getSharedScope(this));
+    }
+
     /**
      * Evaluate a JavaScript source string.
      * <p>
@@ -1910,6 +1991,7 @@ public class Context {
      * @see #FEATURE_STRICT_MODE
      * @see #FEATURE_WARNING_AS_ERROR
      * @see #FEATURE_ENHANCED_JAVA_ACCESS
+     * @see #FEATURE_SHAPED_OBJECTS
      */
     public boolean hasFeature(int featureIndex) {
         ContextFactory f = getFactory();
@@ -2076,6 +2158,25 @@ public class Context {
             compilationErrorReporter = compilerEnv.getErrorReporter();
         }
 
+        // a custom compiler may produce anything, and eval scripts are flagged after compiling
+        val cache = compiler == null ? getScriptCache() : null;
+        ScriptCache.Key cacheKey = null;
+        if (cache != null) {
+            cacheKey = ScriptCache.Key.of(
+                compilerEnv,
+                sourceString,
+                sourceName,
+                lineno,
+                returnFunction,
+                isGeneratingBytecode(),
+                isStrictMode()
+            );
+            val cached = cache.get(cacheKey);
+            if (cached != null) {
+                return createFromBytecode(scope, cached, securityDomain, returnFunction);
+            }
+        }
+
         ScriptNode tree = parse(
             sourceString,
             sourceName,
@@ -2102,11 +2203,30 @@ public class Context {
             bytecode = compiler.compile(compilerEnv, tree, tree.getEncodedSource(), returnFunction);
         }
 
+        if (cacheKey != null) {
+            cache.put(cacheKey, bytecode);
+        }
+
         return returnFunction
             ? compiler.createFunctionObject(this, scope, bytecode, securityDomain)
             : compiler.createScriptObject(bytecode, securityDomain);
     }
 
+    /**
+     * Create a script or function from bytecode produced by the Interpreter or Codegen, see {@link ScriptCache}
+     */
+    private Object createFromBytecode(Scriptable scope, Object bytecode, Object securityDomain, boolean returnFunction) {
+        if (bytecode instanceof InterpreterData idata) {
+            return returnFunction
+                ? InterpretedFunction.createFunction(this, scope, idata, securityDomain)
+                : InterpretedFunction.createScript(idata, securityDomain);
+        }
+        val codegen = new Codegen();
+        return returnFunction
+            ? codegen.createFunctionObject(this, scope, bytecode, securityDomain)
+            : codegen.createScriptObject(bytecode, securityDomain);
+    }
+
     private ScriptNode parse(
         String sourceString,
         String sourceName,
@@ -2139,18 +2259,16 @@ public class Context {
         return irf.transformTree(ast);
     }
 
+    /**
+     * @return true if scripts compiled now are compiled to Java classes, false if they are interpreted. Scripts are
+     * interpreted while profiling, since only the interpreter counts instructions per function
+     */
+    private boolean isGeneratingBytecode() {
+        return RhinoProperties.INSTANCE.enableCompiler && optimizationLevel >= 0 && getProfiler() == null;
+    }
+
     private Evaluator createCompiler() {
-        if(!RhinoProperties.INSTANCE.enableCompiler) {
-            return createInterpreter();
-        }
-        Evaluator result = null;
-        if (optimizationLevel >= 0) {
-            result = new Codegen();
-        }
-        if (result == null) {
-            result = createInterpreter();
-        }
-        return result;
+        return isGeneratingBytecode() ? new Codegen() : createInterpreter();
     }
 
     RegExp getRegExp() {
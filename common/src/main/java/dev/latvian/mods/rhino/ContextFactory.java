@@ -113,6 +113,9 @@ public class ContextFactory {
 	private boolean disabledListening;
 	TypeWrappers typeWrappers;
 	Remapper remapper;
+	private volatile ScriptCache scriptCache;
+	private volatile ScriptProfiler profiler;
+	private volatile TopLevel sharedScope;
 
     public ContextFactory() {
         listenersLock = new Object();
@@ -220,6 +223,7 @@ public class ContextFactory {
             case Context.FEATURE_THREAD_SAFE_OBJECTS -> false;
             case Context.FEATURE_INTEGER_WITHOUT_DECIMAL_PLACE -> false;
             case Context.FEATURE_LITTLE_ENDIAN -> false;
+            case Context.FEATURE_SHAPED_OBJECTS -> false;
             default ->
                 // It is a bug to call the method with unknown featureIndex
                 throw new IllegalArgumentException(String.valueOf(featureIndex));
@@ -274,6 +278,60 @@ public class ContextFactory {
 		throw new IllegalStateException("This method has been depecrated");
 	}
 
+	/**
+	 * Get the cache of compiled scripts shared by Contexts created by this factory, or {@code null} if scripts are
+	 * compiled every time.
+	 *
+	 * @see Context#getScriptCache()
+	 */
+	public final ScriptCache getScriptCache() {
+		return scriptCache;
+	}
+
+	/**
+	 * Set the cache of compiled scripts shared by Contexts created by this factory, or {@code null} to disable caching.
+	 */
+	public final void setScriptCache(ScriptCache scriptCache) {
+		checkNotSealed();
+		this.scriptCache = scriptCache;
+	}
+
+	/**
+	 * Get the profiler shared by Contexts created by this factory, or {@code null} if scripts are not profiled.
+	 *
+	 * @see Context#getProfiler()
+	 */
+	public final ScriptProfiler getProfiler() {
+		return profiler;
+	}
+
+	/**
+	 * Set the profiler shared by Contexts created by this factory, or {@code null} to stop profiling. Unlike other
+	 * settings, this can be changed at any time, Contexts pick up the change on their next top-level call.
+	 */
+	public final void setProfiler(ScriptProfiler profiler) {
+		this.profiler = profiler;
+	}
+
+	/**
+	 * Get the sealed standard objects shared by the scopes of {@link Context#newChildScope()}, created with {@code cx}
+	 * on first use. The properties of the shared scope are never modified, so it is safe to use from several threads at
+	 * once.
+	 */
+	public final TopLevel getSharedScope(Context cx) {
+		TopLevel scope = sharedScope;
+		if (scope == null) {
+			synchronized (this) {
+				scope = sharedScope;
+				if (scope == null) {
+					scope = ScriptRuntime.initSharedStandardObjects(cx);
+					sharedScope = scope;
+				}
+			}
+		}
+		return scope;
+	}
+
 	/**
 	 * Execute top call to script or function.
 	 * When the runtime is about to execute a script or function that will
@@ -0,0 +1,135 @@
+package dev.latvian.mods.rhino;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * {@link ScriptCache} that additionally persists classes generated by {@link dev.latvian.mods.rhino.optimizer.Codegen}
+ * to a directory, so that compiled scripts survive JVM restarts.
+ * <p>
+ * Interpreted scripts are only cached in memory. Each class is stored in its own file named after
+ * {@link Key#digest()}, together with the engine version it was generated by, and files written by another engine
+ * version are ignored. I/O failures are never reported to scripts, the source is just compiled again.
+ *
+ * @author ZZZank
+ */
+public class DiskScriptCache implements ScriptCache {
+	private static final int MAGIC = 0x52484e43; // RHNC
+	private static final int FORMAT = 1;
+	private static final String EXTENSION = ".rhnc";
+
+	private final Path directory;
+	private final ScriptCache memory;
+
+	public DiskScriptCache(Path directory) {
+		this(directory, new MemoryScriptCache());
+	}
+
+	/**
+	 * @param memory cache consulted before reading from, and filled after writing to the disk
+	 */
+	public DiskScriptCache(Path directory, ScriptCache memory) {
+		this.directory = directory;
+		this.memory = memory;
+	}
+
+	public Path getDirectory() {
+		return directory;
+	}
+
+	@Override
+	@Nullable
+	public Object get(Key key) {
+		var bytecode = memory.get(key);
+		if (bytecode == null && key.optimizationLevel >= 0) {
+			bytecode = read(directory.resolve(key.digest() + EXTENSION));
+			if (bytecode != null) {
+				memory.put(key, bytecode);
+			}
+		}
+		return bytecode;
+	}
+
+	@Override
+	public void put(Key key, Object bytecode) {
+		memory.put(key, bytecode);
+		if (bytecode instanceof Object[] nameBytesPair
+			&& nameBytesPair.length == 2
+			&& nameBytesPair[0] instanceof String className
+			&& nameBytesPair[1] instanceof byte[] classBytes
+		) {
+			write(directory.resolve(key.digest() + EXTENSION), className, classBytes);
+		}
+	}
+
+	/**
+	 * Drop all entries, including the ones on disk
+	 */
+	@Override
+	public void clear() {
+		memory.clear();
+		if (!Files.isDirectory(directory)) {
+			return;
+		}
+		try (final var files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+			for (final var file : files) {
+				Files.deleteIfExists(file);
+			}
+		} catch (IOException ignored) {
+		}
+	}
+
+	private static String engineVersion() {
+		return String.valueOf(ImplementationVersion.get());
+	}
+
+	@Nullable
+	private static Object read(Path file) {
+		if (!Files.isRegularFile(file)) {
+			return null;
+		}
+		try (final var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			if (in.readInt() != MAGIC || in.readInt() != FORMAT || !engineVersion().equals(in.readUTF())) {
+				return null;
+			}
+			final var className = in.readUTF();
+			final var classBytes = new byte[in.readInt()];
+			in.readFully(classBytes);
+			return new Object[]{className, classBytes};
+		} catch (IOException | RuntimeException e) {
+			return null;
+		}
+	}
+
+	private void write(Path file, String className, byte[] classBytes) {
+		Path temp = null;
+		try {
+			Files.createDirectories(directory);
+			temp = Files.createTempFile(directory, "script", ".tmp");
+			try (final var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+				out.writeInt(MAGIC);
+				out.writeInt(FORMAT);
+				out.writeUTF(engineVersion());
+				out.writeUTF(className);
+				out.writeInt(classBytes.length);
+				out.write(classBytes);
+			}
+			try {
+				Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (IOException e) {
+				Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException e) {
+			if (temp != null) {
+				try {
+					Files.deleteIfExists(temp);
+				} catch (IOException ignored) {
+				}
+			}
+		}
+	}
+}
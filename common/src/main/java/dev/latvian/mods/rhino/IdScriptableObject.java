@@ -657,6 +657,13 @@ public abstract class IdScriptableObject extends ScriptableObject implements IdF
 		return result;
 	}
 
+	/**
+	 * Check if {@code name} is an instance or prototype id property, whose value is not stored in a slot.
+	 */
+	final boolean hasIdProperty(String name) {
+		return findInstanceIdInfo(name) != 0 || (prototypeValues != null && prototypeValues.findId(name) != 0);
+	}
+
 	/**
 	 * Get maximum id findInstanceIdInfo can generate.
 	 */
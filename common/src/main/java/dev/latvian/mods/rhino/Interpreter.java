@@ -8,6 +8,7 @@ package dev.latvian.mods.rhino;
 
 import dev.latvian.mods.rhino.ast.FunctionNode;
 import dev.latvian.mods.rhino.ast.ScriptNode;
+import dev.latvian.mods.rhino.native_java.NativeJavaMethod;
 import lombok.val;
 
 import java.io.PrintStream;
@@ -918,6 +919,15 @@ public final class Interpreter extends Icode implements Evaluator {
 			Kit.codeBug();
 		}
 
+		if (cx.lastInterpreterFrame == null) {
+			// outermost script call, pick up profiler changes
+			cx.activeProfiler = cx.getProfiler();
+			if (cx.activeProfiler != null) {
+				cx.profilerInstructions = 0;
+				cx.profilerTime = System.nanoTime();
+			}
+		}
+
 		CallFrame frame = initFrame(cx, scope, thisObj, args, null, 0, args.length, ifun, null);
 		frame.isContinuationsTopFrame = cx.isContinuationsTopCall;
 		cx.isContinuationsTopCall = false;
@@ -978,7 +988,8 @@ public final class Interpreter extends Icode implements Evaluator {
 		final Object DBL_MRK = DOUBLE_MARK;
 		final Object undefined = Undefined.instance;
 
-		final boolean instructionCounting = (cx.instructionThreshold != 0);
+		final ScriptProfiler profiler = cx.activeProfiler;
+		final boolean instructionCounting = (cx.instructionThreshold != 0 || profiler != null);
 		// arbitrary number to add to instructionCount when calling
 		// other functions
 		final int INVOCATION_COST = 100;
@@ -1086,7 +1097,9 @@ public final class Interpreter extends Icode implements Evaluator {
 							case Token.YIELD:
 							case Icode_YIELD_STAR: {
 								if (!frame.frozen) {
-									return freezeGenerator(cx, frame, stackTop, generatorState, op == Icode_YIELD_STAR);
+									// leave through the cleanups, so that the caller frame is restored
+									interpreterResult = freezeGenerator(cx, frame, stackTop, generatorState, op == Icode_YIELD_STAR);
+									break StateLoop;
 								}
 								Object obj = thawGenerator(frame, stackTop, generatorState, op);
 								if (obj != Scriptable.NOT_FOUND) {
@@ -1350,7 +1363,12 @@ public final class Interpreter extends Icode implements Evaluator {
 								if (lhs == DBL_MRK) {
 									lhs = ScriptRuntime.wrapNumber(sDbl[stackTop]);
 								}
-								stack[stackTop] = ScriptRuntime.getObjectProp(lhs, stringReg, cx, frame.scope);
+								if (lhs instanceof ScriptableObject obj) {
+									Object value = PropertyCache.of(frame.idata).getProperty(frame.pc - 1, obj, stringReg);
+									stack[stackTop] = ScriptRuntime.getObjectPropResult(value, stringReg, cx);
+								} else {
+									stack[stackTop] = ScriptRuntime.getObjectProp(lhs, stringReg, cx, frame.scope);
+								}
 								continue;
 							}
 							case Token.GETOPTIONAL: {
@@ -1371,7 +1389,12 @@ public final class Interpreter extends Icode implements Evaluator {
 								if (lhs == DBL_MRK) {
 									lhs = ScriptRuntime.wrapNumber(sDbl[stackTop]);
 								}
-								stack[stackTop] = ScriptRuntime.setObjectProp(lhs, stringReg, rhs, cx, frame.scope);
+								if (lhs instanceof ScriptableObject obj) {
+									PropertyCache.of(frame.idata).putProperty(frame.pc - 1, obj, stringReg, rhs);
+									stack[stackTop] = rhs;
+								} else {
+									stack[stackTop] = ScriptRuntime.setObjectProp(lhs, stringReg, rhs, cx, frame.scope);
+								}
 								continue;
 							}
 							case Icode_PROP_INC_DEC: {
@@ -1433,6 +1456,19 @@ public final class Interpreter extends Icode implements Evaluator {
 								continue;
 							case Icode_NAME_AND_THIS:
 								// stringReg: name
+								if (frame.scope instanceof ScriptableObject top && top.getParentScope() == null && !cx.useDynamicScope) {
+									Object value = PropertyCache.of(frame.idata).getProperty(frame.pc - 1, top, stringReg);
+									if (!(value instanceof Callable)) {
+										if (value == Scriptable.NOT_FOUND) {
+											throw ScriptRuntime.notFoundError(top, stringReg);
+										}
+										throw ScriptRuntime.notFunctionError(value, stringReg);
+									}
+									// Top scope is not NativeWith or NativeCall => thisObj == scope
+									stack[++stackTop] = value;
+									stack[++stackTop] = top;
+									continue;
+								}
 								++stackTop;
 								stack[stackTop] = ScriptRuntime.getNameFunctionAndThis(stringReg, cx, frame.scope);
 								++stackTop;
@@ -1444,7 +1480,17 @@ public final class Interpreter extends Icode implements Evaluator {
 									obj = ScriptRuntime.wrapNumber(sDbl[stackTop]);
 								}
 								// stringReg: property
-								stack[stackTop] = ScriptRuntime.getPropFunctionAndThis(obj, stringReg, cx, frame.scope);
+								if (obj instanceof ScriptableObject thisObj) {
+									Object value = PropertyCache.of(frame.idata).getProperty(frame.pc - 1, thisObj, stringReg);
+									if (value instanceof Callable) {
+										stack[stackTop] = value;
+										stack[++stackTop] = thisObj;
+										continue;
+									}
+									stack[stackTop] = ScriptRuntime.getPropFunctionAndThis(thisObj, stringReg, value, cx);
+								} else {
+									stack[stackTop] = ScriptRuntime.getPropFunctionAndThis(obj, stringReg, cx, frame.scope);
+								}
 								++stackTop;
 								stack[stackTop] = ScriptRuntime.lastStoredScriptable(cx);
 								continue;
@@ -1581,6 +1627,9 @@ public final class Interpreter extends Icode implements Evaluator {
 									}
 								}
 
+								if (profiler != null && fun instanceof NativeJavaMethod) {
+									profiler.onJavaCall(frame.idata);
+								}
 								cx.lastInterpreterFrame = frame;
 								frame.savedCallOp = op;
 								frame.savedStackTop = stackTop;
@@ -1621,6 +1670,9 @@ public final class Interpreter extends Icode implements Evaluator {
 									}
 								}
 
+								if (profiler != null && fun instanceof NativeJavaClass) {
+									profiler.onJavaCall(frame.idata);
+								}
 								Object[] outArgs = getArgsArray(stack, sDbl, stackTop + 1, indexReg);
 								stack[stackTop] = fun.construct(cx, frame.scope, outArgs);
 								continue;
@@ -1657,6 +1709,14 @@ public final class Interpreter extends Icode implements Evaluator {
 								sDbl[stackTop] = frame.idata.itsDoubleTable[indexReg];
 								continue;
 							case Token.NAME:
+								if (frame.scope instanceof ScriptableObject top && top.getParentScope() == null && !cx.useDynamicScope) {
+									Object value = PropertyCache.of(frame.idata).getProperty(frame.pc - 1, top, stringReg);
+									if (value == Scriptable.NOT_FOUND) {
+										throw ScriptRuntime.notFoundError(top, stringReg);
+									}
+									stack[++stackTop] = value;
+									continue;
+								}
 								stack[++stackTop] = ScriptRuntime.name(cx, frame.scope, stringReg);
 								continue;
 							case Icode_NAME_INC_DEC:
@@ -1961,6 +2021,11 @@ public final class Interpreter extends Icode implements Evaluator {
 
 				} // end of Loop: for
 
+				if (profiler != null) {
+					// straight code before a return is not counted by branches, the outermost frame flushes the count
+					boolean outermost = frame.parentFrame == null && (cx.previousInterpreterInvocations == null || cx.previousInterpreterInvocations.isEmpty());
+					profileInstructions(cx, frame, frame.pc - frame.pcPrevBranch, outermost);
+				}
 				exitFrame(cx, frame, null);
 				interpreterResult = frame.result;
 				interpreterResultDbl = frame.resultDbl;
@@ -2089,7 +2154,7 @@ public final class Interpreter extends Icode implements Evaluator {
 		// Do cleanups/restorations before the final return or throw
 
 		if (cx.previousInterpreterInvocations != null && !cx.previousInterpreterInvocations.isEmpty()) {
-			cx.lastInterpreterFrame = cx.previousInterpreterInvocations.pop();
+			cx.lastInterpreterFrame = cx.previousInterpreterInvocations.removeLast();
 		} else {
 			// It was the last interpreter frame on the stack
 			cx.lastInterpreterFrame = null;
@@ -2637,6 +2702,9 @@ public final class Interpreter extends Icode implements Evaluator {
 
 	private static CallFrame initFrame(Context cx, Scriptable callerScope, Scriptable thisObj, Object[] args, double[] argsDbl, int argShift, int argCount, InterpretedFunction fnOrScript, CallFrame parentFrame) {
 		CallFrame frame = new CallFrame(cx, thisObj, fnOrScript, parentFrame);
+		if (cx.activeProfiler != null) {
+			cx.activeProfiler.onCall(frame.idata);
+		}
 		frame.initializeArgs(cx, callerScope, args, argsDbl, argShift, argCount);
 		enterFrame(cx, frame, args, false);
 		return frame;
@@ -2902,10 +2970,56 @@ public final class Interpreter extends Icode implements Evaluator {
 	}
 
 	private static void addInstructionCount(Context cx, CallFrame frame, int extra) {
-		cx.instructionCount += frame.pc - frame.pcPrevBranch + extra;
-		if (cx.instructionCount > cx.instructionThreshold) {
-			cx.observeInstructionCount(cx.instructionCount);
-			cx.instructionCount = 0;
+		int count = frame.pc - frame.pcPrevBranch + extra;
+		if (cx.activeProfiler != null) {
+			profileInstructions(cx, frame, count, false);
+		}
+		if (cx.instructionThreshold != 0) {
+			cx.instructionCount += count;
+			if (cx.instructionCount > cx.instructionThreshold) {
+				cx.observeInstructionCount(cx.instructionCount);
+				cx.instructionCount = 0;
+			}
+		}
+	}
+
+	/**
+	 * Add {@code count} instructions executed by {@code frame} to the profiler count, and take a sample once enough
+	 * instructions were counted, or when {@code flush} is true
+	 */
+	private static void profileInstructions(Context cx, CallFrame frame, int count, boolean flush) {
+		cx.profilerInstructions += count;
+		ScriptProfiler profiler = cx.activeProfiler;
+		if (cx.profilerInstructions < profiler.getSampleInterval() && !(flush && cx.profilerInstructions > 0)) {
+			return;
 		}
+		long now = System.nanoTime();
+		profiler.sample(getProfilerStack(cx, frame), cx.profilerInstructions, now - cx.profilerTime);
+		cx.profilerInstructions = 0;
+		cx.profilerTime = now;
+	}
+
+	/**
+	 * @return functions of the script stack ending with {@code frame}, including the interpreter invocations it was
+	 * called from, outermost first
+	 */
+	private static InterpreterData[] getProfilerStack(Context cx, CallFrame frame) {
+		ArrayList<InterpreterData> stack = new ArrayList<>();
+		for (CallFrame f = frame; f != null; f = f.parentFrame) {
+			stack.add(f.idata);
+		}
+		if (cx.previousInterpreterInvocations != null) {
+			Iterator<Object> previous = cx.previousInterpreterInvocations.descendingIterator();
+			while (previous.hasNext()) {
+				for (CallFrame f = (CallFrame) previous.next(); f != null; f = f.parentFrame) {
+					stack.add(f.idata);
+				}
+			}
+		}
+		InterpreterData[] result = new InterpreterData[stack.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = stack.get(result.length - 1 - i);
+		}
+		return result;
 	}
 }
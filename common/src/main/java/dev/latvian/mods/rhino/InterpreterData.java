@@ -80,10 +80,20 @@ final class InterpreterData implements Serializable {
 
 	InterpreterData parentData;
 
+	/**
+	 * name, source and line of this function identifying it in a {@link ScriptProfiler}, computed on first use
+	 */
+	transient String profileLabel;
+
 	boolean evalScriptFlag; // true if script corresponds to eval() code
 
 	private int icodeHashCode = 0;
 
+	/**
+	 * lazily created by {@link PropertyCache#of(InterpreterData)}
+	 */
+	transient PropertyCache propertyCache;
+
 	/**
 	 * true if the function has been declared like "var foo = function() {...}"
 	 */
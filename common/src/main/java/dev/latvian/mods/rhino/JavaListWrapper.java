@@ -0,0 +1,44 @@
+package dev.latvian.mods.rhino;
+
+/**
+ * Wrapper of a Java list or array, whose elements {@code Array.prototype} methods and for-of read and write directly
+ * instead of through generic property access by index.
+ * <p>
+ * Elements are always read and written through {@link Scriptable#get(Context, int, Scriptable)} and
+ * {@link Scriptable#put(Context, int, Scriptable, Object)} of the wrapper, so overriding those is enough to change
+ * what every {@code Array.prototype} method sees.
+ *
+ * @author ZZZank
+ */
+interface JavaListWrapper extends Scriptable {
+	int size();
+
+	/**
+	 * @return the element at {@code index} as seen by scripts, or undefined if out of bounds
+	 */
+	default Object getElement(Context cx, int index) {
+		return get(cx, index, this);
+	}
+
+	/**
+	 * @return elements from {@code from} inclusive to {@code to} exclusive as seen by scripts
+	 */
+	default Object[] getElements(Context cx, int from, int to) {
+		Object[] result = new Object[to - from];
+		for (int i = from; i < to; i++) {
+			result[i - from] = get(cx, i, this);
+		}
+		return result;
+	}
+
+	/**
+	 * Replace all elements
+	 *
+	 * @param values script values, as many as there are elements
+	 */
+	default void setElements(Context cx, Object[] values) {
+		for (int i = 0; i < values.length; i++) {
+			put(cx, i, this, values[i]);
+		}
+	}
+}
@@ -10,7 +10,6 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
-import java.util.Map;
 
 /**
  * Collection of utilities
@@ -276,18 +275,6 @@ public class Kit {
 		}
 	}
 
-	static Object initHash(Map<Object, Object> h, Object key, Object initialValue) {
-		synchronized (h) {
-			Object current = h.get(key);
-			if (current == null) {
-				h.put(key, initialValue);
-			} else {
-				initialValue = current;
-			}
-		}
-		return initialValue;
-	}
-
 	private final static class ComplexKey {
 		private final Object key1;
 		private final Object key2;
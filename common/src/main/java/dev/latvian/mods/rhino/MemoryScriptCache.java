@@ -0,0 +1,61 @@
+package dev.latvian.mods.rhino;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@link ScriptCache} keeping compiled scripts in memory, evicting the least recently used ones once full.
+ *
+ * @author ZZZank
+ */
+public class MemoryScriptCache implements ScriptCache {
+	public static final int DEFAULT_MAX_SIZE = 1024;
+
+	private final Map<Key, Object> entries;
+
+	public MemoryScriptCache() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	public MemoryScriptCache(int maxSize) {
+		if (maxSize <= 0) {
+			throw new IllegalArgumentException("maxSize <= 0");
+		}
+		this.entries = new LinkedHashMap<Key, Object>(Math.min(maxSize, 64), 0.75F, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+
+	@Override
+	@Nullable
+	public Object get(Key key) {
+		synchronized (entries) {
+			return entries.get(key);
+		}
+	}
+
+	@Override
+	public void put(Key key, Object bytecode) {
+		synchronized (entries) {
+			entries.put(key, bytecode);
+		}
+	}
+
+	@Override
+	public void clear() {
+		synchronized (entries) {
+			entries.clear();
+		}
+	}
+
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+}
@@ -873,6 +873,14 @@ public class NativeArray extends IdScriptableObject implements List, DataObject
 		length = longVal;
 	}
 
+	/**
+	 * @return true if {@code f} is the built-in {@code Array.prototype.values}, also known as
+	 * {@code Array.prototype[Symbol.iterator]}
+	 */
+	static boolean isValuesFunction(Object f) {
+		return f instanceof IdFunctionObject idf && idf.hasTag(ARRAY_TAG) && (idf.methodId() == Id_values || idf.methodId() == SymbolId_iterator);
+	}
+
 	/* Support for generic Array-ish objects.  Most of the Array
 	 * functions try to be generic; anything that has a length
 	 * property is assumed to be an array.
@@ -929,7 +937,7 @@ public class NativeArray extends IdScriptableObject implements List, DataObject
 	}
 
 	private static Object getElem(Context cx, Scriptable target, long index) {
-		Object elem = getRawElem(target, index);
+		Object elem = getRawElem(cx, target, index);
 		return (elem != NOT_FOUND ? elem : Undefined.instance);
 	}
 
@@ -941,6 +949,14 @@ public class NativeArray extends IdScriptableObject implements List, DataObject
 		return getProperty(target, (int) index);
 	}
 
+	// same as getRawElem, but reading elements of wrapped Java lists and arrays directly
+	private static Object getRawElem(Context cx, Scriptable target, long index) {
+		if (target instanceof JavaListWrapper list && index <= Integer.MAX_VALUE) {
+			return list.getElement(cx, (int) index);
+		}
+		return getRawElem(target, index);
+	}
+
 	private static void defineElem(Context cx, Scriptable target, long index, Object value) {
 		if (index > Integer.MAX_VALUE) {
 			String id = Long.toString(index);
@@ -1128,6 +1144,16 @@ public class NativeArray extends IdScriptableObject implements List, DataObject
 				return o;
 			}
 		}
+		if (o instanceof JavaListWrapper list) {
+			Object[] elements = list.getElements(cx, 0, list.size());
+			for (int i = 0, j = elements.length - 1; i < j; i++, j--) {
+				Object temp = elements[i];
+				elements[i] = elements[j];
+				elements[j] = temp;
+			}
+			list.setElements(cx, elements);
+			return o;
+		}
 		long len = getLengthProperty(cx, o, false);
 
 		long half = len / 2;
@@ -1170,6 +1196,14 @@ public class NativeArray extends IdScriptableObject implements List, DataObject
 			comparator = DEFAULT_COMPARATOR;
 		}
 
+		if (o instanceof JavaListWrapper list) {
+			// read and write back the Java list in one pass each, not element by element
+			final Object[] working = list.getElements(cx, 0, list.size());
+			Sorting.get().hybridSort(working, comparator);
+			list.setElements(cx, working);
+			return o;
+		}
+
 		long llength = getLengthProperty(cx, o, false);
 		final int length = (int) llength;
 		if (llength != length) {
@@ -1460,6 +1494,11 @@ public class NativeArray extends IdScriptableObject implements List, DataObject
 				// native array. However, if the source array is very sparse then the result will be
 				// very bad -- so don't.
 			}
+			if (denseResult.denseOnly && arg instanceof JavaListWrapper list && srclen == list.size() && denseResult.ensureCapacity((int) newlen)) {
+				Object[] elements = list.getElements(cx, 0, (int) srclen);
+				System.arraycopy(elements, 0, denseResult.dense, (int) offset, elements.length);
+				return newlen;
+			}
 		}
 
 		// If we get here then we have to do things the generic way
@@ -1503,7 +1542,6 @@ public class NativeArray extends IdScriptableObject implements List, DataObject
 	private static Scriptable js_slice(Context cx, Scriptable scope, Scriptable thisObj, Object[] args) {
 		Scriptable o = ScriptRuntime.toObject(cx, scope, thisObj);
 
-		Scriptable result = cx.newArray(scope, 0);
 		long len = getLengthProperty(cx, o, false);
 
 		long begin, end;
@@ -1519,6 +1557,10 @@ public class NativeArray extends IdScriptableObject implements List, DataObject
 			}
 		}
 
+		if (o instanceof JavaListWrapper list && end <= list.size()) {
+			return cx.newArray(scope, list.getElements(cx, (int) begin, (int) Math.max(begin, end)));
+		}
+		Scriptable result = cx.newArray(scope, 0);
 		for (long slot = begin; slot < end; slot++) {
 			Object temp = getRawElem(o, slot);
 			if (temp != NOT_FOUND) {
@@ -1593,7 +1635,7 @@ public class NativeArray extends IdScriptableObject implements List, DataObject
 			}
 		}
 		for (long i = start; i < length; i++) {
-			Object val = getRawElem(o, i);
+			Object val = getRawElem(cx, o, i);
 			if (val != NOT_FOUND && ScriptRuntime.shallowEq(val, compareTo)) {
 				return i;
 			}
@@ -1648,7 +1690,7 @@ public class NativeArray extends IdScriptableObject implements List, DataObject
 			}
 		}
 		for (long i = start; i >= 0; i--) {
-			Object val = getRawElem(o, i);
+			Object val = getRawElem(cx, o, i);
 			if (val != NOT_FOUND && ScriptRuntime.shallowEq(val, compareTo)) {
 				return i;
 			}
@@ -1702,7 +1744,7 @@ public class NativeArray extends IdScriptableObject implements List, DataObject
 			}
 		}
 		for (; k < len; k++) {
-			Object elementK = getRawElem(o, k);
+			Object elementK = getRawElem(cx, o, k);
 			if (elementK == NOT_FOUND) {
 				elementK = Undefined.instance;
 			}
@@ -1862,7 +1904,7 @@ public class NativeArray extends IdScriptableObject implements List, DataObject
 		long j = 0;
 		for (long i = 0; i < length; i++) {
 			Object[] innerArgs = new Object[3];
-			Object elem = getRawElem(o, i);
+			Object elem = getRawElem(cx, o, i);
 			if (elem == NOT_FOUND) {
 				if (id == Id_find || id == Id_findIndex) {
 					elem = Undefined.instance;
@@ -1933,7 +1975,7 @@ public class NativeArray extends IdScriptableObject implements List, DataObject
 		Object value = args.length > 1 ? args[1] : NOT_FOUND;
 		for (long i = 0; i < length; i++) {
 			long index = movingLeft ? i : (length - 1 - i);
-			Object elem = getRawElem(o, index);
+			Object elem = getRawElem(cx, o, index);
 			if (elem == NOT_FOUND) {
 				continue;
 			}
@@ -6,24 +6,27 @@
 
 package dev.latvian.mods.rhino;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonNull;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonPrimitive;
-import com.google.gson.internal.Streams;
 import com.google.gson.stream.JsonWriter;
 import dev.latvian.mods.rhino.json.JsonParser;
 import dev.latvian.mods.rhino.util.HideFromJS;
 import lombok.val;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
-import java.util.Stack;
+import java.util.Set;
 
 /**
  * This class implements the JSON native object.
@@ -220,10 +223,28 @@ public final class NativeJSON extends IdScriptableObject {
 	}
 
 	public static String stringify(Context cx, Scriptable scope, Object value, Object replacer, Object space) {
-		JsonElement e = stringify0(cx, scope, value);
-
 		StringWriter stringWriter = new StringWriter();
-		JsonWriter writer = new JsonWriter(stringWriter);
+
+		try {
+			stringify(cx, scope, value, replacer, space, stringWriter);
+			return stringWriter.toString();
+		} catch (IOException ex) {
+			ex.printStackTrace();
+			return "error";
+		}
+	}
+
+	/**
+	 * Write {@code value} as JSON to {@code out} as it is being walked, without building the whole document in memory
+	 * first. {@code out} is flushed but not closed.
+	 *
+	 * @param replacer a function called with every key and value, or a list of property names to include in objects,
+	 *                 the same as the replacer argument of {@code JSON.stringify()}
+	 * @param space    a number of spaces or a string to indent with, the same as the space argument of
+	 *                 {@code JSON.stringify()}
+	 */
+	public static void stringify(Context cx, Scriptable scope, Object value, Object replacer, Object space, Writer out) throws IOException {
+		JsonWriter writer = new JsonWriter(out);
 
 		String indent = null;
 
@@ -252,13 +273,18 @@ public final class NativeJSON extends IdScriptableObject {
 		writer.setHtmlSafe(false);
 		writer.setLenient(true);
 
-		try {
-			Streams.write(e, writer);
-			return stringWriter.toString();
-		} catch (Exception ex) {
-			ex.printStackTrace();
-			return "error";
-		}
+		new Stringifier(cx, scope, writer, replacer).writeRoot(value);
+		writer.flush();
+	}
+
+	/**
+	 * Write {@code value} as UTF-8 encoded JSON to {@code out}. {@code out} is flushed but not closed.
+	 *
+	 * @see #stringify(Context, Scriptable, Object, Object, Object, Writer)
+	 */
+	public static void stringify(Context cx, Scriptable scope, Object value, Object replacer, Object space, OutputStream out) throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+		stringify(cx, scope, value, replacer, space, writer);
 	}
 
 	private static void type(StringBuilder builder, Class<?> type) {
@@ -285,124 +311,243 @@ public final class NativeJSON extends IdScriptableObject {
 		builder.append(')');
 	}
 
-	private static JsonElement stringify0(Context cx, Scriptable scope, Object v) {
-		if (v == null) {
-			return JsonNull.INSTANCE;
-		} else if (v instanceof Boolean) {
-			return new JsonPrimitive((Boolean) v);
-		} else if (v instanceof CharSequence) {
-			return new JsonPrimitive(v.toString());
-		} else if (v instanceof Number) {
-			return new JsonPrimitive((Number) v);
-		} else if (v instanceof NativeString) {
-			return new JsonPrimitive(ScriptRuntime.toString(v));
-		} else if (v instanceof NativeNumber) {
-			return new JsonPrimitive(ScriptRuntime.toNumber(v));
-		} else if (v instanceof Map) {
-			JsonObject json = new JsonObject();
-			for (Map.Entry<?, ?> entry : ((Map<?, ?>) v).entrySet()) {
-				json.add(entry.getKey().toString(), stringify0(cx, scope, entry.getValue()));
-			}
-			return json;
-		} else if (v instanceof Iterable) {
-			JsonArray json = new JsonArray();
-			for (Object o : (Iterable<?>) v) {
-				json.add(stringify0(cx, scope, o));
+	/**
+	 * Walks a value and writes it to a {@link JsonWriter} in a single pass
+	 */
+	private static final class Stringifier {
+		private final Context cx;
+		private final Scriptable scope;
+		private final JsonWriter writer;
+		private final Callable replacerFunction;
+		private final Set<String> propertyList;
+		/**
+		 * objects and arrays currently being written, for detecting cycles
+		 */
+		private final Set<Object> stack = Collections.newSetFromMap(new IdentityHashMap<>());
+
+		Stringifier(Context cx, Scriptable scope, JsonWriter writer, Object replacer) {
+			this.cx = cx;
+			this.scope = scope;
+			this.writer = writer;
+
+			if (replacer instanceof Callable callable) {
+				replacerFunction = callable;
+				propertyList = null;
+			} else if (replacer instanceof Iterable<?> iterable) {
+				replacerFunction = null;
+				propertyList = new LinkedHashSet<>();
+				for (Object o : iterable) {
+					if (o instanceof NativeString || o instanceof NativeNumber) {
+						o = ScriptRuntime.toPrimitive(o);
+					}
+					if (o instanceof CharSequence || o instanceof Number) {
+						propertyList.add(ScriptRuntime.toString(o));
+					}
+				}
+			} else {
+				replacerFunction = null;
+				propertyList = null;
 			}
-			return json;
 		}
 
-		if (v instanceof Wrapper) {
-			v = ((Wrapper) v).unwrap();
+		void writeRoot(Object value) throws IOException {
+			if (replacerFunction != null) {
+				Scriptable holder = cx.newObject(scope);
+				holder.put("", holder, value);
+				value = replace(holder, "", value);
+			}
+
+			if (value != Undefined.instance) {
+				write(value);
+			}
 		}
 
-		Class<?> cl = v.getClass();
-		val name = cx.getRemapper().remapClass(cl);
-		val className = new StringBuilder(name.isEmpty() ? cl.getName() : name);
+		private Object replace(Object holder, String key, Object value) {
+			Scriptable thisObj = holder instanceof Scriptable s ? s : ScriptRuntime.toObject(cx, scope, holder);
+			return replacerFunction.call(cx, scope, thisObj, new Object[]{key, Context.javaToJS(cx, value, scope)});
+		}
 
-		while (cl.isArray()) {
-			cl = cl.getComponentType();
-			className.append("[]");
+		private void write(Object v) throws IOException {
+			if (v == null || v == Undefined.instance) {
+				writer.nullValue();
+			} else if (v instanceof Boolean b) {
+				writer.value(b);
+			} else if (v instanceof CharSequence) {
+				writer.value(v.toString());
+			} else if (v instanceof Number n) {
+				writer.value(n);
+			} else if (v instanceof NativeString) {
+				writer.value(ScriptRuntime.toString(v));
+			} else if (v instanceof NativeNumber) {
+				writer.value(ScriptRuntime.toNumber(v));
+			} else if (v instanceof Map<?, ?> map) {
+				writeObject(v, map);
+			} else if (v instanceof NativeJavaMap javaMap) {
+				writeObject(v, javaMap.map);
+			} else if (v instanceof Iterable<?> iterable) {
+				writeArray(v, iterable);
+			} else {
+				describe(v);
+			}
 		}
 
-		JsonArray list = new JsonArray();
+		private void writeObject(Object holder, Map<?, ?> map) throws IOException {
+			enter(holder);
+			writer.beginObject();
 
-		if (cl.isInterface()) {
-			className.insert(0, "interface ");
-		} else if (cl.isAnnotation()) {
-			className.insert(0, "annotation ");
-		} else if (cl.isEnum()) {
-			className.insert(0, "enum ");
-		} else {
-			className.insert(0, "class ");
+			if (propertyList == null) {
+				for (Map.Entry<?, ?> entry : map.entrySet()) {
+					writeProperty(holder, entry.getKey().toString(), entry.getValue());
+				}
+			} else {
+				Map<String, Object> values = new HashMap<>();
+				for (Map.Entry<?, ?> entry : map.entrySet()) {
+					String key = entry.getKey().toString();
+					if (propertyList.contains(key)) {
+						values.put(key, entry.getValue());
+					}
+				}
+				for (String key : propertyList) {
+					if (values.containsKey(key)) {
+						writeProperty(holder, key, values.get(key));
+					}
+				}
+			}
+
+			writer.endObject();
+			stack.remove(holder);
 		}
 
-		list.add(className.toString());
+		private void writeProperty(Object holder, String key, Object value) throws IOException {
+			if (replacerFunction != null) {
+				value = replace(holder, key, value);
+			}
 
-		for (val constructor : cl.getConstructors()) {
-			if (constructor.isAnnotationPresent(HideFromJS.class)) {
-				continue;
+			// undefined properties are left out of objects, but written as null in arrays
+			if (value != Undefined.instance) {
+				writer.name(key);
+				write(value);
 			}
-			val builder = new StringBuilder("new ");
-			builder.append(cl.getSimpleName());
-			params(builder, constructor.getParameterTypes());
-			list.add(builder.toString());
 		}
 
-		for (val field : cl.getFields()) {
-			val mod = field.getModifiers();
-			if (Modifier.isTransient(mod) || field.isAnnotationPresent(HideFromJS.class)) {
-				continue;
-			}
+		private void writeArray(Object holder, Iterable<?> iterable) throws IOException {
+			enter(holder);
+			writer.beginArray();
 
-			val fName = new StringBuilder();
-			if (Modifier.isStatic(mod)) {
-				fName.append("static ");
+			int index = 0;
+			for (Object o : iterable) {
+				if (replacerFunction != null) {
+					o = replace(holder, Integer.toString(index), o);
+				}
+				write(o);
+				index++;
 			}
-			if (Modifier.isFinal(mod)) {
-				fName.append("final ");
+
+			writer.endArray();
+			stack.remove(holder);
+		}
+
+		private void enter(Object value) {
+			if (!stack.add(value)) {
+				throw ScriptRuntime.typeError1("msg.cyclic.value", value.getClass().getName());
 			}
-			if (Modifier.isNative(mod)) {
-				fName.append("native ");
+		}
+
+		/**
+		 * Describe the class of a Java object, with its constructors, fields and methods
+		 */
+		private void describe(Object v) throws IOException {
+			if (v instanceof Wrapper) {
+				v = ((Wrapper) v).unwrap();
 			}
-			type(fName, field.getType());
-			fName.append(' ');
 
-            fName.append(cx.getRemapper().remapFieldSafe(cl, field));
+			Class<?> cl = v.getClass();
+			val name = cx.getRemapper().remapClass(cl);
+			val className = new StringBuilder(name.isEmpty() ? cl.getName() : name);
 
-			list.add(fName.toString());
-		}
+			while (cl.isArray()) {
+				cl = cl.getComponentType();
+				className.append("[]");
+			}
 
-		for (val method : cl.getMethods()) {
-			if (method.isAnnotationPresent(HideFromJS.class)) {
-				continue;
+			if (cl.isInterface()) {
+				className.insert(0, "interface ");
+			} else if (cl.isAnnotation()) {
+				className.insert(0, "annotation ");
+			} else if (cl.isEnum()) {
+				className.insert(0, "enum ");
+			} else {
+				className.insert(0, "class ");
 			}
 
-			val builder = new StringBuilder();
+			writer.beginArray();
+			writer.value(className.toString());
 
-			val modifiers = method.getModifiers();
-			if (Modifier.isStatic(modifiers)) {
-				builder.append("static ");
+			for (val constructor : cl.getConstructors()) {
+				if (constructor.isAnnotationPresent(HideFromJS.class)) {
+					continue;
+				}
+				val builder = new StringBuilder("new ");
+				builder.append(cl.getSimpleName());
+				params(builder, constructor.getParameterTypes());
+				writer.value(builder.toString());
 			}
-			if (Modifier.isNative(modifiers)) {
-				builder.append("native ");
+
+			for (val field : cl.getFields()) {
+				val mod = field.getModifiers();
+				if (Modifier.isTransient(mod) || field.isAnnotationPresent(HideFromJS.class)) {
+					continue;
+				}
+
+				val fName = new StringBuilder();
+				if (Modifier.isStatic(mod)) {
+					fName.append("static ");
+				}
+				if (Modifier.isFinal(mod)) {
+					fName.append("final ");
+				}
+				if (Modifier.isNative(mod)) {
+					fName.append("native ");
+				}
+				type(fName, field.getType());
+				fName.append(' ');
+
+				fName.append(cx.getRemapper().remapFieldSafe(cl, field));
+
+				writer.value(fName.toString());
 			}
 
-			type(builder, method.getReturnType());
-			builder.append(' ');
+			for (val method : cl.getMethods()) {
+				if (method.isAnnotationPresent(HideFromJS.class)) {
+					continue;
+				}
+
+				val builder = new StringBuilder();
+
+				val modifiers = method.getModifiers();
+				if (Modifier.isStatic(modifiers)) {
+					builder.append("static ");
+				}
+				if (Modifier.isNative(modifiers)) {
+					builder.append("native ");
+				}
+
+				type(builder, method.getReturnType());
+				builder.append(' ');
 
-			builder.append(cx.getRemapper().remapMethodSafe(cl, method));
+				builder.append(cx.getRemapper().remapMethodSafe(cl, method));
 
-			params(builder, method.getParameterTypes());
+				params(builder, method.getParameterTypes());
 
-			String s = builder.toString();
+				String s = builder.toString();
 
-			if (!IGNORED_METHODS.contains(s)) {
-				list.add(s);
+				if (!IGNORED_METHODS.contains(s)) {
+					writer.value(s);
+				}
 			}
-		}
 
-		return list;
+			writer.endArray();
+		}
 	}
 
 	// #string_id_map#
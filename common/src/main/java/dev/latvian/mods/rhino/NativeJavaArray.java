@@ -9,7 +9,6 @@ package dev.latvian.mods.rhino;
 import dev.latvian.mods.rhino.native_java.NativeJavaPackage;
 import dev.latvian.mods.rhino.native_java.type.info.ArrayTypeInfo;
 import dev.latvian.mods.rhino.native_java.type.info.TypeInfo;
-import lombok.val;
 
 import java.lang.reflect.Array;
 
@@ -22,18 +21,24 @@ import java.lang.reflect.Array;
  * @see NativeJavaPackage
  */
 
-public class NativeJavaArray extends NativeJavaObject implements SymbolScriptable {
+public class NativeJavaArray extends NativeJavaObject implements SymbolScriptable, JavaListWrapper {
 	private static final long serialVersionUID = -924022554283675333L;
 
 	Object array;
 	int length;
 	TypeInfo componentType;
+	/**
+	 * elements that scripts use as primitive values are returned without going through the WrapFactory, see
+	 * {@link WrapFactory#isJavaPrimitiveWrap()}
+	 */
+	private final boolean primitiveElements;
 
 	public NativeJavaArray(Context cx, Scriptable scope, Object array, ArrayTypeInfo type) {
 		super(cx, scope, array, type);
 		this.array = array;
 		this.length = Array.getLength(array);
 		this.componentType = type.componentType();
+		this.primitiveElements = !cx.getWrapFactory().isJavaPrimitiveWrap();
 	}
 
 	@Override
@@ -73,16 +78,59 @@ public class NativeJavaArray extends NativeJavaObject implements SymbolScriptabl
 		return result;
 	}
 
+	/**
+	 * Delegates to {@link #get(Context, int, Scriptable)}, which scripts call directly, so overrides should go there.
+	 */
 	@Override
 	public Object get(int index, Scriptable start) {
+		return get(Context.getCurrentContext(), index, start);
+	}
+
+	@Override
+	public Object get(Context cx, int index, Scriptable start) {
 		if (0 <= index && index < length) {
-			val cx = Context.getContext();
-			val obj = Array.get(array, index);
-			return cx.getWrapFactory().wrap(cx, this, obj, componentType);
+			return array instanceof Object[] objects ? wrapElement(cx, objects[index]) : getPrimitive(index);
 		}
 		return Undefined.instance;
 	}
 
+	private Object wrapElement(Context cx, Object obj) {
+		if (obj == null || primitiveElements && WrapFactory.isJavaPrimitive(obj)) {
+			return obj;
+		}
+		return cx.getWrapFactory().wrap(cx, this, obj, componentType);
+	}
+
+	@Override
+	public int size() {
+		return length;
+	}
+
+	/**
+	 * Same as wrapping {@code Array.get(array, index)} for a primitive component type, without reflection: numbers and
+	 * booleans are returned boxed, chars as their code
+	 */
+	private Object getPrimitive(int index) {
+		if (array instanceof int[] ints) {
+			return ints[index];
+		} else if (array instanceof double[] doubles) {
+			return doubles[index];
+		} else if (array instanceof float[] floats) {
+			return floats[index];
+		} else if (array instanceof long[] longs) {
+			return longs[index];
+		} else if (array instanceof byte[] bytes) {
+			return bytes[index];
+		} else if (array instanceof short[] shorts) {
+			return shorts[index];
+		} else if (array instanceof boolean[] booleans) {
+			return booleans[index];
+		} else if (array instanceof char[] chars) {
+			return (int) chars[index];
+		}
+		throw Kit.codeBug();
+	}
+
 	@Override
 	public Object get(Symbol key, Scriptable start) {
 		if (SymbolKey.IS_CONCAT_SPREADABLE.equals(key)) {
@@ -99,12 +147,20 @@ public class NativeJavaArray extends NativeJavaObject implements SymbolScriptabl
 		}
 	}
 
+	/**
+	 * Delegates to {@link #put(Context, int, Scriptable, Object)}, which scripts call directly, so overrides should go there.
+	 */
 	@Override
 	public void put(int index, Scriptable start, Object value) {
+		put(Context.getCurrentContext(), index, start, value);
+	}
+
+	@Override
+	public void put(Context cx, int index, Scriptable start, Object value) {
         if (0 > index || index >= length) {
             throw Context.reportRuntimeError2("msg.java.array.index.out.of.bounds", String.valueOf(index), String.valueOf(length - 1));
         }
-        Array.set(array, index, Context.jsToJava(Context.getContext(), value, componentType));
+        Array.set(array, index, Context.jsToJava(cx, value, componentType));
     }
 
 	@Override
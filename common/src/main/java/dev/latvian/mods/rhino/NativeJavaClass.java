@@ -11,7 +11,6 @@ import dev.latvian.mods.rhino.native_java.type.info.TypeInfo;
 import lombok.val;
 
 import java.lang.reflect.Modifier;
-import java.util.Map;
 
 /**
  * not moving to {@link dev.latvian.mods.rhino.native_java} for KubeJS compat
@@ -53,7 +52,6 @@ public class NativeJavaClass extends NativeJavaObject implements Function {
 	protected void initMembers(Context cx, Scriptable scope) {
 		Class<?> cl = (Class<?>) javaObject;
 		members = JavaMembers.lookupClass(cx, scope, cl, cl, isAdapter);
-		staticFieldAndMethods = members.getFieldAndMethodsObjects(this, cl, true);
 	}
 
 	@Override
@@ -76,14 +74,9 @@ public class NativeJavaClass extends NativeJavaObject implements Function {
 			return null;
 		}
 
-		if (staticFieldAndMethods != null) {
-			Object result = staticFieldAndMethods.get(name);
-			if (result != null) {
-				return result;
-			}
-		}
 		if (members.has(name, true)) {
-			return members.get(this, name, javaObject, true);
+			val result = members.get(this, name, javaObject, true);
+			return result instanceof FieldAndMethods fam ? bindFieldAndMethods(fam) : result;
 		}
 
 		val cx = Context.getContext();
@@ -246,6 +239,4 @@ public class NativeJavaClass extends NativeJavaObject implements Function {
 		}
 		return Kit.classOrNull(loader, nestedClassName);
 	}
-
-	private Map<String, FieldAndMethods> staticFieldAndMethods;
 }
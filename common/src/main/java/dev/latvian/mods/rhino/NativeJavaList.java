@@ -13,15 +13,21 @@ import org.jetbrains.annotations.NotNull;
 import java.util.Iterator;
 import java.util.List;
 
-public class NativeJavaList extends NativeJavaObject implements Iterable<Object> {
+public class NativeJavaList extends NativeJavaObject implements Iterable<Object>, JavaListWrapper {
 
 	public final List<Object> list;
 	public final TypeInfo listType;
+	/**
+	 * elements that scripts use as primitive values are returned without going through the WrapFactory, see
+	 * {@link WrapFactory#isJavaPrimitiveWrap()}
+	 */
+	private final boolean primitiveElements;
 
 	public NativeJavaList(Context cx, Scriptable scope, Object jo, List list, TypeInfo type) {
 		super(cx, scope, jo, type);
 		this.list = list;
 		this.listType = type.param(0);
+		this.primitiveElements = !cx.getWrapFactory().isJavaPrimitiveWrap();
 	}
 
 	@Override
@@ -47,7 +53,7 @@ public class NativeJavaList extends NativeJavaObject implements Iterable<Object>
 
 	@Override
 	public boolean has(Symbol key, Scriptable start) {
-		if (SymbolKey.IS_CONCAT_SPREADABLE.equals(key)) {
+		if (SymbolKey.IS_CONCAT_SPREADABLE.equals(key) || SymbolKey.ITERATOR.equals(key)) {
 			return true;
 		}
 		return super.has(key, start);
@@ -61,28 +67,55 @@ public class NativeJavaList extends NativeJavaObject implements Iterable<Object>
 		return super.get(name, start);
 	}
 
+	/**
+	 * Delegates to {@link #get(Context, int, Scriptable)}, which scripts call directly, so overrides should go there.
+	 */
 	@Override
 	public Object get(int index, Scriptable start) {
-		if (isWithValidIndex(index)) {
-			Context cx = Context.getContext();
-			Object obj = list.get(index);
-			return cx.getWrapFactory().wrap(cx, this, obj, this.listType);
+		return get(Context.getCurrentContext(), index, start);
+	}
+
+	private Object wrapElement(Context cx, Object obj) {
+		if (obj == null || primitiveElements && WrapFactory.isJavaPrimitive(obj)) {
+			return obj;
 		}
-		return Undefined.instance;
+		return cx.getWrapFactory().wrap(cx, this, obj, this.listType);
+	}
+
+	@Override
+	public int size() {
+		return list.size();
 	}
 
 	@Override
 	public Object get(Symbol key, Scriptable start) {
 		if (SymbolKey.IS_CONCAT_SPREADABLE.equals(key)) {
 			return Boolean.TRUE;
+		} else if (SymbolKey.ITERATOR.equals(key)) {
+			// iterated like an array, for-of reads the elements by index directly
+			Scriptable arrayPrototype = ScriptableObject.getArrayPrototype(getParentScope());
+			return arrayPrototype == null ? NOT_FOUND : ScriptableObject.getProperty(arrayPrototype, SymbolKey.ITERATOR);
 		}
 		return super.get(key, start);
 	}
 
+	@Override
+	public Object get(Context cx, int index, Scriptable start) {
+		return isWithValidIndex(index) ? wrapElement(cx, list.get(index)) : Undefined.instance;
+	}
+
+	/**
+	 * Delegates to {@link #put(Context, int, Scriptable, Object)}, which scripts call directly, so overrides should go there.
+	 */
 	@Override
 	public void put(int index, Scriptable start, Object value) {
+		put(Context.getCurrentContext(), index, start, value);
+	}
+
+	@Override
+	public void put(Context cx, int index, Scriptable start, Object value) {
 		if (isWithValidIndex(index)) {
-			list.set(index, Context.jsToJava(Context.getContext(), value, TypeInfo.OBJECT));
+			list.set(index, Context.jsToJava(cx, value, TypeInfo.OBJECT));
 			return;
 		}
 		super.put(index, start, value);
@@ -11,7 +11,7 @@ import dev.latvian.mods.rhino.util.ListLike;
 
 import java.util.List;
 
-public class NativeJavaListLike extends NativeJavaObject {
+public class NativeJavaListLike extends NativeJavaObject implements JavaListWrapper {
 	private final ListLike<Object> list;
 
 	public NativeJavaListLike(Context cx, Scriptable scope, ListLike object, TypeInfo type) {
@@ -42,7 +42,7 @@ public class NativeJavaListLike extends NativeJavaObject {
 
 	@Override
 	public boolean has(Symbol key, Scriptable start) {
-		if (SymbolKey.IS_CONCAT_SPREADABLE.equals(key)) {
+		if (SymbolKey.IS_CONCAT_SPREADABLE.equals(key) || SymbolKey.ITERATOR.equals(key)) {
 			return true;
 		}
 		return super.has(key, start);
@@ -56,28 +56,52 @@ public class NativeJavaListLike extends NativeJavaObject {
 		return super.get(name, start);
 	}
 
+	/**
+	 * Delegates to {@link #get(Context, int, Scriptable)}, which scripts call directly, so overrides should go there.
+	 */
 	@Override
 	public Object get(int index, Scriptable start) {
+		return get(Context.getCurrentContext(), index, start);
+	}
+
+	@Override
+	public Object get(Context cx, int index, Scriptable start) {
 		if (isWithValidIndex(index)) {
-			Context cx = Context.getContext();
 			Object obj = list.getLL(index);
 			return cx.getWrapFactory().wrap(cx, this, obj, obj.getClass());
 		}
 		return Undefined.instance;
 	}
 
+	@Override
+	public int size() {
+		return list.sizeLL();
+	}
+
 	@Override
 	public Object get(Symbol key, Scriptable start) {
 		if (SymbolKey.IS_CONCAT_SPREADABLE.equals(key)) {
 			return Boolean.TRUE;
+		} else if (SymbolKey.ITERATOR.equals(key)) {
+			// iterated like an array, for-of reads the elements by index directly
+			Scriptable arrayPrototype = ScriptableObject.getArrayPrototype(getParentScope());
+			return arrayPrototype == null ? NOT_FOUND : ScriptableObject.getProperty(arrayPrototype, SymbolKey.ITERATOR);
 		}
 		return super.get(key, start);
 	}
 
+	/**
+	 * Delegates to {@link #put(Context, int, Scriptable, Object)}, which scripts call directly, so overrides should go there.
+	 */
 	@Override
 	public void put(int index, Scriptable start, Object value) {
+		put(Context.getCurrentContext(), index, start, value);
+	}
+
+	@Override
+	public void put(Context cx, int index, Scriptable start, Object value) {
 		if (isWithValidIndex(index)) {
-			list.setLL(index, Context.jsToJava(Context.getContext(), value, TypeInfo.OBJECT));
+			list.setLL(index, Context.jsToJava(cx, value, TypeInfo.OBJECT));
 			return;
 		}
 		super.put(index, start, value);
@@ -46,34 +46,64 @@ public class NativeJavaMap extends NativeJavaObject {
 		return super.has(index, start);
 	}
 
+	/**
+	 * Delegates to {@link #get(Context, String, Scriptable)}, which scripts call directly, so overrides should go there.
+	 */
 	@Override
 	public Object get(String name, Scriptable start) {
+		return get(Context.getCurrentContext(), name, start);
+	}
+
+	@Override
+	public Object get(Context cx, String name, Scriptable start) {
 		if (map.containsKey(name)) {
-			Context cx = Context.getContext();
 			Object obj = map.get(name);
 			return cx.getWrapFactory().wrap(cx, this, obj, this.mapValueType);
 		}
 		return super.get(name, start);
 	}
 
+	/**
+	 * Delegates to {@link #get(Context, int, Scriptable)}, which scripts call directly, so overrides should go there.
+	 */
 	@Override
 	public Object get(int index, Scriptable start) {
+		return get(Context.getCurrentContext(), index, start);
+	}
+
+	@Override
+	public Object get(Context cx, int index, Scriptable start) {
 		if (map.containsKey(index)) {
-			Context cx = Context.getContext();
 			Object obj = map.get(index);
 			return cx.getWrapFactory().wrap(cx, this, obj, this.mapValueType);
 		}
 		return super.get(index, start);
 	}
 
+	/**
+	 * Delegates to {@link #put(Context, String, Scriptable, Object)}, which scripts call directly, so overrides should go there.
+	 */
 	@Override
 	public void put(String name, Scriptable start, Object value) {
-		map.put(name, Context.jsToJava(Context.getCurrentContext(), value, this.mapValueType));
+		put(Context.getCurrentContext(), name, start, value);
 	}
 
+	@Override
+	public void put(Context cx, String name, Scriptable start, Object value) {
+		map.put(name, Context.jsToJava(cx, value, this.mapValueType));
+	}
+
+	/**
+	 * Delegates to {@link #put(Context, int, Scriptable, Object)}, which scripts call directly, so overrides should go there.
+	 */
 	@Override
 	public void put(int index, Scriptable start, Object value) {
-		map.put(index, Context.jsToJava(Context.getCurrentContext(), value, this.mapValueType));
+		put(Context.getCurrentContext(), index, start, value);
+	}
+
+	@Override
+	public void put(Context cx, int index, Scriptable start, Object value) {
+		map.put(index, Context.jsToJava(cx, value, this.mapValueType));
 	}
 
 	@Override
@@ -10,6 +10,7 @@ import com.google.common.collect.ImmutableMap;
 import dev.latvian.mods.rhino.native_java.ReflectsKit;
 import dev.latvian.mods.rhino.native_java.FieldAndMethods;
 import dev.latvian.mods.rhino.native_java.JavaMembers;
+import dev.latvian.mods.rhino.native_java.MemberBox;
 import dev.latvian.mods.rhino.native_java.NativeJavaPackage;
 import dev.latvian.mods.rhino.native_java.type.Converter;
 import dev.latvian.mods.rhino.native_java.type.info.ParameterizedTypeInfo;
@@ -49,7 +50,11 @@ public class NativeJavaObject implements Scriptable, SymbolScriptable, Wrapper,
 
 	@Getter
 	protected transient JavaMembers members;
-	private transient Map<String, FieldAndMethods> fieldAndMethods;
+	/**
+	 * copies of {@link FieldAndMethods} bound to this object, indexed by {@link FieldAndMethods#index}, created on
+	 * first access
+	 */
+	private transient FieldAndMethods[] fieldAndMethods;
 	protected transient final boolean isAdapter;
 
 	@Deprecated
@@ -74,7 +79,20 @@ public class NativeJavaObject implements Scriptable, SymbolScriptable, Wrapper,
 			? javaObject.getClass()
 			: typeInfo.asClass();
         members = JavaMembers.lookupClass(cx, scope, dynamicType, typeInfo.asClass(), isAdapter);
-		fieldAndMethods = members.getFieldAndMethodsObjects(this, javaObject, false);
+	}
+
+	protected FieldAndMethods bindFieldAndMethods(FieldAndMethods template) {
+		var bound = fieldAndMethods;
+		if (bound == null) {
+			bound = new FieldAndMethods[members.getFieldAndMethodsCount()];
+			fieldAndMethods = bound;
+		}
+		var fam = bound[template.index];
+		if (fam == null) {
+			fam = template.bind(this, javaObject);
+			bound[template.index] = fam;
+		}
+		return fam;
 	}
 
 	@Override
@@ -94,15 +112,10 @@ public class NativeJavaObject implements Scriptable, SymbolScriptable, Wrapper,
 
 	@Override
 	public Object get(String name, Scriptable start) {
-		if (fieldAndMethods != null) {
-			val result = fieldAndMethods.get(name);
-			if (result != null) {
-				return result;
-			}
-		}
 		// TODO: passing 'this' as the scope is bogus since it has
 		//  no parent scope
-		return members.get(this, name, javaObject, false);
+		val result = members.get(this, name, javaObject, false);
+		return result instanceof FieldAndMethods fam ? bindFieldAndMethods(fam) : result;
 	}
 
 	@Override
@@ -154,14 +167,6 @@ public class NativeJavaObject implements Scriptable, SymbolScriptable, Wrapper,
 
 	@Override
 	public void delete(String name) {
-		if (fieldAndMethods != null) {
-			Object result = fieldAndMethods.get(name);
-			if (result != null) {
-				Deletable.deleteObject(result);
-				return;
-			}
-		}
-
 		Deletable.deleteObject(members.get(this, name, javaObject, false));
 	}
 
@@ -258,22 +263,40 @@ public class NativeJavaObject implements Scriptable, SymbolScriptable, Wrapper,
 
 	public Map<VariableTypeInfo, TypeInfo> extractMapping() {
 		if (typeInfo instanceof ParameterizedTypeInfo parameterized && this.javaObject != null) {
-            final var variables = javaObject.getClass().getTypeParameters();
-			if (variables.length == 0) {
-				return Collections.emptyMap();
-			}
-			val params = parameterized.params();
-			val builder = ImmutableMap.<VariableTypeInfo, TypeInfo>builder();
-			for (int i = 0; i < variables.length; i++) {
-				val param = params[i];
-				val variable = variables[i];
-				builder.put((VariableTypeInfo) TypeInfo.of(variable), param);
-			}
-			return builder.build();
+			return extractMapping(javaObject.getClass(), parameterized);
 		}
 		return Collections.emptyMap();
 	}
 
+	/**
+	 * Map type variables of {@code type} to the type parameters of {@code parameterized}
+	 */
+	public static Map<VariableTypeInfo, TypeInfo> extractMapping(Class<?> type, ParameterizedTypeInfo parameterized) {
+		final var variables = type.getTypeParameters();
+		val params = parameterized.params();
+		val count = Math.min(variables.length, params.length);
+		if (count == 0) {
+			return Collections.emptyMap();
+		}
+		val builder = ImmutableMap.<VariableTypeInfo, TypeInfo>builder();
+		for (int i = 0; i < count; i++) {
+			builder.put((VariableTypeInfo) TypeInfo.of(variables[i]), params[i]);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Get argument types of {@code member}, consolidated with the type parameters of this object, if any.
+	 * <p>
+	 * Consolidated types are cached by the member, see {@link MemberBox#getArgTypeInfos(Class, ParameterizedTypeInfo)}
+	 */
+	public TypeInfo[] getArgTypeInfos(MemberBox member) {
+		if (typeInfo instanceof ParameterizedTypeInfo parameterized && this.javaObject != null) {
+			return member.getArgTypeInfos(javaObject.getClass(), parameterized);
+		}
+		return member.getArgTypeInfos();
+	}
+
 	/**
 	 * Determine whether we can/should convert between the given type and the
 	 * desired one.  This should be superceded by a conversion-cost calculation
@@ -6,8 +6,8 @@
 
 package dev.latvian.mods.rhino;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This is an implementation of the standard "Symbol" type that implements
@@ -244,7 +244,11 @@ public class NativeSymbol extends IdScriptableObject implements Symbol {
 
 		if (ret == null) {
 			ret = construct(cx, scope, new Object[]{name});
-			table.put(name, ret);
+			// the registry of a shared scope is used by several threads
+			NativeSymbol registered = table.putIfAbsent(name, ret);
+			if (registered != null) {
+				ret = registered;
+			}
 		}
 		return ret;
 	}
@@ -336,8 +340,7 @@ public class NativeSymbol extends IdScriptableObject implements Symbol {
 		ScriptableObject top = (ScriptableObject) getTopLevelScope(this);
 		Map<String, NativeSymbol> map = (Map<String, NativeSymbol>) top.getAssociatedValue(GLOBAL_TABLE_KEY);
 		if (map == null) {
-			map = new HashMap<>();
-			top.associateValue(GLOBAL_TABLE_KEY, map);
+			map = (Map<String, NativeSymbol>) top.associateValue(GLOBAL_TABLE_KEY, new ConcurrentHashMap<>());
 		}
 		return map;
 	}
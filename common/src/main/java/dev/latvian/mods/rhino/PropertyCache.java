@@ -0,0 +1,251 @@
+package dev.latvian.mods.rhino;
+
+import dev.latvian.mods.rhino.ScriptableObject.Slot;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+
+/**
+ * Inline caches of named property lookups, with one entry for each instruction of an {@link InterpreterData}.
+ * <p>
+ * An entry remembers the receiver of the last lookup, the {@link Slot} that was found, either in the receiver itself
+ * or in its direct prototype, and the {@link SlotMapContainer#modCount} of the objects involved. As long as the same
+ * receiver is seen again and no slot has been added to or removed from these objects, the slot can be read or written
+ * directly instead of walking the prototype chain. Receivers with a {@link Shape} are matched by their shape instead,
+ * so that an entry applies to all objects with the same layout.
+ * <p>
+ * Only objects whose named property access is implemented by {@link ScriptableObject} or {@link IdScriptableObject}
+ * are cached, anything else always takes the regular lookup path. Sites that keep seeing different receivers stop
+ * being cached after {@link #MAX_MISSES} misses.
+ *
+ * @author ZZZank
+ */
+final class PropertyCache {
+	private static final int MAX_MISSES = 8;
+
+	private static final int PLAIN_GET = 1;
+	private static final int PLAIN_PUT = 2;
+
+	private static final ClassValue<Integer> ACCESS = new ClassValue<Integer>() {
+		@Override
+		protected Integer computeValue(Class<?> type) {
+			int access = 0;
+			try {
+				if (isPlain(type.getMethod("get", String.class, Scriptable.class))) {
+					access |= PLAIN_GET;
+				}
+				if (isPlain(type.getMethod("put", String.class, Scriptable.class, Object.class))
+					&& isPlain(type.getMethod("has", String.class, Scriptable.class))) {
+					access |= PLAIN_PUT;
+				}
+			} catch (NoSuchMethodException | SecurityException ignored) {
+			}
+			return access;
+		}
+
+		private boolean isPlain(Method method) {
+			Class<?> declaring = method.getDeclaringClass();
+			return declaring == ScriptableObject.class || declaring == IdScriptableObject.class;
+		}
+	};
+
+	static PropertyCache of(InterpreterData idata) {
+		PropertyCache cache = idata.propertyCache;
+		if (cache == null) {
+			// racing threads may each create a cache, which only costs a few refills
+			idata.propertyCache = cache = new PropertyCache(idata.itsICode.length);
+		}
+		return cache;
+	}
+
+	private final Entry[] entries;
+	private final byte[] misses;
+
+	private PropertyCache(int length) {
+		entries = new Entry[length];
+		misses = new byte[length];
+	}
+
+	/**
+	 * Equivalent to {@link ScriptableObject#getProperty(Scriptable, String)}.
+	 *
+	 * @param pc the instruction performing the lookup
+	 */
+	Object getProperty(int pc, ScriptableObject obj, String name) {
+		Entry entry = entries[pc];
+		if (entry != null) {
+			Slot slot = entry.validate(obj);
+			if (slot != null) {
+				return slot.getValue(obj);
+			}
+		}
+
+		if (miss(pc) && (access(obj) & PLAIN_GET) != 0) {
+			int modCount = obj.getSlotModCount();
+			if (modCount >= 0) {
+				Shape shape = obj.getShape();
+				Slot slot = obj.querySlot(name);
+				if (slot != null) {
+					entries[pc] = shape != null
+						? new ShapeEntry(obj, shape, shape.indexOf(name), null, 0, null)
+						: new IdentityEntry(obj, modCount, slot, null, 0);
+					return slot.getValue(obj);
+				}
+				if (!(obj instanceof IdScriptableObject id && id.hasIdProperty(name))
+					&& obj.getPrototype() instanceof ScriptableObject proto
+					&& (access(proto) & PLAIN_GET) != 0) {
+					int protoModCount = proto.getSlotModCount();
+					slot = protoModCount >= 0 ? proto.querySlot(name) : null;
+					if (slot != null) {
+						entries[pc] = shape != null
+							? new ShapeEntry(obj, shape, -1, proto, protoModCount, slot)
+							: new IdentityEntry(obj, modCount, slot, proto, protoModCount);
+						return slot.getValue(obj);
+					}
+				}
+			}
+		}
+
+		return ScriptableObject.getProperty(obj, name);
+	}
+
+	/**
+	 * Equivalent to {@link ScriptableObject#putProperty(Scriptable, String, Object)}.
+	 *
+	 * @param pc the instruction performing the assignment
+	 */
+	void putProperty(int pc, ScriptableObject obj, String name, Object value) {
+		Entry entry = entries[pc];
+		if (entry != null && entry.holder == null && !obj.isSealed()) {
+			Slot slot = entry.validate(obj);
+			if (slot != null) {
+				slot.setValue(value, obj, obj);
+				return;
+			}
+		}
+
+		ScriptableObject.putProperty(obj, name, value);
+
+		if (miss(pc)
+			&& (access(obj) & PLAIN_PUT) != 0
+			&& !(obj instanceof IdScriptableObject id && id.hasIdProperty(name))) {
+			int modCount = obj.getSlotModCount();
+			if (modCount >= 0) {
+				Shape shape = obj.getShape();
+				Slot slot = obj.querySlot(name);
+				if (slot != null) {
+					entries[pc] = shape != null
+						? new ShapeEntry(obj, shape, shape.indexOf(name), null, 0, null)
+						: new IdentityEntry(obj, modCount, slot, null, 0);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Record a cache miss
+	 *
+	 * @return false if the instruction has missed too often, and should no longer be cached
+	 */
+	private boolean miss(int pc) {
+		if (misses[pc] >= MAX_MISSES) {
+			return false;
+		}
+		misses[pc]++;
+		return true;
+	}
+
+	private static int access(ScriptableObject obj) {
+		return ACCESS.get(obj.getClass());
+	}
+
+	/**
+	 * Immutable, so that it can be replaced while other threads are reading it. Objects are weakly referenced, a
+	 * function that is kept alive should not keep the objects it once accessed alive.
+	 */
+	private static abstract class Entry {
+		/**
+		 * the direct prototype holding the slot, or null if the slot is held by the receiver itself
+		 */
+		final WeakReference<ScriptableObject> holder;
+		final int holderModCount;
+
+		Entry(ScriptableObject holder, int holderModCount) {
+			this.holder = holder == null ? null : new WeakReference<>(holder);
+			this.holderModCount = holderModCount;
+		}
+
+		/**
+		 * @return the cached slot, or null if this entry does not apply to {@code obj}
+		 */
+		abstract Slot validate(ScriptableObject obj);
+
+		final boolean validateHolder(ScriptableObject obj) {
+			ScriptableObject proto = holder.get();
+			return proto != null && obj.getPrototype() == proto && proto.getSlotModCount() == holderModCount;
+		}
+	}
+
+	/**
+	 * Applies to a single receiver. The slot is only reachable from this entry until the instruction is executed
+	 * again.
+	 */
+	private static final class IdentityEntry extends Entry {
+		final WeakReference<ScriptableObject> receiver;
+		final int receiverModCount;
+		final Slot slot;
+
+		IdentityEntry(ScriptableObject receiver, int receiverModCount, Slot slot, ScriptableObject holder, int holderModCount) {
+			super(holder, holderModCount);
+			this.receiver = new WeakReference<>(receiver);
+			this.receiverModCount = receiverModCount;
+			this.slot = slot;
+		}
+
+		@Override
+		Slot validate(ScriptableObject obj) {
+			if (receiver.get() != obj || obj.getSlotModCount() != receiverModCount) {
+				return null;
+			}
+			if (holder != null && !validateHolder(obj)) {
+				return null;
+			}
+			return slot;
+		}
+	}
+
+	/**
+	 * Applies to all receivers of the same class and {@link Shape}, see {@link Context#FEATURE_SHAPED_OBJECTS}.
+	 */
+	private static final class ShapeEntry extends Entry {
+		final Class<?> type;
+		final Shape shape;
+		/**
+		 * index of the slot in the receiver, or -1 if the slot is held by the prototype
+		 */
+		final int index;
+		final Slot holderSlot;
+
+		ShapeEntry(ScriptableObject receiver, Shape shape, int index, ScriptableObject holder, int holderModCount, Slot holderSlot) {
+			super(holder, holderModCount);
+			this.type = receiver.getClass();
+			this.shape = shape;
+			this.index = index;
+			this.holderSlot = holderSlot;
+		}
+
+		@Override
+		Slot validate(ScriptableObject obj) {
+			if (obj.getClass() != type) {
+				return null;
+			}
+			if (holder == null) {
+				return obj.getSlot(shape, index);
+			}
+			if (obj.getShape() != shape || !validateHolder(obj)) {
+				return null;
+			}
+			return holderSlot;
+		}
+	}
+}
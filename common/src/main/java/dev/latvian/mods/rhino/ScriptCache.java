@@ -0,0 +1,145 @@
+package dev.latvian.mods.rhino;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Cache of compiled scripts and functions, consulted by {@link Context} before parsing and compiling a source.
+ * <p>
+ * Cached values are the opaque objects returned by {@link Evaluator#compile(CompilerEnvirons, dev.latvian.mods.rhino.ast.ScriptNode, String, boolean)},
+ * which are never bound to a scope or a Context, so one value can be turned into any number of scripts.
+ *
+ * @author ZZZank
+ * @see Context#setScriptCache(ScriptCache)
+ * @see ContextFactory#setScriptCache(ScriptCache)
+ * @see MemoryScriptCache
+ * @see DiskScriptCache
+ */
+public interface ScriptCache {
+
+	/**
+	 * @return compiled form of the source described by {@code key}, or {@code null} if not cached
+	 */
+	@Nullable
+	Object get(Key key);
+
+	/**
+	 * @param bytecode compiled form of the source described by {@code key}
+	 */
+	void put(Key key, Object bytecode);
+
+	/**
+	 * Drop all cached entries
+	 */
+	void clear();
+
+	/**
+	 * Everything that affects how a source is compiled: the source itself, where it comes from, and the options it is
+	 * compiled with
+	 */
+	final class Key {
+		public final String source;
+		public final String sourceName;
+		public final int lineno;
+		public final boolean function;
+		/**
+		 * {@code -1} if the source is interpreted
+		 */
+		public final int optimizationLevel;
+		/**
+		 * parser options from {@link CompilerEnvirons} and strict mode, packed as bits
+		 */
+		public final int flags;
+		@Nullable
+		public final Set<String> activationNames;
+		private final int hashCode;
+		private String digest;
+
+		Key(String source, String sourceName, int lineno, boolean function, int optimizationLevel, int flags, Set<String> activationNames) {
+			this.source = source;
+			this.sourceName = sourceName;
+			this.lineno = lineno;
+			this.function = function;
+			this.optimizationLevel = optimizationLevel;
+			this.flags = flags;
+			this.activationNames = activationNames;
+			this.hashCode = Objects.hash(source, sourceName, lineno, function, optimizationLevel, flags, activationNames);
+		}
+
+		static Key of(CompilerEnvirons env, String source, String sourceName, int lineno, boolean function, boolean compiled, boolean strict) {
+			int flags = 0;
+			if (env.isReservedKeywordAsIdentifier()) {
+				flags |= 1;
+			}
+			if (env.isAllowMemberExprAsFunctionName()) {
+				flags |= 1 << 1;
+			}
+			if (env.isStrictMode()) {
+				flags |= 1 << 2;
+			}
+			if (env.reportWarningAsError()) {
+				flags |= 1 << 3;
+			}
+			if (env.getAllowSharpComments()) {
+				flags |= 1 << 4;
+			}
+			if (strict) {
+				flags |= 1 << 5;
+			}
+			return new Key(source, sourceName, lineno, function, compiled ? env.getOptimizationLevel() : -1, flags, env.getActivationNames());
+		}
+
+		/**
+		 * @return SHA-256 of everything in this key as a hex string, suitable as a stable identifier across JVM runs
+		 */
+		public String digest() {
+			if (digest == null) {
+				MessageDigest sha;
+				try {
+					sha = MessageDigest.getInstance("SHA-256");
+				} catch (NoSuchAlgorithmException e) {
+					throw new IllegalStateException(e);
+				}
+				sha.update(source.getBytes(StandardCharsets.UTF_8));
+				sha.update((byte) 0);
+				sha.update(sourceName.getBytes(StandardCharsets.UTF_8));
+				sha.update((byte) 0);
+				sha.update((lineno + ":" + function + ":" + optimizationLevel + ":" + flags + ":" + activationNames).getBytes(StandardCharsets.UTF_8));
+				final var sb = new StringBuilder(64);
+				for (final var b : sha.digest()) {
+					sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+				}
+				digest = sb.toString();
+			}
+			return digest;
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return this == obj || obj instanceof Key other
+				&& hashCode == other.hashCode
+				&& lineno == other.lineno
+				&& function == other.function
+				&& optimizationLevel == other.optimizationLevel
+				&& flags == other.flags
+				&& sourceName.equals(other.sourceName)
+				&& Objects.equals(activationNames, other.activationNames)
+				&& source.equals(other.source);
+		}
+
+		@Override
+		public String toString() {
+			return "ScriptCache.Key[" + sourceName + ':' + lineno + ", " + (function ? "function" : "script") + ", opt " + optimizationLevel + ']';
+		}
+	}
+}
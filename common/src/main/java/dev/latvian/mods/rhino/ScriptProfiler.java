@@ -0,0 +1,281 @@
+package dev.latvian.mods.rhino;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sampling profiler of interpreted scripts, built on the instruction counting of the interpreter.
+ * <p>
+ * Every {@link #getSampleInterval()} instructions, the script stack of the running Context is sampled, and the
+ * instructions and wall time since the previous sample are attributed to it. Calls of script functions and of Java
+ * methods from script functions are counted exactly. Functions are identified by name, source name and line, so that
+ * the results of a script that is recompiled, for example when reloaded, add up. Results can be read per function with {@link #getFunctions()},
+ * or exported as collapsed stacks, the input format of flame graph tools, with
+ * {@link #writeCollapsedStacks(Writer, Metric)}.
+ * <p>
+ * A profiler can be shared by any number of Contexts, see {@link ContextFactory#setProfiler(ScriptProfiler)} and
+ * {@link Context#setProfiler(ScriptProfiler)}. While a profiler is set, scripts are compiled for the interpreter
+ * regardless of the optimization level, scripts compiled to Java classes before are not profiled.
+ *
+ * @author ZZZank
+ */
+public class ScriptProfiler {
+	public static final int DEFAULT_SAMPLE_INTERVAL = 1000;
+
+	public enum Metric {
+		/**
+		 * sampled script instructions
+		 */
+		INSTRUCTIONS,
+		/**
+		 * sampled wall time, in microseconds
+		 */
+		TIME,
+		/**
+		 * number of samples
+		 */
+		SAMPLES
+	}
+
+	/**
+	 * Profile of one script function, or of the top level code of a script
+	 */
+	public static final class FunctionProfile {
+		public final String name;
+		public final String sourceName;
+		public final int line;
+		final LongAdder calls = new LongAdder();
+		final LongAdder javaCalls = new LongAdder();
+		final LongAdder selfInstructions = new LongAdder();
+		final LongAdder totalInstructions = new LongAdder();
+		final LongAdder selfNanos = new LongAdder();
+		final LongAdder totalNanos = new LongAdder();
+		/**
+		 * name, source and line, as shown in collapsed stacks
+		 */
+		final String label;
+
+		FunctionProfile(String name, String sourceName, int line, String label) {
+			this.name = name;
+			this.sourceName = sourceName;
+			this.line = line;
+			this.label = label;
+		}
+
+		public long getCalls() {
+			return calls.sum();
+		}
+
+		/**
+		 * @return number of calls of Java methods and constructors made by this function
+		 */
+		public long getJavaCalls() {
+			return javaCalls.sum();
+		}
+
+		/**
+		 * @return sampled instructions executed by this function itself
+		 */
+		public long getSelfInstructions() {
+			return selfInstructions.sum();
+		}
+
+		/**
+		 * @return sampled instructions executed by this function and the functions it called
+		 */
+		public long getTotalInstructions() {
+			return totalInstructions.sum();
+		}
+
+		public long getSelfNanos() {
+			return selfNanos.sum();
+		}
+
+		public long getTotalNanos() {
+			return totalNanos.sum();
+		}
+
+		@Override
+		public String toString() {
+			return label;
+		}
+	}
+
+	private static final class StackProfile {
+		final LongAdder instructions = new LongAdder();
+		final LongAdder nanos = new LongAdder();
+		final LongAdder samples = new LongAdder();
+
+		long get(Metric metric) {
+			return switch (metric) {
+				case INSTRUCTIONS -> instructions.sum();
+				case TIME -> nanos.sum() / 1000L;
+				case SAMPLES -> samples.sum();
+			};
+		}
+	}
+
+	private final int sampleInterval;
+	/**
+	 * by label, only the label is cached in {@link InterpreterData} so that compiled scripts never keep profiles alive
+	 */
+	private volatile Map<String, FunctionProfile> functions = new ConcurrentHashMap<>();
+	private volatile Map<String, StackProfile> stacks = new ConcurrentHashMap<>();
+
+	public ScriptProfiler() {
+		this(DEFAULT_SAMPLE_INTERVAL);
+	}
+
+	/**
+	 * @param sampleInterval number of instructions between samples, lower values give more precise results at a higher
+	 *                       cost
+	 */
+	public ScriptProfiler(int sampleInterval) {
+		if (sampleInterval <= 0) {
+			throw new IllegalArgumentException("sampleInterval must be positive");
+		}
+		this.sampleInterval = sampleInterval;
+	}
+
+	public int getSampleInterval() {
+		return sampleInterval;
+	}
+
+	/**
+	 * Discard everything profiled so far
+	 */
+	public void reset() {
+		functions = new ConcurrentHashMap<>();
+		stacks = new ConcurrentHashMap<>();
+	}
+
+	FunctionProfile profile(InterpreterData idata) {
+		Map<String, FunctionProfile> functions = this.functions;
+		String label = idata.profileLabel;
+		if (label == null) {
+			label = label(idata);
+			idata.profileLabel = label;
+		}
+		FunctionProfile profile = functions.get(label);
+		if (profile != null) {
+			return profile;
+		}
+		String name = name(idata);
+		return functions.computeIfAbsent(label, k -> new FunctionProfile(name, idata.itsSourceFile, idata.firstLinePC, k));
+	}
+
+	private static String name(InterpreterData idata) {
+		if (idata.itsName != null && !idata.itsName.isEmpty()) {
+			return idata.itsName;
+		}
+		return idata.itsFunctionType == 0 ? "<script>" : "<anonymous>";
+	}
+
+	private static String label(InterpreterData idata) {
+		// despite its name, firstLinePC holds the line of the first statement
+		// ';' separates frames and the last ' ' separates the value in collapsed stacks
+		return (name(idata) + " (" + idata.itsSourceFile + ':' + idata.firstLinePC + ')').replace(';', ',').replace('\n', ' ');
+	}
+
+	void onCall(InterpreterData idata) {
+		profile(idata).calls.increment();
+	}
+
+	void onJavaCall(InterpreterData idata) {
+		profile(idata).javaCalls.increment();
+	}
+
+	/**
+	 * @param stack        the sampled stack, outermost function first
+	 * @param instructions instructions executed since the previous sample
+	 * @param nanos        wall time since the previous sample
+	 */
+	void sample(InterpreterData[] stack, long instructions, long nanos) {
+		StringBuilder key = new StringBuilder();
+		FunctionProfile[] profiles = new FunctionProfile[stack.length];
+		for (int i = 0; i < stack.length; i++) {
+			FunctionProfile profile = profile(stack[i]);
+			profiles[i] = profile;
+			if (i > 0) {
+				key.append(';');
+			}
+			key.append(profile.label);
+			if (!contains(profiles, i, profile)) {
+				// recursive functions are counted once per sample
+				profile.totalInstructions.add(instructions);
+				profile.totalNanos.add(nanos);
+			}
+		}
+		FunctionProfile leaf = profiles[profiles.length - 1];
+		leaf.selfInstructions.add(instructions);
+		leaf.selfNanos.add(nanos);
+
+		Map<String, StackProfile> stacks = this.stacks;
+		StackProfile stackProfile = stacks.computeIfAbsent(key.toString(), k -> new StackProfile());
+		stackProfile.instructions.add(instructions);
+		stackProfile.nanos.add(nanos);
+		stackProfile.samples.increment();
+	}
+
+	private static boolean contains(FunctionProfile[] profiles, int length, FunctionProfile profile) {
+		for (int i = 0; i < length; i++) {
+			if (profiles[i] == profile) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return profiles of all functions called or sampled so far, the most expensive first by sampled self instructions
+	 */
+	public List<FunctionProfile> getFunctions() {
+		List<FunctionProfile> list = new ArrayList<>(functions.values());
+		list.sort(Comparator.comparingLong(FunctionProfile::getSelfInstructions).reversed());
+		return list;
+	}
+
+	/**
+	 * Write one line per sampled stack, in the collapsed format read by flame graph tools: the functions of the stack,
+	 * outermost first, separated by {@code ;}, then a space and the value of {@code metric}.
+	 */
+	public void writeCollapsedStacks(Writer out, Metric metric) throws IOException {
+		for (Map.Entry<String, StackProfile> entry : new TreeMap<>(stacks).entrySet()) {
+			long value = entry.getValue().get(metric);
+			if (value > 0L) {
+				out.write(entry.getKey());
+				out.write(' ');
+				out.write(Long.toString(value));
+				out.write('\n');
+			}
+		}
+		out.flush();
+	}
+
+	/**
+	 * Write a table of the {@code limit} most expensive functions, see {@link #getFunctions()}
+	 */
+	public void writeSummary(Writer out, int limit) throws IOException {
+		out.write(String.format("%12s %12s %10s %10s %10s  %s%n", "self insns", "total insns", "self ms", "calls", "java calls", "function"));
+		List<FunctionProfile> list = getFunctions();
+		for (int i = 0; i < list.size() && i < limit; i++) {
+			FunctionProfile profile = list.get(i);
+			out.write(String.format("%12d %12d %10.2f %10d %10d  %s%n",
+				profile.getSelfInstructions(),
+				profile.getTotalInstructions(),
+				profile.getSelfNanos() / 1_000_000D,
+				profile.getCalls(),
+				profile.getJavaCalls(),
+				profile.label
+			));
+		}
+		out.flush();
+	}
+}
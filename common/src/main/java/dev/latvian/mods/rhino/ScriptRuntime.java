@@ -170,6 +170,18 @@ public class ScriptRuntime {
 		new LazilyLoadedCtor(scope, "RegExp", "dev.latvian.mods.rhino.regexp.NativeRegExp", sealed, true);
 		new LazilyLoadedCtor(scope, "Continuation", "dev.latvian.mods.rhino.NativeContinuation", sealed, true);
 
+		new LazilyLoadedCtor(scope, "ArrayBuffer", "dev.latvian.mods.rhino.typedarrays.NativeArrayBuffer", sealed, true);
+		new LazilyLoadedCtor(scope, "Int8Array", "dev.latvian.mods.rhino.typedarrays.NativeInt8Array", sealed, true);
+		new LazilyLoadedCtor(scope, "Uint8Array", "dev.latvian.mods.rhino.typedarrays.NativeUint8Array", sealed, true);
+		new LazilyLoadedCtor(scope, "Uint8ClampedArray", "dev.latvian.mods.rhino.typedarrays.NativeUint8ClampedArray", sealed, true);
+		new LazilyLoadedCtor(scope, "Int16Array", "dev.latvian.mods.rhino.typedarrays.NativeInt16Array", sealed, true);
+		new LazilyLoadedCtor(scope, "Uint16Array", "dev.latvian.mods.rhino.typedarrays.NativeUint16Array", sealed, true);
+		new LazilyLoadedCtor(scope, "Int32Array", "dev.latvian.mods.rhino.typedarrays.NativeInt32Array", sealed, true);
+		new LazilyLoadedCtor(scope, "Uint32Array", "dev.latvian.mods.rhino.typedarrays.NativeUint32Array", sealed, true);
+		new LazilyLoadedCtor(scope, "Float32Array", "dev.latvian.mods.rhino.typedarrays.NativeFloat32Array", sealed, true);
+		new LazilyLoadedCtor(scope, "Float64Array", "dev.latvian.mods.rhino.typedarrays.NativeFloat64Array", sealed, true);
+		new LazilyLoadedCtor(scope, "DataView", "dev.latvian.mods.rhino.typedarrays.NativeDataView", sealed, true);
+
 		NativeSymbol.init(cx, scope, sealed);
 		NativeCollectionIterator.init(scope, NativeSet.ITERATOR_TAG, sealed);
 		NativeCollectionIterator.init(scope, NativeMap.ITERATOR_TAG, sealed);
@@ -200,6 +212,34 @@ public class ScriptRuntime {
 		return s;
 	}
 
+	/**
+	 * Standard objects of a scope shared by several child scopes and threads, see {@link Context#newChildScope()}.
+	 * Everything is sealed and lazily loaded constructors are built right away, so no property changes after this
+	 * returns. Values associated later, like the {@code Symbol.for} registry, go to a concurrent map.
+	 */
+	public static TopLevel initSharedStandardObjects(Context cx) {
+		TopLevel scope = new TopLevel();
+		initStandardObjects(cx, scope, true);
+		for (Object id : scope.getAllIds()) {
+			if (id instanceof String name) {
+				ScriptableObject.getProperty(scope, name);
+			}
+		}
+		scope.sealObject();
+		return scope;
+	}
+
+	/**
+	 * @return an empty top-level scope finding the standard objects in {@code shared}, globals defined or assigned by
+	 * scripts stay in the new scope
+	 */
+	public static TopLevel newChildScope(TopLevel shared) {
+		TopLevel scope = new TopLevel();
+		scope.setPrototype(shared);
+		scope.shareBuiltins(shared);
+		return scope;
+	}
+
 	static String[] getTopPackageNames() {
 		// Include "android" top package if running on Android
 		return "Dalvik".equals(System.getProperty("java.vm.name")) ? new String[]{"java", "javax", "org", "com", "edu", "net", "android"} : new String[]{"java", "javax", "org", "com", "edu", "net"};
@@ -1266,9 +1306,9 @@ public class ScriptRuntime {
 			StringIdOrIndex s = toStringIdOrIndex(cx, elem);
 			if (s.stringId == null) {
 				int index = s.index;
-				result = ScriptableObject.getProperty(obj, index);
+				result = ScriptableObject.getProperty(cx, obj, index);
 			} else {
-				result = ScriptableObject.getProperty(obj, s.stringId);
+				result = ScriptableObject.getProperty(cx, obj, s.stringId);
 			}
 		}
 
@@ -1293,8 +1333,13 @@ public class ScriptRuntime {
 	}
 
 	public static Object getObjectProp(Scriptable obj, String property, Context cx) {
+		return getObjectPropResult(ScriptableObject.getProperty(cx, obj, property), property, cx);
+	}
 
-		Object result = ScriptableObject.getProperty(obj, property);
+	/**
+	 * Convert the result of a property lookup to the value of a property access expression.
+	 */
+	static Object getObjectPropResult(Object result, String property, Context cx) {
 		if (result == Scriptable.NOT_FOUND) {
 			if (cx.hasFeature(Context.FEATURE_STRICT_MODE)) {
 				Context.reportWarning(ScriptRuntime.getMessage1("msg.ref.undefined.prop", property));
@@ -1310,7 +1355,7 @@ public class ScriptRuntime {
 		if (sobj == null) {
 			return Undefined.instance;
 		}
-		val result = ScriptableObject.getProperty(sobj, property);
+		val result = ScriptableObject.getProperty(cx, sobj, property);
 		if (result == Scriptable.NOT_FOUND) {
 			return Undefined.instance;
 		}
@@ -1322,7 +1367,7 @@ public class ScriptRuntime {
 		if (sobj == null) {
 			throw undefReadError(obj, property);
 		}
-		Object result = ScriptableObject.getProperty(sobj, property);
+		Object result = ScriptableObject.getProperty(cx, sobj, property);
 		if (result == Scriptable.NOT_FOUND) {
 			return Undefined.instance;
 		}
@@ -1348,7 +1393,7 @@ public class ScriptRuntime {
 	}
 
 	public static Object getObjectIndex(Scriptable obj, int index, Context cx) {
-		Object result = ScriptableObject.getProperty(obj, index);
+		Object result = ScriptableObject.getProperty(cx, obj, index);
 		if (result == Scriptable.NOT_FOUND) {
 			result = Undefined.instance;
 		}
@@ -1373,9 +1418,9 @@ public class ScriptRuntime {
 		} else {
 			StringIdOrIndex s = toStringIdOrIndex(cx, elem);
 			if (s.stringId == null) {
-				ScriptableObject.putProperty(obj, s.index, value);
+				ScriptableObject.putProperty(cx, obj, s.index, value);
 			} else {
-				ScriptableObject.putProperty(obj, s.stringId, value);
+				ScriptableObject.putProperty(cx, obj, s.stringId, value);
 			}
 		}
 
@@ -1399,7 +1444,7 @@ public class ScriptRuntime {
 	}
 
 	public static Object setObjectProp(Scriptable obj, String property, Object value, Context cx) {
-		ScriptableObject.putProperty(obj, property, value);
+		ScriptableObject.putProperty(cx, obj, property, value);
 		return value;
 	}
 
@@ -1422,7 +1467,7 @@ public class ScriptRuntime {
 	}
 
 	public static Object setObjectIndex(Scriptable obj, int index, Object value, Context cx) {
-		ScriptableObject.putProperty(obj, index, value);
+		ScriptableObject.putProperty(cx, obj, index, value);
 		return value;
 	}
 
@@ -1710,6 +1755,9 @@ public class ScriptRuntime {
 		boolean enumNumbers;
 
 		Scriptable iterator;
+
+		// if true, "for of" over a wrapped Java list or array, reading its elements by index instead of calling the iterator
+		boolean javaElements;
 	}
 
 	public static Scriptable toIterator(Context cx, Scriptable scope, Scriptable obj, boolean keyOnly) {
@@ -1773,6 +1821,12 @@ public class ScriptRuntime {
 		if (!(iterator instanceof Callable f)) {
 			throw typeError1("msg.not.iterable", toString(x.obj));
 		}
+		if (x.obj instanceof JavaListWrapper && NativeArray.isValuesFunction(f)) {
+			// same values as an array iterator would return, without allocating a result object per element
+			x.iterator = x.obj;
+			x.javaElements = true;
+			return x;
+		}
         Scriptable scope = x.obj.getParentScope();
 		Object[] args = new Object[]{};
 		Object v = f.call(cx, scope, x.obj, args);
@@ -1840,6 +1894,9 @@ public class ScriptRuntime {
 	}
 
 	private static Boolean enumNextInOrder(IdEnumeration enumObj) {
+		if (enumObj.javaElements) {
+			return enumNextJavaElement(enumObj);
+		}
 		Object v = ScriptableObject.getProperty(enumObj.iterator, ES6Iterator.NEXT_METHOD);
 		if (!(v instanceof Callable f)) {
 			throw notFunctionError(enumObj.iterator, ES6Iterator.NEXT_METHOD);
@@ -1856,6 +1913,16 @@ public class ScriptRuntime {
 		return Boolean.TRUE;
 	}
 
+	private static Boolean enumNextJavaElement(IdEnumeration enumObj) {
+		JavaListWrapper list = (JavaListWrapper) enumObj.obj;
+		// length is read again for each element, like an array iterator does
+		if (enumObj.index >= list.size()) {
+			return Boolean.FALSE;
+		}
+		enumObj.currentId = list.get(enumObj.index++, list);
+		return Boolean.TRUE;
+	}
+
 	public static Object enumId(Object enumObj, Context cx) {
 		IdEnumeration x = (IdEnumeration) enumObj;
 		if (x.iterator != null) {
@@ -1998,8 +2065,13 @@ public class ScriptRuntime {
 		if (thisObj == null) {
 			throw undefCallError(obj, property);
 		}
+		return getPropFunctionAndThis(thisObj, property, ScriptableObject.getProperty(thisObj, property), cx);
+	}
 
-		Object value = ScriptableObject.getProperty(thisObj, property);
+	/**
+	 * Version of getPropFunctionAndThis when the property has already been looked up as {@code value}.
+	 */
+	static Callable getPropFunctionAndThis(Scriptable thisObj, String property, Object value, Context cx) {
 		if (!(value instanceof Callable)) {
 			Object noSuchMethod = ScriptableObject.getProperty(thisObj, "__noSuchMethod__");
 			if (noSuchMethod instanceof Callable) {
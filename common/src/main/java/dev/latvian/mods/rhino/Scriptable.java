@@ -198,6 +198,44 @@ public interface Scriptable {
 	 */
 	void put(int index, Scriptable start, Object value);
 
+	/**
+	 * Same as {@link #get(String, Scriptable)}, for callers that have the current Context at hand.
+	 * Objects that need the Context to read a property override this to use the given one instead
+	 * of looking it up again.
+	 *
+	 * @see ScriptableObject#getProperty(Context, Scriptable, String)
+	 */
+	default Object get(Context cx, String name, Scriptable start) {
+		return get(name, start);
+	}
+
+	/**
+	 * Same as {@link #get(int, Scriptable)}, with the current Context.
+	 *
+	 * @see #get(Context, String, Scriptable)
+	 */
+	default Object get(Context cx, int index, Scriptable start) {
+		return get(index, start);
+	}
+
+	/**
+	 * Same as {@link #put(String, Scriptable, Object)}, with the current Context.
+	 *
+	 * @see #get(Context, String, Scriptable)
+	 */
+	default void put(Context cx, String name, Scriptable start, Object value) {
+		put(name, start, value);
+	}
+
+	/**
+	 * Same as {@link #put(int, Scriptable, Object)}, with the current Context.
+	 *
+	 * @see #get(Context, String, Scriptable)
+	 */
+	default void put(Context cx, int index, Scriptable start, Object value) {
+		put(index, start, value);
+	}
+
 	/**
 	 * Removes a property from this object.
 	 * This operation corresponds to the ECMA [[Delete]] except that
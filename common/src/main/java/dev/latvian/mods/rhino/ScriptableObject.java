@@ -30,9 +30,9 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.Arrays;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This is the default implementation of the Scriptable interface. This
@@ -119,6 +119,7 @@ public abstract class ScriptableObject implements Scriptable, SymbolScriptable,
 	// Where external array data is stored.
 	private transient ExternalArrayData externalData;
 
+	// concurrent, values are associated lazily with the sealed scope shared by child scopes while other threads read them
 	private volatile Map<Object, Object> associatedValues;
 
 	enum SlotAccess {
@@ -341,10 +342,14 @@ public abstract class ScriptableObject implements Scriptable, SymbolScriptable,
 
 	private static SlotMapContainer createSlotMap(int initialSize) {
 		Context cx = Context.getCurrentContext();
-		if ((cx != null) && cx.hasFeature(Context.FEATURE_THREAD_SAFE_OBJECTS)) {
-			return new ThreadSafeSlotMapContainer(initialSize);
+		if (cx == null) {
+			return new SlotMapContainer(initialSize);
 		}
-		return new SlotMapContainer(initialSize);
+		boolean shaped = cx.hasFeature(Context.FEATURE_SHAPED_OBJECTS);
+		if (cx.hasFeature(Context.FEATURE_THREAD_SAFE_OBJECTS)) {
+			return new ThreadSafeSlotMapContainer(initialSize, shaped);
+		}
+		return new SlotMapContainer(initialSize, shaped);
 	}
 
 	public ScriptableObject() {
@@ -470,6 +475,35 @@ public abstract class ScriptableObject implements Scriptable, SymbolScriptable,
 		return slot.getValue(start);
 	}
 
+	/**
+	 * Get the slot of a named property without calling any getter, for {@link PropertyCache}.
+	 */
+	final Slot querySlot(String name) {
+		return slotMap.query(name, 0);
+	}
+
+	/**
+	 * @return the modification count of the slot map, or -1 if lookups on this object must not be cached
+	 * @see SlotMapContainer#modCount
+	 */
+	final int getSlotModCount() {
+		return slotMap.getModCount();
+	}
+
+	/**
+	 * @see SlotMapContainer#getShape()
+	 */
+	final Shape getShape() {
+		return slotMap.getShape();
+	}
+
+	/**
+	 * @see SlotMapContainer#getSlot(Shape, int)
+	 */
+	final Slot getSlot(Shape shape, int index) {
+		return slotMap.getSlot(shape, index);
+	}
+
 	/**
 	 * Sets the value of the named property, creating it if need be.
 	 * <p>
@@ -2171,6 +2205,23 @@ public abstract class ScriptableObject implements Scriptable, SymbolScriptable,
 		return result;
 	}
 
+	/**
+	 * Same as {@link #getProperty(Scriptable, String)}, passing the current Context on to
+	 * {@link Scriptable#get(Context, String, Scriptable)}.
+	 */
+	public static Object getProperty(Context cx, Scriptable obj, String name) {
+		Scriptable start = obj;
+		Object result;
+		do {
+			result = obj.get(cx, name, start);
+			if (result != NOT_FOUND) {
+				break;
+			}
+			obj = obj.getPrototype();
+		} while (obj != null);
+		return result;
+	}
+
 	/**
 	 * This is a version of getProperty that works with Symbols.
 	 */
@@ -2244,6 +2295,23 @@ public abstract class ScriptableObject implements Scriptable, SymbolScriptable,
 		return result;
 	}
 
+	/**
+	 * Same as {@link #getProperty(Scriptable, int)}, passing the current Context on to
+	 * {@link Scriptable#get(Context, int, Scriptable)}.
+	 */
+	public static Object getProperty(Context cx, Scriptable obj, int index) {
+		Scriptable start = obj;
+		Object result;
+		do {
+			result = obj.get(cx, index, start);
+			if (result != NOT_FOUND) {
+				break;
+			}
+			obj = obj.getPrototype();
+		} while (obj != null);
+		return result;
+	}
+
 	/**
 	 * Gets a named property from an object or any object in its prototype chain
 	 * and coerces it to the requested Java type.
@@ -2357,6 +2425,18 @@ public abstract class ScriptableObject implements Scriptable, SymbolScriptable,
 		base.put(name, obj, value);
 	}
 
+	/**
+	 * Same as {@link #putProperty(Scriptable, String, Object)}, passing the current Context on to
+	 * {@link Scriptable#put(Context, String, Scriptable, Object)}.
+	 */
+	public static void putProperty(Context cx, Scriptable obj, String name, Object value) {
+		Scriptable base = getBase(obj, name);
+		if (base == null) {
+			base = obj;
+		}
+		base.put(cx, name, obj, value);
+	}
+
 	/**
 	 * This is a version of putProperty for Symbol keys.
 	 */
@@ -2418,6 +2498,18 @@ public abstract class ScriptableObject implements Scriptable, SymbolScriptable,
 		base.put(index, obj, value);
 	}
 
+	/**
+	 * Same as {@link #putProperty(Scriptable, int, Object)}, passing the current Context on to
+	 * {@link Scriptable#put(Context, int, Scriptable, Object)}.
+	 */
+	public static void putProperty(Context cx, Scriptable obj, int index, Object value) {
+		Scriptable base = getBase(obj, index);
+		if (base == null) {
+			base = obj;
+		}
+		base.put(cx, index, obj, value);
+	}
+
 	/**
 	 * Removes the property from an object or its prototype chain.
 	 * <p>
@@ -2635,10 +2727,11 @@ public abstract class ScriptableObject implements Scriptable, SymbolScriptable,
 		}
 		Map<Object, Object> h = associatedValues;
 		if (h == null) {
-			h = new HashMap<>();
+			h = new ConcurrentHashMap<>();
 			associatedValues = h;
 		}
-		return Kit.initHash(h, key, value);
+		Object old = h.putIfAbsent(key, value);
+		return old == null ? value : old;
 	}
 
 	/**
@@ -0,0 +1,158 @@
+package dev.latvian.mods.rhino;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * The layout of a {@link ShapedSlotMap}: its property keys, in insertion order.
+ * <p>
+ * Shapes form a tree rooted at {@link #EMPTY}. Adding a property moves an object to a child shape, and objects that
+ * get the same properties added in the same order end up sharing the same shape, so that only the values need to be
+ * stored per object. Since a shape never changes, its identity can also be used to validate cached lookups.
+ * <p>
+ * Transitions are weakly referenced, shapes no object uses anymore can be collected, and their transitions are
+ * removed the next time a shape is created. A shape has at most {@link #MAX_TRANSITIONS} children, further keys get an
+ * unshared shape, see {@link #isShared()}, so that objects used as dictionaries do not grow the tree without bound.
+ *
+ * @author ZZZank
+ */
+final class Shape {
+	static final Shape EMPTY = new Shape(new Object[0], true);
+
+	/**
+	 * Shapes with more keys than this use a hash table for lookup instead of a linear search
+	 */
+	private static final int LINEAR_SEARCH_SIZE = 8;
+	static final int MAX_TRANSITIONS = 64;
+
+	private static final ReferenceQueue<Shape> STALE = new ReferenceQueue<>();
+	@SuppressWarnings("rawtypes")
+	private static final AtomicReferenceFieldUpdater<Shape, ConcurrentHashMap> TRANSITIONS = AtomicReferenceFieldUpdater.newUpdater(Shape.class, ConcurrentHashMap.class, "transitions");
+
+	private final Object[] keys;
+	private final boolean shared;
+	private volatile Map<Object, Integer> indices;
+	private volatile ConcurrentHashMap<Object, Transition> transitions;
+
+	private Shape(Object[] keys, boolean shared) {
+		this.keys = keys;
+		this.shared = shared;
+	}
+
+	/**
+	 * @return the key of a property as stored in a shape, {@code name} for named properties, a boxed {@code index}
+	 * for indexed ones
+	 */
+	static Object key(Object name, int index) {
+		return name != null ? name : Integer.valueOf(index);
+	}
+
+	int size() {
+		return keys.length;
+	}
+
+	Object keyAt(int index) {
+		return keys[index];
+	}
+
+	/**
+	 * @return the index of {@code key}, or -1 if this shape does not contain it
+	 */
+	int indexOf(Object key) {
+		Object[] keys = this.keys;
+		if (keys.length <= LINEAR_SEARCH_SIZE) {
+			for (int i = 0; i < keys.length; i++) {
+				Object k = keys[i];
+				if (k == key || k.equals(key)) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		Map<Object, Integer> indices = this.indices;
+		if (indices == null) {
+			indices = new HashMap<>(keys.length * 4 / 3 + 1);
+			for (int i = 0; i < keys.length; i++) {
+				indices.put(keys[i], i);
+			}
+			this.indices = indices;
+		}
+		Integer index = indices.get(key);
+		return index == null ? -1 : index;
+	}
+
+	/**
+	 * @return false if this shape is not part of the transition tree, because its parent had too many transitions
+	 * already, objects with such a shape should switch to another {@link SlotMap}
+	 */
+	boolean isShared() {
+		return shared;
+	}
+
+	/**
+	 * @return the shape with {@code key} appended to the keys of this shape
+	 */
+	Shape with(Object key) {
+		if (!shared) {
+			return new Shape(append(key), false);
+		}
+		ConcurrentHashMap<Object, Transition> transitions = transitions();
+		while (true) {
+			Transition ref = transitions.get(key);
+			Shape child = ref == null ? null : ref.get();
+			if (child != null) {
+				return child;
+			}
+			expungeStaleTransitions();
+			if (ref == null && transitions.size() >= MAX_TRANSITIONS) {
+				return new Shape(append(key), false);
+			}
+			child = new Shape(append(key), true);
+			Transition created = new Transition(child, this, key);
+			if (ref == null ? transitions.putIfAbsent(key, created) == null : transitions.replace(key, ref, created)) {
+				return child;
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private ConcurrentHashMap<Object, Transition> transitions() {
+		ConcurrentHashMap<Object, Transition> transitions = this.transitions;
+		if (transitions == null) {
+			TRANSITIONS.compareAndSet(this, null, new ConcurrentHashMap<>(4));
+			transitions = this.transitions;
+		}
+		return transitions;
+	}
+
+	private Object[] append(Object key) {
+		Object[] childKeys = new Object[keys.length + 1];
+		System.arraycopy(keys, 0, childKeys, 0, keys.length);
+		childKeys[keys.length] = key;
+		return childKeys;
+	}
+
+	private static void expungeStaleTransitions() {
+		for (Reference<? extends Shape> ref; (ref = STALE.poll()) != null; ) {
+			Transition stale = (Transition) ref;
+			stale.parent.transitions.remove(stale.key, stale);
+		}
+	}
+
+	private static final class Transition extends WeakReference<Shape> {
+		final Shape parent;
+		final Object key;
+
+		Transition(Shape child, Shape parent, Object key) {
+			super(child, STALE);
+			this.parent = parent;
+			this.key = key;
+		}
+	}
+}
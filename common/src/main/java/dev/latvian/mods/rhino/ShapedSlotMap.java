@@ -0,0 +1,161 @@
+package dev.latvian.mods.rhino;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * This class implements the SlotMap interface using a shared {@link Shape} and a flat array of slots.
+ * <p>
+ * Unlike {@link EmbeddedSlotMap}, an object does not carry a hash table of its own, the mapping from keys to array
+ * indices is shared by all objects with the same shape. This is intended for the many small objects with the same
+ * layout that scripts usually create, objects that grow beyond {@link #MAX_SIZE} properties are switched to
+ * {@link EmbeddedSlotMap} by {@link SlotMapContainer}.
+ *
+ * @author ZZZank
+ * @see Context#FEATURE_SHAPED_OBJECTS
+ */
+final class ShapedSlotMap implements SlotMap {
+	static final int MAX_SIZE = 64;
+
+	private static final ScriptableObject.Slot[] EMPTY_SLOTS = new ScriptableObject.Slot[0];
+
+	Shape shape = Shape.EMPTY;
+	ScriptableObject.Slot[] slots = EMPTY_SLOTS;
+
+	@Override
+	public int size() {
+		return shape.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return shape.size() == 0;
+	}
+
+	@Override
+	public Iterator<ScriptableObject.Slot> iterator() {
+		return new Iter(slots, shape.size());
+	}
+
+	@Override
+	public ScriptableObject.Slot query(Object key, int index) {
+		int i = shape.indexOf(Shape.key(key, index));
+		return i < 0 ? null : slots[i];
+	}
+
+	@Override
+	public ScriptableObject.Slot get(Object key, int index, ScriptableObject.SlotAccess accessType) {
+		int i = shape.indexOf(Shape.key(key, index));
+		ScriptableObject.Slot slot = i < 0 ? null : slots[i];
+
+		switch (accessType) {
+			case QUERY:
+				return slot;
+			case MODIFY:
+			case MODIFY_CONST:
+				if (slot != null) {
+					return slot;
+				}
+				break;
+			case MODIFY_GETTER_SETTER:
+				if (slot instanceof ScriptableObject.GetterSlot) {
+					return slot;
+				}
+				break;
+			case CONVERT_ACCESSOR_TO_DATA:
+				if (!(slot instanceof ScriptableObject.GetterSlot)) {
+					return slot;
+				}
+				break;
+		}
+
+		if (slot != null) {
+			// a slot is being redefined from a value to a getter slot or vice versa, the shape stays the same
+			ScriptableObject.Slot newSlot = accessType == ScriptableObject.SlotAccess.MODIFY_GETTER_SETTER
+				? new ScriptableObject.GetterSlot(key, slot.indexOrHash, slot.getAttributes())
+				: new ScriptableObject.Slot(key, slot.indexOrHash, slot.getAttributes());
+			newSlot.value = slot.value;
+			slots[i] = newSlot;
+			return newSlot;
+		}
+
+		int indexOrHash = key != null ? key.hashCode() : index;
+		ScriptableObject.Slot newSlot = accessType == ScriptableObject.SlotAccess.MODIFY_GETTER_SETTER
+			? new ScriptableObject.GetterSlot(key, indexOrHash, 0)
+			: new ScriptableObject.Slot(key, indexOrHash, 0);
+		if (accessType == ScriptableObject.SlotAccess.MODIFY_CONST) {
+			newSlot.setAttributes(ScriptableObject.CONST);
+		}
+		append(newSlot);
+		return newSlot;
+	}
+
+	@Override
+	public void addSlot(ScriptableObject.Slot newSlot) {
+		append(newSlot);
+	}
+
+	private void append(ScriptableObject.Slot newSlot) {
+		int size = shape.size();
+		if (size == slots.length) {
+			ScriptableObject.Slot[] newSlots = new ScriptableObject.Slot[size == 0 ? 4 : size * 2];
+			System.arraycopy(slots, 0, newSlots, 0, size);
+			slots = newSlots;
+		}
+		slots[size] = newSlot;
+		shape = shape.with(Shape.key(newSlot.name, newSlot.indexOrHash));
+	}
+
+	@Override
+	public void remove(Object key, int index) {
+		int i = shape.indexOf(Shape.key(key, index));
+		if (i < 0) {
+			return;
+		}
+		ScriptableObject.Slot slot = slots[i];
+		// non-configurable
+		if ((slot.getAttributes() & ScriptableObject.PERMANENT) != 0) {
+			Context cx = Context.getContext();
+			if (cx.isStrictMode()) {
+				throw ScriptRuntime.typeError1("msg.delete.property.with.configurable.false", key);
+			}
+			return;
+		}
+
+		// deletion is infrequent, rebuild the shape from the remaining keys
+		int size = shape.size();
+		Shape newShape = Shape.EMPTY;
+		for (int j = 0; j < size; j++) {
+			if (j != i) {
+				newShape = newShape.with(shape.keyAt(j));
+			}
+		}
+		System.arraycopy(slots, i + 1, slots, i, size - i - 1);
+		slots[size - 1] = null;
+		shape = newShape;
+	}
+
+	private static final class Iter implements Iterator<ScriptableObject.Slot> {
+		private final ScriptableObject.Slot[] slots;
+		private final int size;
+		private int next;
+
+		Iter(ScriptableObject.Slot[] slots, int size) {
+			this.slots = slots;
+			this.size = size;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next < size;
+		}
+
+		@Override
+		public ScriptableObject.Slot next() {
+			if (next >= size) {
+				throw new NoSuchElementException();
+			}
+			return slots[next++];
+		}
+	}
+}
@@ -26,9 +26,26 @@ class SlotMapContainer implements SlotMap {
 
 	protected SlotMap map;
 
+	/**
+	 * Incremented whenever a slot is added, removed or replaced, but not when the value of a slot changes.
+	 * Used by the interpreter to validate its cached lookups.
+	 *
+	 * @see PropertyCache
+	 */
+	int modCount;
+
 	SlotMapContainer(int initialSize) {
+		this(initialSize, false);
+	}
+
+	/**
+	 * @param shaped if true, start with a {@link ShapedSlotMap}
+	 */
+	SlotMapContainer(int initialSize, boolean shaped) {
 		if (initialSize > LARGE_HASH_SIZE) {
 			map = new HashSlotMap();
+		} else if (shaped && initialSize < ShapedSlotMap.MAX_SIZE) {
+			map = new ShapedSlotMap();
 		} else {
 			map = new EmbeddedSlotMap();
 		}
@@ -50,10 +67,16 @@ class SlotMapContainer implements SlotMap {
 
 	@Override
 	public Slot get(Object key, int index, SlotAccess accessType) {
-		if (accessType != SlotAccess.QUERY) {
-			checkMapSize();
+		if (accessType == SlotAccess.QUERY) {
+			return map.get(key, index, accessType);
 		}
-		return map.get(key, index, accessType);
+		checkMapSize();
+		int size = map.size();
+		Slot slot = map.get(key, index, accessType);
+		if (size != map.size() || accessType == SlotAccess.MODIFY_GETTER_SETTER || accessType == SlotAccess.CONVERT_ACCESSOR_TO_DATA) {
+			modCount++;
+		}
+		return slot;
 	}
 
 	@Override
@@ -65,11 +88,35 @@ class SlotMapContainer implements SlotMap {
 	public void addSlot(Slot newSlot) {
 		checkMapSize();
 		map.addSlot(newSlot);
+		modCount++;
 	}
 
 	@Override
 	public void remove(Object key, int index) {
 		map.remove(key, index);
+		modCount++;
+	}
+
+	/**
+	 * @return the modification count, or -1 if lookups in this map must not be cached
+	 */
+	int getModCount() {
+		return modCount;
+	}
+
+	/**
+	 * @return the shape of the map, or null if the map is not a {@link ShapedSlotMap} or lookups in this map must not
+	 * be cached
+	 */
+	Shape getShape() {
+		return map instanceof ShapedSlotMap shaped ? shaped.shape : null;
+	}
+
+	/**
+	 * @return the slot at {@code index} of a {@link ShapedSlotMap}, or null if the map does not have that shape anymore
+	 */
+	Slot getSlot(Shape shape, int index) {
+		return map instanceof ShapedSlotMap shaped && shaped.shape == shape ? shaped.slots[index] : null;
 	}
 
 	@Override
@@ -88,7 +135,8 @@ class SlotMapContainer implements SlotMap {
 
 	/**
 	 * Before inserting a new item in the map, check and see if we need to expand from the embedded
-	 * map to a HashMap that is more robust against large numbers of hash collisions.
+	 * map to a HashMap that is more robust against large numbers of hash collisions, or from the
+	 * shaped map, which is only meant for small objects with common layouts, to the embedded map.
 	 */
 	protected void checkMapSize() {
 		if ((map instanceof EmbeddedSlotMap) && map.size() >= LARGE_HASH_SIZE) {
@@ -97,6 +145,12 @@ class SlotMapContainer implements SlotMap {
 				newMap.addSlot(s);
 			}
 			map = newMap;
+		} else if ((map instanceof ShapedSlotMap shaped) && (map.size() >= ShapedSlotMap.MAX_SIZE || !shaped.shape.isShared())) {
+			SlotMap newMap = new EmbeddedSlotMap();
+			for (Slot s : map) {
+				newMap.addSlot(s);
+			}
+			map = newMap;
 		}
 	}
 }
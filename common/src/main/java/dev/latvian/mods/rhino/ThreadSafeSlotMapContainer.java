@@ -25,6 +25,10 @@ class ThreadSafeSlotMapContainer extends SlotMapContainer {
 		super(initialSize);
 	}
 
+	ThreadSafeSlotMapContainer(int initialSize, boolean shaped) {
+		super(initialSize, shaped);
+	}
+
 	@Override
 	public int size() {
 		long stamp = lock.tryOptimisticRead();
@@ -65,23 +69,49 @@ class ThreadSafeSlotMapContainer extends SlotMapContainer {
 
 	@Override
 	public Slot get(Object key, int index, SlotAccess accessType) {
+		if (accessType == SlotAccess.QUERY) {
+			return query(key, index);
+		}
+
+		// most writes are to existing properties, which do not need to modify the map
+		Slot existing = query(key, index);
+		if (existing != null && isReusable(existing, accessType)) {
+			return existing;
+		}
+
 		final long stamp = lock.writeLock();
 		try {
-			if (accessType != SlotAccess.QUERY) {
-				checkMapSize();
-			}
+			checkMapSize();
 			return map.get(key, index, accessType);
 		} finally {
 			lock.unlockWrite(stamp);
 		}
 	}
 
+	/**
+	 * @return true if {@link SlotMap#get(Object, int, SlotAccess)} would return {@code slot} itself
+	 */
+	private static boolean isReusable(Slot slot, SlotAccess accessType) {
+		return switch (accessType) {
+			case MODIFY, MODIFY_CONST -> true;
+			case MODIFY_GETTER_SETTER -> slot instanceof ScriptableObject.GetterSlot;
+			case CONVERT_ACCESSOR_TO_DATA -> !(slot instanceof ScriptableObject.GetterSlot);
+			default -> false;
+		};
+	}
+
 	@Override
 	public Slot query(Object key, int index) {
 		long stamp = lock.tryOptimisticRead();
-		Slot s = map.query(key, index);
-		if (lock.validate(stamp)) {
-			return s;
+		if (stamp != 0L) {
+			try {
+				Slot s = map.query(key, index);
+				if (lock.validate(stamp)) {
+					return s;
+				}
+			} catch (RuntimeException ignored) {
+				// the map was modified while being read, which validate() would have reported
+			}
 		}
 
 		stamp = lock.readLock();
@@ -113,6 +143,23 @@ class ThreadSafeSlotMapContainer extends SlotMapContainer {
 		}
 	}
 
+	@Override
+	int getModCount() {
+		// cached slots could not be validated without taking the lock
+		return -1;
+	}
+
+	@Override
+	Shape getShape() {
+		return null;
+	}
+
+	@Override
+	Slot getSlot(Shape shape, int index) {
+		// shape entries learned from other objects of the same shape must not bypass the lock
+		return null;
+	}
+
 	/**
 	 * Take out a read lock on the slot map, if locking is implemented. The caller MUST call
 	 * this method before using the iterator, and MUST NOT call this method otherwise.
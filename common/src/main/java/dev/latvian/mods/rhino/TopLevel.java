@@ -164,6 +164,14 @@ public class TopLevel extends IdScriptableObject {
 		}
 	}
 
+	/**
+	 * Use the built-ins cached by {@code shared}, for a scope that has it as its prototype.
+	 */
+	void shareBuiltins(TopLevel shared) {
+		ctors = shared.ctors;
+		errors = shared.errors;
+	}
+
 	/**
 	 * Static helper method to get a built-in object constructor with the given
 	 * <code>type</code> from the given <code>scope</code>. If the scope is not
@@ -10,8 +10,11 @@ package dev.latvian.mods.rhino;
 
 import dev.latvian.mods.rhino.native_java.type.info.ArrayTypeInfo;
 import dev.latvian.mods.rhino.native_java.type.info.TypeInfo;
+import dev.latvian.mods.rhino.typedarrays.NativeArrayBuffer;
+import dev.latvian.mods.rhino.typedarrays.NativeTypedArrayView;
 import dev.latvian.mods.rhino.util.CustomJavaObjectWrapper;
 
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Map;
 
@@ -62,12 +65,94 @@ public class WrapFactory {
 			return (int) (Character) obj;
 		} else if (target.isPrimitive()) {
 			return obj;
-		} else if (target instanceof ArrayTypeInfo array) {
+		} else if (!javaPrimitiveWrap) {
+			if (isJavaPrimitive(obj)) {
+				return obj;
+			} else if (obj instanceof Character c) {
+				return String.valueOf(c.charValue());
+			}
+		}
+		if (wrapperCache && isWrapperCacheable(obj, target)) {
+			WrapperCache cache = WrapperCache.get(scope);
+			if (cache != null) {
+				NativeJavaObject cached = cache.get(obj, target);
+				if (cached != null) {
+					return cached;
+				}
+				Object wrapped = wrapUncached(cx, scope, obj, target);
+				if (wrapped instanceof NativeJavaObject wrapper) {
+					cache.put(obj, wrapper);
+				}
+				return wrapped;
+			}
+		}
+		return wrapUncached(cx, scope, obj, target);
+	}
+
+	/**
+	 * @return true if {@code obj} is a String, Boolean or boxed number that scripts use as a primitive value directly
+	 * when {@link #isJavaPrimitiveWrap()} is false
+	 */
+	static boolean isJavaPrimitive(Object obj) {
+		return obj instanceof String || obj instanceof Integer || obj instanceof Double || obj instanceof Boolean || obj instanceof Long || obj instanceof Float || obj instanceof Short || obj instanceof Byte;
+	}
+
+	private Object wrapUncached(Context cx, Scriptable scope, Object obj, TypeInfo target) {
+		if (typedArrayWrap) {
+			Scriptable typed = wrapAsTypedArray(scope, obj);
+			if (typed != null) {
+				return typed;
+			}
+		}
+		if (target instanceof ArrayTypeInfo array) {
 			return new NativeJavaArray(cx, scope, obj, array);
 		}
         return wrapAsJavaObject(cx, scope, obj, target);
     }
 
+	/**
+	 * Wrap a ByteBuffer as an ArrayBuffer, or a Java array of primitive numbers as a typed array, sharing its content
+	 * instead of copying it.
+	 *
+	 * @return the wrapped value, or null if {@code obj} has no typed array equivalent
+	 * @see #setTypedArrayWrap(boolean)
+	 */
+	protected Scriptable wrapAsTypedArray(Scriptable scope, Object obj) {
+		if (obj instanceof ByteBuffer buffer) {
+			return NativeArrayBuffer.wrap(scope, buffer);
+		} else if (obj.getClass().isArray()) {
+			return NativeTypedArrayView.wrapJavaArray(scope, obj);
+		}
+		return null;
+	}
+
+	/**
+	 * Return <code>false</code> if wrappers of <code>javaObject</code> should not be reused when the wrapper cache
+	 * is enabled. By default, strings, boxed primitives and objects with their own wrapping are not cached, since
+	 * equal values of these types are usually different instances.
+	 * <p>
+	 * Subclasses can override the method to opt out other value-like types.
+	 *
+	 * @see #setWrapperCache(boolean)
+	 */
+	protected boolean isWrapperCacheable(Object javaObject, TypeInfo target) {
+		return WRAPPER_CACHEABLE.get(javaObject.getClass());
+	}
+
+	/**
+	 * by class, since checking several interfaces on every wrap costs more than the lookup saves
+	 */
+	private static final ClassValue<Boolean> WRAPPER_CACHEABLE = new ClassValue<Boolean>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			return !(CharSequence.class.isAssignableFrom(type)
+				|| Number.class.isAssignableFrom(type)
+				|| Boolean.class == type
+				|| Character.class == type
+				|| CustomJavaObjectWrapper.class.isAssignableFrom(type));
+		}
+	};
+
 	/**
 	 * Wrap an object newly created by a constructor call.
 	 *
@@ -174,6 +259,55 @@ public class WrapFactory {
 		javaPrimitiveWrap = value;
 	}
 
+	/**
+	 * Return <code>true</code> if <code>ByteBuffer</code>s and Java arrays of primitive numbers resulting from Java
+	 * methods are wrapped as ArrayBuffers and typed arrays sharing their content, so that scripts can access them
+	 * with unboxed reads and writes. The default is <code>false</code>: such values are wrapped as any other Java
+	 * object or array.
+	 *
+	 * @see NativeTypedArrayView#wrapJavaArray(Scriptable, Object)
+	 */
+	public final boolean isTypedArrayWrap() {
+		return typedArrayWrap;
+	}
+
+	/**
+	 * @see #isTypedArrayWrap()
+	 */
+	public final void setTypedArrayWrap(boolean value) {
+		Context cx = Context.getCurrentContext();
+		if (cx != null && cx.isSealed()) {
+			Context.onSealedMutation();
+		}
+		typedArrayWrap = value;
+	}
+
+	/**
+	 * Return <code>true</code> if wrapping the same Java object with the same static type again returns the
+	 * wrapper created before, as long as it is still referenced, instead of a new one. Repeated reads of the same
+	 * Java object, for example of list elements, then allocate no wrapper and do not look up its members again. The
+	 * wrappers are cached per top-level scope. The default is <code>false</code>.
+	 *
+	 * @see WrapperCache
+	 * @see #isWrapperCacheable(Object, TypeInfo)
+	 */
+	public final boolean isWrapperCache() {
+		return wrapperCache;
+	}
+
+	/**
+	 * @see #isWrapperCache()
+	 */
+	public final void setWrapperCache(boolean value) {
+		Context cx = Context.getCurrentContext();
+		if (cx != null && cx.isSealed()) {
+			Context.onSealedMutation();
+		}
+		wrapperCache = value;
+	}
+
 	private boolean javaPrimitiveWrap = true;
+	private boolean typedArrayWrap = false;
+	private boolean wrapperCache = false;
 
 }
@@ -0,0 +1,65 @@
+package dev.latvian.mods.rhino;
+
+import com.google.common.collect.MapMaker;
+import dev.latvian.mods.rhino.native_java.type.info.TypeInfo;
+
+import java.util.Map;
+
+/**
+ * Wrappers of Java objects of one top-level scope, so that wrapping the same Java object with the same static type
+ * again returns the same wrapper, see {@link WrapFactory#setWrapperCache(boolean)}.
+ * <p>
+ * Java objects are compared by identity. Neither Java objects nor their wrappers are kept alive by the cache, a wrapper
+ * is reused for as long as something else references it.
+ *
+ * @author ZZZank
+ */
+public final class WrapperCache {
+	private static final Object AKEY = "WrapperCache";
+
+	/**
+	 * @return the cache of the top-level scope of {@code scope}, created on first use, or null if the top-level scope
+	 * can not hold one
+	 */
+	public static WrapperCache get(Scriptable scope) {
+		if (!(ScriptableObject.getTopLevelScope(scope) instanceof ScriptableObject top)) {
+			return null;
+		}
+		WrapperCache cache = (WrapperCache) top.getAssociatedValue(AKEY);
+		if (cache == null) {
+			cache = (WrapperCache) top.associateValue(AKEY, new WrapperCache());
+		}
+		return cache;
+	}
+
+	/**
+	 * weak identity keys, weak values since wrappers reference their Java object
+	 */
+	private final Map<Object, NativeJavaObject> wrappers = new MapMaker().weakKeys().weakValues().makeMap();
+
+	private WrapperCache() {
+	}
+
+	/**
+	 * @return the wrapper of {@code javaObject} created for {@code type}, or null
+	 */
+	public NativeJavaObject get(Object javaObject, TypeInfo type) {
+		NativeJavaObject wrapper = wrappers.get(javaObject);
+		return wrapper != null && wrapper.typeInfo.equals(type) ? wrapper : null;
+	}
+
+	/**
+	 * Remember the wrapper of {@code javaObject}, replacing the one created for another static type if any
+	 */
+	public void put(Object javaObject, NativeJavaObject wrapper) {
+		wrappers.put(javaObject, wrapper);
+	}
+
+	public int size() {
+		return wrappers.size();
+	}
+
+	public void clear() {
+		wrappers.clear();
+	}
+}
@@ -10,39 +10,152 @@ import dev.latvian.mods.rhino.Context;
 import dev.latvian.mods.rhino.ScriptRuntime;
 import dev.latvian.mods.rhino.Scriptable;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * This class converts a stream of JSON tokens into a JSON value.
  * <p>
  * See ECMA 15.12.
+ * <p>
+ * A parser only holds its configuration, every call to {@code parseValue} uses its own state, so a parser can be
+ * reused, and used by several threads at once. Values of arrays and objects are collected on a single stack shared
+ * by the whole parse, so that each array is allocated once at its final size, and repeated object keys share the
+ * same String instance.
  *
  * @author Raphael Speyer
  * @author Hannes Wallnoefer
  */
 public class JsonParser {
 
+	/**
+	 * Number of entries of the table used to deduplicate object keys, must be a power of two
+	 */
+	private static final int KEY_TABLE_SIZE = 256;
+
+	/**
+	 * Integers with at most this many digits are exactly representable as a double, and are converted without
+	 * {@link Double#parseDouble(String)}
+	 */
+	private static final int MAX_FAST_DIGITS = 15;
+
 	private final Context cx;
 	private final Scriptable scope;
+	private final boolean javaValues;
 
+	private char[] src;
 	private int pos;
 	private int length;
-	private String src;
+	private Object[] stack;
+	private int top;
+	private String[] keys;
 
+	/**
+	 * Create a parser producing JavaScript values: objects and arrays are created in {@code scope}, numbers are
+	 * {@link Double}s.
+	 */
 	public JsonParser(Context cx, Scriptable scope) {
+		this(cx, scope, false);
+	}
+
+	/**
+	 * Create a parser producing plain Java values, for host code that has no use for Scriptables: objects are
+	 * {@link LinkedHashMap}s with String keys, arrays are {@link ArrayList}s, numbers are {@link Double}s.
+	 */
+	public JsonParser() {
+		this(null, null, true);
+	}
+
+	private JsonParser(Context cx, Scriptable scope, boolean javaValues) {
 		this.cx = cx;
 		this.scope = scope;
+		this.javaValues = javaValues;
+	}
+
+	/**
+	 * @return true if this parser produces plain Java values instead of JavaScript values
+	 */
+	public boolean isJavaValues() {
+		return javaValues;
+	}
+
+	public Object parseValue(String json) throws ParseException {
+		if (json == null) {
+			throw new ParseException("Input string may not be null");
+		}
+		return parseValue(json.toCharArray(), json.length());
 	}
 
-	public synchronized Object parseValue(String json) throws ParseException {
+	/**
+	 * Parse the whole content of {@code reader}, which is not closed by this method.
+	 */
+	public Object parseValue(Reader reader) throws ParseException, IOException {
+		char[] buffer = new char[8192];
+		int size = 0;
+		for (int read; (read = reader.read(buffer, size, buffer.length - size)) != -1; ) {
+			size += read;
+			if (size == buffer.length) {
+				buffer = Arrays.copyOf(buffer, buffer.length * 2);
+			}
+		}
+		return parseValue(buffer, size);
+	}
+
+	/**
+	 * Parse the remaining bytes of {@code buffer}, decoded as UTF-8.
+	 */
+	public Object parseValue(ByteBuffer buffer) throws ParseException {
+		CharBuffer chars;
+		try {
+			chars = StandardCharsets.UTF_8.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPORT)
+				.onUnmappableCharacter(CodingErrorAction.REPORT)
+				.decode(buffer);
+		} catch (CharacterCodingException ex) {
+			throw new ParseException(ex);
+		}
+		if (chars.hasArray() && chars.arrayOffset() == 0 && chars.position() == 0) {
+			return parseValue(chars.array(), chars.limit());
+		}
+		char[] array = new char[chars.remaining()];
+		chars.get(array);
+		return parseValue(array, array.length);
+	}
+
+	/**
+	 * Parse the first {@code length} chars of {@code json}. The array is only read, never modified or retained.
+	 */
+	public Object parseValue(char[] json, int length) throws ParseException {
 		if (json == null) {
 			throw new ParseException("Input string may not be null");
 		}
-		pos = 0;
-		length = json.length();
-		src = json;
-		Object value = readValue();
+		if (length < 0 || length > json.length) {
+			throw new IndexOutOfBoundsException(String.valueOf(length));
+		}
+		return new JsonParser(cx, scope, javaValues).parse(json, length);
+	}
+
+	private Object parse(char[] json, int length) throws ParseException {
+		this.src = json;
+		this.pos = 0;
+		this.length = length;
+		this.stack = new Object[16];
+		Object value;
+		try {
+			value = readValue();
+		} catch (StackOverflowError ex) {
+			// nesting is only limited by the thread stack, fail like any other unparsable input
+			throw new ParseException("Nesting too deep at char " + pos);
+		}
 		consumeWhitespace();
 		if (pos < length) {
 			throw new ParseException("Expected end of stream at char " + pos);
@@ -52,14 +165,14 @@ public class JsonParser {
 
 	private Object readValue() throws ParseException {
 		consumeWhitespace();
-		while (pos < length) {
-			char c = src.charAt(pos++);
+		if (pos < length) {
+			char c = src[pos++];
             return switch (c) {
                 case '{' -> readObject();
                 case '[' -> readArray();
                 case 't' -> readTrue();
                 case 'f' -> readFalse();
-                case '"' -> readString();
+                case '"' -> readString(false);
                 case 'n' -> readNull();
                 case '1', '2', '3', '4', '5', '6', '7', '8', '9', '0', '-' -> readNumber(c);
                 default -> throw new ParseException("Unexpected token: " + c);
@@ -68,25 +181,31 @@ public class JsonParser {
 		throw new ParseException("Empty JSON string");
 	}
 
+	private void push(Object value) {
+		if (top == stack.length) {
+			stack = Arrays.copyOf(stack, top * 2);
+		}
+		stack[top++] = value;
+	}
+
 	private Object readObject() throws ParseException {
 		consumeWhitespace();
-		Scriptable object = cx.newObject(scope);
 		// handle empty object literal case early
-		if (pos < length && src.charAt(pos) == '}') {
+		if (pos < length && src[pos] == '}') {
 			pos += 1;
-			return object;
+			return javaValues ? new LinkedHashMap<String, Object>() : cx.newObject(scope);
 		}
-		String id;
-		Object value;
+		// keys and values are pushed in pairs, and only put into the object once its size is known
+		final int start = top;
 		boolean needsComma = false;
 		while (pos < length) {
-			char c = src.charAt(pos++);
+			char c = src[pos++];
 			switch (c) {
 				case '}':
 					if (!needsComma) {
 						throw new ParseException("Unexpected comma in object literal");
 					}
-					return object;
+					return createObject(start);
 				case ',':
 					if (!needsComma) {
 						throw new ParseException("Unexpected comma in object literal");
@@ -97,17 +216,9 @@ public class JsonParser {
 					if (needsComma) {
 						throw new ParseException("Missing comma in object literal");
 					}
-					id = readString();
+					push(readString(true));
 					consume(':');
-					value = readValue();
-
-					long index = ScriptRuntime.indexFromString(id);
-					if (index < 0) {
-						object.put(id, object, value);
-					} else {
-						object.put((int) index, object, value);
-					}
-
+					push(readValue());
 					needsComma = true;
 					break;
 				default:
@@ -118,24 +229,50 @@ public class JsonParser {
 		throw new ParseException("Unterminated object literal");
 	}
 
+	private Object createObject(int start) {
+		final int end = top;
+		top = start;
+		if (javaValues) {
+			Map<String, Object> map = new LinkedHashMap<>((end - start) * 2 / 3 + 1);
+			for (int i = start; i < end; i += 2) {
+				map.put((String) stack[i], stack[i + 1]);
+			}
+			Arrays.fill(stack, start, end, null);
+			return map;
+		}
+		Scriptable object = cx.newObject(scope);
+		for (int i = start; i < end; i += 2) {
+			String id = (String) stack[i];
+			Object value = stack[i + 1];
+			long index = ScriptRuntime.indexFromString(id);
+			if (index < 0) {
+				object.put(id, object, value);
+			} else {
+				object.put((int) index, object, value);
+			}
+		}
+		Arrays.fill(stack, start, end, null);
+		return object;
+	}
+
 	private Object readArray() throws ParseException {
 		consumeWhitespace();
 		// handle empty array literal case early
-		if (pos < length && src.charAt(pos) == ']') {
+		if (pos < length && src[pos] == ']') {
 			pos += 1;
-			return cx.newArray(scope, 0);
+			return javaValues ? new ArrayList<>(0) : cx.newArray(scope, 0);
 		}
-		List<Object> list = new ArrayList<>();
+		final int start = top;
 		boolean needsComma = false;
 		while (pos < length) {
-			char c = src.charAt(pos);
+			char c = src[pos];
 			switch (c) {
 				case ']':
 					if (!needsComma) {
 						throw new ParseException("Unexpected comma in array literal");
 					}
 					pos += 1;
-					return cx.newArray(scope, list.toArray());
+					return createArray(start);
 				case ',':
 					if (!needsComma) {
 						throw new ParseException("Unexpected comma in array literal");
@@ -147,7 +284,7 @@ public class JsonParser {
 					if (needsComma) {
 						throw new ParseException("Missing comma in array literal");
 					}
-					list.add(readValue());
+					push(readValue());
 					needsComma = true;
 			}
 			consumeWhitespace();
@@ -155,21 +292,39 @@ public class JsonParser {
 		throw new ParseException("Unterminated array literal");
 	}
 
-	private String readString() throws ParseException {
+	private Object createArray(int start) {
+		final int end = top;
+		top = start;
+		Object[] elements = Arrays.copyOfRange(stack, start, end);
+		Arrays.fill(stack, start, end, null);
+		if (javaValues) {
+			return new ArrayList<>(Arrays.asList(elements));
+		}
+		// becomes the dense storage of the array as is
+		return cx.newArray(scope, elements);
+	}
+
+	/**
+	 * @param key if true, the string is an object key, and may be shared with equal keys read before
+	 */
+	private String readString(boolean key) throws ParseException {
 		/*
 		 * Optimization: if the source contains no escaped characters, create the
 		 * string directly from the source text.
 		 */
+		final char[] src = this.src;
 		int stringStart = pos;
+		int hash = 0;
 		while (pos < length) {
-			char c = src.charAt(pos++);
+			char c = src[pos++];
 			if (c <= '\u001F') {
 				throw new ParseException("String contains control character");
 			} else if (c == '\\') {
 				break;
 			} else if (c == '"') {
-				return src.substring(stringStart, pos - 1);
+				return key ? key(stringStart, pos - 1, hash) : new String(src, stringStart, pos - 1 - stringStart);
 			}
+			hash = 31 * hash + c;
 		}
 
 		/*
@@ -179,12 +334,12 @@ public class JsonParser {
 		 */
 		StringBuilder b = new StringBuilder();
 		while (pos < length) {
-			assert src.charAt(pos - 1) == '\\';
-			b.append(src, stringStart, pos - 1);
+			assert src[pos - 1] == '\\';
+			b.append(src, stringStart, pos - 1 - stringStart);
 			if (pos >= length) {
 				throw new ParseException("Unterminated string");
 			}
-			char c = src.charAt(pos++);
+			char c = src[pos++];
 			switch (c) {
 				case '"':
 					b.append('"');
@@ -212,11 +367,11 @@ public class JsonParser {
 					break;
 				case 'u':
 					if (length - pos < 5) {
-						throw new ParseException("Invalid character code: \\u" + src.substring(pos));
+						throw new ParseException("Invalid character code: \\u" + new String(src, pos, length - pos));
 					}
-					int code = fromHex(src.charAt(pos + 0)) << 12 | fromHex(src.charAt(pos + 1)) << 8 | fromHex(src.charAt(pos + 2)) << 4 | fromHex(src.charAt(pos + 3));
+					int code = fromHex(src[pos + 0]) << 12 | fromHex(src[pos + 1]) << 8 | fromHex(src[pos + 2]) << 4 | fromHex(src[pos + 3]);
 					if (code < 0) {
-						throw new ParseException("Invalid character code: " + src.substring(pos, pos + 4));
+						throw new ParseException("Invalid character code: " + new String(src, pos, 4));
 					}
 					pos += 4;
 					b.append((char) code);
@@ -226,13 +381,13 @@ public class JsonParser {
 			}
 			stringStart = pos;
 			while (pos < length) {
-				c = src.charAt(pos++);
+				c = src[pos++];
 				if (c <= '\u001F') {
 					throw new ParseException("String contains control character");
 				} else if (c == '\\') {
 					break;
 				} else if (c == '"') {
-					b.append(src, stringStart, pos - 1);
+					b.append(src, stringStart, pos - 1 - stringStart);
 					return b.toString();
 				}
 			}
@@ -240,6 +395,29 @@ public class JsonParser {
 		throw new ParseException("Unterminated string literal");
 	}
 
+	/**
+	 * @return a String with the chars of {@code src} from {@code start} to {@code end}, which is the same instance
+	 * as a key with the same content read before, unless it has been evicted from the table
+	 */
+	private String key(int start, int end, int hash) {
+		if (keys == null) {
+			keys = new String[KEY_TABLE_SIZE];
+		}
+		final int slot = (hash ^ (hash >>> 16)) & (KEY_TABLE_SIZE - 1);
+		final int len = end - start;
+		String cached = keys[slot];
+		if (cached != null && cached.length() == len) {
+			int i = 0;
+			while (i < len && cached.charAt(i) == src[start + i]) {
+				i++;
+			}
+			if (i == len) {
+				return cached;
+			}
+		}
+		return keys[slot] = new String(src, start, len);
+	}
+
 	private static int fromHex(char c) {
 		return c >= '0' && c <= '9' ? c - '0' : c >= 'A' && c <= 'F' ? c - 'A' + 10 : c >= 'a' && c <= 'f' ? c - 'a' + 10 : -1;
 	}
@@ -247,19 +425,24 @@ public class JsonParser {
 	private Number readNumber(char c) throws ParseException {
 		assert c == '-' || (c >= '0' && c <= '9');
 		final int numberStart = pos - 1;
-		if (c == '-') {
+		final boolean negative = c == '-';
+		if (negative) {
 			c = nextOrNumberError(numberStart);
 			if (!(c >= '0' && c <= '9')) {
 				throw numberError(numberStart, pos);
 			}
 		}
+		final int digitsStart = pos - 1;
 		if (c != '0') {
 			readDigits();
 		}
+		final int digitsEnd = pos;
+		boolean integer = true;
 		// read optional fraction part
 		if (pos < length) {
-			c = src.charAt(pos);
+			c = src[pos];
 			if (c == '.') {
+				integer = false;
 				pos += 1;
 				c = nextOrNumberError(numberStart);
 				if (!(c >= '0' && c <= '9')) {
@@ -270,8 +453,9 @@ public class JsonParser {
 		}
 		// read optional exponent part
 		if (pos < length) {
-			c = src.charAt(pos);
+			c = src[pos];
 			if (c == 'e' || c == 'E') {
+				integer = false;
 				pos += 1;
 				c = nextOrNumberError(numberStart);
 				if (c == '-' || c == '+') {
@@ -283,26 +467,31 @@ public class JsonParser {
 				readDigits();
 			}
 		}
-		String num = src.substring(numberStart, pos);
-		final double dval = Double.parseDouble(num);
-		final int ival = (int) dval;
-		return dval;
+		if (integer && digitsEnd - digitsStart <= MAX_FAST_DIGITS) {
+			long value = 0;
+			for (int i = digitsStart; i < digitsEnd; i++) {
+				value = value * 10 + (src[i] - '0');
+			}
+			// negating the double rather than the long keeps -0
+			return negative ? -(double) value : (double) value;
+		}
+		return Double.parseDouble(new String(src, numberStart, pos - numberStart));
 	}
 
 	private ParseException numberError(int start, int end) {
-		return new ParseException("Unsupported number format: " + src.substring(start, end));
+		return new ParseException("Unsupported number format: " + new String(src, start, end - start));
 	}
 
 	private char nextOrNumberError(int numberStart) throws ParseException {
 		if (pos >= length) {
 			throw numberError(numberStart, length);
 		}
-		return src.charAt(pos++);
+		return src[pos++];
 	}
 
 	private void readDigits() {
 		for (; pos < length; ++pos) {
-			char c = src.charAt(pos);
+			char c = src[pos];
 			if (!(c >= '0' && c <= '9')) {
 				break;
 			}
@@ -310,7 +499,7 @@ public class JsonParser {
 	}
 
 	private Boolean readTrue() throws ParseException {
-		if (length - pos < 3 || src.charAt(pos) != 'r' || src.charAt(pos + 1) != 'u' || src.charAt(pos + 2) != 'e') {
+		if (length - pos < 3 || src[pos] != 'r' || src[pos + 1] != 'u' || src[pos + 2] != 'e') {
 			throw new ParseException("Unexpected token: t");
 		}
 		pos += 3;
@@ -318,7 +507,7 @@ public class JsonParser {
 	}
 
 	private Boolean readFalse() throws ParseException {
-		if (length - pos < 4 || src.charAt(pos) != 'a' || src.charAt(pos + 1) != 'l' || src.charAt(pos + 2) != 's' || src.charAt(pos + 3) != 'e') {
+		if (length - pos < 4 || src[pos] != 'a' || src[pos + 1] != 'l' || src[pos + 2] != 's' || src[pos + 3] != 'e') {
 			throw new ParseException("Unexpected token: f");
 		}
 		pos += 4;
@@ -326,7 +515,7 @@ public class JsonParser {
 	}
 
 	private Object readNull() throws ParseException {
-		if (length - pos < 3 || src.charAt(pos) != 'u' || src.charAt(pos + 1) != 'l' || src.charAt(pos + 2) != 'l') {
+		if (length - pos < 3 || src[pos] != 'u' || src[pos + 1] != 'l' || src[pos + 2] != 'l') {
 			throw new ParseException("Unexpected token: n");
 		}
 		pos += 3;
@@ -335,7 +524,7 @@ public class JsonParser {
 
 	private void consumeWhitespace() {
 		while (pos < length) {
-			char c = src.charAt(pos);
+			char c = src[pos];
 			switch (c) {
 				case ' ':
 				case '\t':
@@ -354,7 +543,7 @@ public class JsonParser {
 		if (pos >= length) {
 			throw new ParseException("Expected " + token + " but reached end of stream");
 		}
-		char c = src.charAt(pos++);
+		char c = src[pos++];
 		if (c == token) {
 			return;
 		}
@@ -24,6 +24,14 @@ public class RhinoProperties {
 	public boolean generateMapping;
 	public boolean enableCompiler;
 	public int optimizationLevel;
+	/**
+	 * invoke Java methods and constructors through cached MethodHandles instead of core reflection
+	 */
+	public boolean methodHandleInvoker;
+	/**
+	 * keep an uncompressed copy of decoded Rhizo mappings under the config dir, and memory-map it on later startups
+	 */
+	public boolean mappingCache;
 
 	@ExpectPlatform
 	@Contract(value = " -> _", pure = true)
@@ -67,6 +75,8 @@ public class RhinoProperties {
 			this.generateMapping = get("generateMapping", false);
 			this.enableCompiler = get("enableCompiler", false);
 			this.optimizationLevel = Integer.parseInt(get("optimizationLevel", "1"));
+			this.methodHandleInvoker = get("methodHandleInvoker", true);
+			this.mappingCache = get("mappingCache", true);
 
 			if (writeProperties) {
 				try (Writer writer = Files.newBufferedWriter(propertiesFile)) {
@@ -0,0 +1,126 @@
+package dev.latvian.mods.rhino.mod.remapper;
+
+import lombok.val;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Mappings of a single class, with members stored as sorted parallel arrays instead of map entries.
+ *
+ * @author ZZZank
+ */
+public final class ClassMappings {
+    static final String[] EMPTY = new String[0];
+
+    public final String original;
+    public final String mapped;
+    private final String[] methodNames;
+    private final String[] mappedMethods;
+    private final String[] fieldNames;
+    private final String[] mappedFields;
+
+    /**
+     * @param methodNames sorted in-game method names, and {@code mappedMethods} the mapped names at the same indices
+     * @param fieldNames sorted in-game field names, and {@code mappedFields} the mapped names at the same indices
+     */
+    ClassMappings(
+        String original,
+        String mapped,
+        String[] methodNames,
+        String[] mappedMethods,
+        String[] fieldNames,
+        String[] mappedFields
+    ) {
+        this.original = original;
+        this.mapped = mapped;
+        this.methodNames = methodNames;
+        this.mappedMethods = mappedMethods;
+        this.fieldNames = fieldNames;
+        this.mappedFields = mappedFields;
+    }
+
+    /**
+     * @param methods in-game name and mapped name of methods, alternating, in any order
+     * @param fields in-game name and mapped name of fields, alternating, in any order
+     */
+    static ClassMappings of(String original, String mapped, List<String> methods, List<String> fields) {
+        val sortedMethods = sortPairs(methods);
+        val sortedFields = sortPairs(fields);
+        return new ClassMappings(original, mapped, sortedMethods[0], sortedMethods[1], sortedFields[0], sortedFields[1]);
+    }
+
+    private static String[][] sortPairs(List<String> pairs) {
+        val count = pairs.size() / 2;
+        if (count == 0) {
+            return new String[][]{EMPTY, EMPTY};
+        }
+        val order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing(i -> pairs.get(i * 2)));
+        val keys = new String[count];
+        val values = new String[count];
+        int size = 0;
+        for (val index : order) {
+            val key = pairs.get(index * 2);
+            // overloads sharing an in-game name share the mapped name as well
+            if (size > 0 && keys[size - 1].equals(key)) {
+                continue;
+            }
+            keys[size] = key;
+            values[size] = pairs.get(index * 2 + 1);
+            size++;
+        }
+        return size == count
+            ? new String[][]{keys, values}
+            : new String[][]{Arrays.copyOf(keys, size), Arrays.copyOf(values, size)};
+    }
+
+    /**
+     * @return mapped name of the method, or {@code null} if this class has no mapping for it
+     */
+    public String method(String name) {
+        val index = Arrays.binarySearch(methodNames, name);
+        return index < 0 ? null : mappedMethods[index];
+    }
+
+    /**
+     * @return mapped name of the field, or {@code null} if this class has no mapping for it
+     */
+    public String field(String name) {
+        val index = Arrays.binarySearch(fieldNames, name);
+        return index < 0 ? null : mappedFields[index];
+    }
+
+    public int methodCount() {
+        return methodNames.length;
+    }
+
+    public int fieldCount() {
+        return fieldNames.length;
+    }
+
+    public String methodName(int index) {
+        return methodNames[index];
+    }
+
+    public String mappedMethod(int index) {
+        return mappedMethods[index];
+    }
+
+    public String fieldName(int index) {
+        return fieldNames[index];
+    }
+
+    public String mappedField(int index) {
+        return mappedFields[index];
+    }
+
+    @Override
+    public String toString() {
+        return original + "->" + mapped + "[" + methodNames.length + " methods, " + fieldNames.length + " fields]";
+    }
+}
@@ -49,8 +49,13 @@ public interface MappingIO {
     static String readUtf(InputStream stream) throws IOException {
         byte[] bytes = new byte[readVarInt(stream)];
 
-        for (int i = 0; i < bytes.length; i++) {
-            bytes[i] = (byte) stream.read();
+        int read = 0;
+        while (read < bytes.length) {
+            val count = stream.read(bytes, read, bytes.length - read);
+            if (count < 0) {
+                throw new EOFException();
+            }
+            read += count;
         }
 
         return new String(bytes, StandardCharsets.UTF_8);
@@ -0,0 +1,119 @@
+package dev.latvian.mods.rhino.mod.remapper;
+
+import dev.latvian.mods.rhino.util.remapper.RemapperException;
+import lombok.val;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Decodes the format written by {@link MappingIO#writeVarInt(java.io.OutputStream, int)} and
+ * {@link MappingIO#writeUtf(java.io.OutputStream, String)} from a {@link ByteBuffer}, which can be backed by a byte
+ * array or a memory-mapped file.
+ * <p>
+ * Decoded strings are pooled, so that names shared by many members, like method names of overridden methods, are
+ * only kept once.
+ *
+ * @author ZZZank
+ */
+public class MappingReader {
+
+    private final ByteBuffer buffer;
+    private final Map<String, String> pool;
+    private byte[] scratch = new byte[64];
+
+    public MappingReader(ByteBuffer buffer) {
+        this(buffer, 1024);
+    }
+
+    public MappingReader(ByteBuffer buffer, int expectedStrings) {
+        this.buffer = buffer;
+        this.pool = new HashMap<>(expectedStrings * 4 / 3 + 1);
+    }
+
+    /**
+     * Read all bytes of {@code in} into a reader, {@code in} is not closed
+     */
+    public static MappingReader readFully(InputStream in) throws IOException {
+        var bytes = new byte[1 << 16];
+        int size = 0;
+        int read;
+        while ((read = in.read(bytes, size, bytes.length - size)) >= 0) {
+            size += read;
+            if (size == bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length << 1);
+            }
+        }
+        return new MappingReader(ByteBuffer.wrap(bytes, 0, size));
+    }
+
+    public boolean hasRemaining() {
+        return buffer.hasRemaining();
+    }
+
+    public int readByte() {
+        return buffer.get() & 0xFF;
+    }
+
+    public int readInt() {
+        return buffer.getInt();
+    }
+
+    public long readLong() {
+        return buffer.getLong();
+    }
+
+    public int readVarInt() {
+        int i = 0;
+        int j = 0;
+
+        byte b;
+        do {
+            b = buffer.get();
+            i |= (b & 127) << j++ * 7;
+            if (j > 5) {
+                throw new RemapperException("VarInt too big");
+            }
+        } while ((b & 128) == 128);
+
+        return i;
+    }
+
+    public String readUtf() {
+        val length = readVarInt();
+        if (length == 0) {
+            return "";
+        }
+
+        String decoded;
+        if (buffer.hasArray()) {
+            val offset = buffer.arrayOffset() + buffer.position();
+            decoded = decode(buffer.array(), offset, length);
+            buffer.position(buffer.position() + length);
+        } else {
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length << 1)];
+            }
+            buffer.get(scratch, 0, length);
+            decoded = decode(scratch, 0, length);
+        }
+
+        val pooled = pool.putIfAbsent(decoded, decoded);
+        return pooled == null ? decoded : pooled;
+    }
+
+    private static String decode(byte[] bytes, int offset, int length) {
+        for (int i = offset, end = offset + length; i < end; i++) {
+            if (bytes[i] < 0) {
+                return new String(bytes, offset, length, StandardCharsets.UTF_8);
+            }
+        }
+        // names in mappings are almost always ASCII, which Latin-1 decodes without validating
+        return new String(bytes, offset, length, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -4,7 +4,6 @@ import lombok.val;
 import net.neoforged.srgutils.IMappingFile;
 
 import java.io.IOException;
-import java.util.Map;
 import java.util.regex.Pattern;
 
 /**
@@ -17,9 +16,11 @@ public class MappingTester {
         }
         val remapper = RhizoRemapper.instance();
 
-        printSome(remapper.mappingC, 3);
-        printSome(remapper.mappingF, 5);
-        printSome(remapper.mappingM, 5);
+        remapper.mappings.values()
+            .stream()
+            .filter(m -> m.methodCount() > 0 && m.fieldCount() > 0)
+            .limit(3)
+            .forEach(MappingTester::printSome);
     }
 
     private static void println(String line) {
@@ -27,12 +28,14 @@ public class MappingTester {
         System.out.print('\n');
     }
 
-    private static void printSome(Map<String, String> mapping, int limit) {
-        mapping.entrySet()
-            .stream()
-            .limit(limit)
-            .map(e -> e.getKey() + "->" + e.getValue())
-            .forEach(MappingTester::println);
+    private static void printSome(ClassMappings mapping) {
+        println(mapping.original + "->" + mapping.mapped);
+        for (int i = 0; i < Math.min(mapping.fieldCount(), 5); i++) {
+            println("    " + mapping.fieldName(i) + "->" + mapping.mappedField(i));
+        }
+        for (int i = 0; i < Math.min(mapping.methodCount(), 5); i++) {
+            println("    " + mapping.methodName(i) + "->" + mapping.mappedMethod(i));
+        }
     }
 
     public static class MappingTransformerForge implements MappingTransformer {
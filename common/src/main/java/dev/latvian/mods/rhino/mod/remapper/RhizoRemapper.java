@@ -1,17 +1,21 @@
 package dev.latvian.mods.rhino.mod.remapper;
 
-import com.google.common.collect.ImmutableMap;
 import dev.latvian.mods.rhino.mod.RhinoProperties;
 import dev.latvian.mods.rhino.util.remapper.Remapper;
 import dev.latvian.mods.rhino.util.remapper.RemapperException;
 import lombok.val;
 
-import java.io.InputStream;
+import java.io.*;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32;
 import java.util.zip.GZIPInputStream;
 
 import static dev.latvian.mods.rhino.mod.remapper.RhizoMappingGen.SKIP_MARK;
@@ -23,98 +27,263 @@ public class RhizoRemapper implements Remapper {
 
     private static RhizoRemapper INSTANCE = null;
 
-    public final Map<String, String> mappingC; //class mapping
+    /**
+     * decoded mappings, see {@link RhinoProperties#mappingCache}
+     */
+    public static final String CACHE_FILENAME = RhizoMappingGen.MAPPING_FILENAME + ".cache";
+    private static final int CACHE_MARK = 0x52485a43; // RHZC
+    private static final int CACHE_VERSION = 2;
+    private static final int CACHE_HEADER_SIZE = 4 + 4 + 4 + 8 + 4;
+
+    /**
+     * in-game class name -> mappings of that class and its members
+     */
+    public final Map<String, ClassMappings> mappings;
     public final Map<String, String> unmappingC; //class mapping
-    public final Map<String, String> mappingM; //method mapping
-    public final Map<String, String> mappingF; //field mapping
+    /**
+     * mappings of a class and all its supertypes that have mappings, in lookup order
+     */
+    private final ClassValue<ClassMappings[]> hierarchies = new ClassValue<ClassMappings[]>() {
+        @Override
+        protected ClassMappings[] computeValue(Class<?> type) {
+            return collectHierarchy(type);
+        }
+    };
 
     private RhizoRemapper() {
-        val builderMappingC = new HashMap<String, String>();
-        val builderUnmappingC = new HashMap<String, String>();
-        val builderMappingM = new HashMap<String, String>();
-        val builderMappingF = new HashMap<String, String>();
         val transformer = MappingTransformer.get();
         if (transformer == null) {
-            mappingC = ImmutableMap.of();
-            unmappingC = ImmutableMap.of();
-            mappingM = ImmutableMap.of();
-            mappingF = ImmutableMap.of();
+            mappings = Collections.emptyMap();
+            unmappingC = Collections.emptyMap();
             return;
         }
+        Tables tables = null;
         //load
-        try (val in = locateMappingFile()) {
-            if (in == null) {
+        try {
+            val source = locateMappingFile();
+            if (source == null) {
                 throw new RemapperException("No Rhizo mapping file available!");
             }
-            if (in.read() != RhizoMappingGen.MAPPING_MARK) {
-                throw new RemapperException("Invalid Rhizo mapping file!");
-            }
-            {
-                val version = in.read();
-                if (version != RhizoMappingGen.MAPPING_VERSION) {
-                    throw new RemapperException(String.format(
-                        "Rhizo mapping file version %d not matching expected version %d",
-                        version,
-                        RhizoMappingGen.MAPPING_VERSION
-                    ));
+            val cachePath = RhinoProperties.INSTANCE.mappingCache
+                ? RhinoProperties.getGameDir().resolve("config/" + CACHE_FILENAME)
+                : null;
+            val checksum = checksum(source);
+            val transformerHash = transformer.getClass().getName().hashCode();
+            if (cachePath != null) {
+                tables = readCache(cachePath, checksum, transformerHash);
+            }
+            if (tables == null) {
+                tables = decode(source, transformer);
+                if (cachePath != null) {
+                    writeCache(cachePath, checksum, transformerHash, tables);
                 }
             }
-            MappingIO.LOGGER.info("Loading mappings for {}", MappingIO.readUtf(in));
-            //class
-            val classCount = MappingIO.readVarInt(in);
-            for (int i = 0; i < classCount; i++) {
-                val originalC = MappingIO.readUtf(in);
-                if (SKIP_MARK.equals(originalC)) {
+        } catch (Exception e) {
+            MappingIO.LOGGER.error("Exception happened during Rhizo Minecraft remapper initialization!", e);
+        }
+        if (tables == null) {
+            tables = new Tables(0);
+        }
+        mappings = Collections.unmodifiableMap(tables.classes);
+        unmappingC = Collections.unmodifiableMap(tables.unmappedClasses);
+    }
+
+    private static Tables decode(byte[] source, MappingTransformer transformer) throws IOException {
+        final MappingReader in;
+        try (val gzip = new GZIPInputStream(new ByteArrayInputStream(source), 1 << 16)) {
+            in = MappingReader.readFully(gzip);
+        }
+        if (in.readByte() != RhizoMappingGen.MAPPING_MARK) {
+            throw new RemapperException("Invalid Rhizo mapping file!");
+        }
+        {
+            val version = in.readByte();
+            if (version != RhizoMappingGen.MAPPING_VERSION) {
+                throw new RemapperException(String.format(
+                    "Rhizo mapping file version %d not matching expected version %d",
+                    version,
+                    RhizoMappingGen.MAPPING_VERSION
+                ));
+            }
+        }
+        MappingIO.LOGGER.info("Loading mappings for {}", in.readUtf());
+        //class
+        val classCount = in.readVarInt();
+        val tables = new Tables(classCount);
+        val methods = new ArrayList<String>();
+        val fields = new ArrayList<String>();
+        for (int i = 0; i < classCount; i++) {
+            val originalC = in.readUtf();
+            if (SKIP_MARK.equals(originalC)) {
+                continue;
+            }
+            val mappedC = in.readUtf();
+            //method
+            methods.clear();
+            val methodCount = in.readVarInt();
+            for (int j = 0; j < methodCount; j++) {
+                val originalM = in.readUtf();
+                if (SKIP_MARK.equals(originalM)) {
                     continue;
                 }
-                val mappedC = MappingIO.readUtf(in);
-                builderMappingC.put(originalC, mappedC);
-                builderUnmappingC.put(mappedC, originalC);
-                //method
-                val methodCount = MappingIO.readVarInt(in);
-                for (int j = 0; j < methodCount; j++) {
-                    val originalM = MappingIO.readUtf(in);
-                    if (SKIP_MARK.equals(originalM)) {
-                        continue;
-                    }
-                    val mappedM = MappingIO.readUtf(in);
-                    builderMappingM.put(transformer.restoreMethod(originalM), mappedM);
+                methods.add(transformer.restoreMethod(originalM));
+                methods.add(in.readUtf());
+            }
+            //field
+            fields.clear();
+            val fieldCount = in.readVarInt();
+            for (int j = 0; j < fieldCount; j++) {
+                val originalF = in.readUtf();
+                if (SKIP_MARK.equals(originalF)) {
+                    continue;
                 }
-                //field
-                val fieldCount = MappingIO.readVarInt(in);
-                for (int j = 0; j < fieldCount; j++) {
-                    val originalF = MappingIO.readUtf(in);
-                    if (SKIP_MARK.equals(originalF)) {
-                        continue;
+                fields.add(transformer.restoreField(originalF));
+                fields.add(in.readUtf());
+            }
+            tables.add(ClassMappings.of(originalC, mappedC, methods, fields));
+        }
+        return tables;
+    }
+
+    /**
+     * @return decoded tables, or {@code null} if there's no cache, or it's not made from the current mapping file
+     */
+    private static Tables readCache(Path path, long checksum, int transformerHash) {
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try (val channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            val header = ByteBuffer.allocate(CACHE_HEADER_SIZE);
+            if (channel.size() < CACHE_HEADER_SIZE || channel.read(header, 0) != CACHE_HEADER_SIZE) {
+                return null;
+            }
+            header.flip();
+            if (header.getInt() != CACHE_MARK
+                || header.getInt() != CACHE_VERSION
+                || header.getInt() != RhizoMappingGen.MAPPING_VERSION
+                || header.getLong() != checksum
+                || header.getInt() != transformerHash
+            ) {
+                return null;
+            }
+            val in = new MappingReader(channel.map(
+                FileChannel.MapMode.READ_ONLY,
+                CACHE_HEADER_SIZE,
+                channel.size() - CACHE_HEADER_SIZE
+            ));
+            val classCount = in.readVarInt();
+            val tables = new Tables(classCount);
+            for (int i = 0; i < classCount; i++) {
+                val original = in.readUtf();
+                val mapped = in.readUtf();
+                val methodNames = readStrings(in);
+                val mappedMethods = readStrings(in, methodNames.length);
+                val fieldNames = readStrings(in);
+                val mappedFields = readStrings(in, fieldNames.length);
+                tables.add(new ClassMappings(original, mapped, methodNames, mappedMethods, fieldNames, mappedFields));
+            }
+            MappingIO.LOGGER.info("Loaded decoded Rhizo mappings from config/{}.", CACHE_FILENAME);
+            return tables;
+        } catch (Exception e) {
+            MappingIO.LOGGER.warn("Unable to read Rhizo mapping cache, mappings will be decoded again", e);
+            return null;
+        }
+    }
+
+    private static void writeCache(Path path, long checksum, int transformerHash, Tables tables) {
+        Path temp = null;
+        try {
+            Files.createDirectories(path.getParent());
+            temp = Files.createTempFile(path.getParent(), CACHE_FILENAME, ".tmp");
+            try (val out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+                out.writeInt(CACHE_MARK);
+                out.writeInt(CACHE_VERSION);
+                out.writeInt(RhizoMappingGen.MAPPING_VERSION);
+                out.writeLong(checksum);
+                out.writeInt(transformerHash);
+                MappingIO.writeVarInt(out, tables.classes.size());
+                for (val mapping : tables.classes.values()) {
+                    MappingIO.writeUtf(out, mapping.original);
+                    MappingIO.writeUtf(out, mapping.mapped);
+                    MappingIO.writeVarInt(out, mapping.methodCount());
+                    for (int i = 0; i < mapping.methodCount(); i++) {
+                        MappingIO.writeUtf(out, mapping.methodName(i));
+                    }
+                    for (int i = 0; i < mapping.methodCount(); i++) {
+                        MappingIO.writeUtf(out, mapping.mappedMethod(i));
+                    }
+                    MappingIO.writeVarInt(out, mapping.fieldCount());
+                    for (int i = 0; i < mapping.fieldCount(); i++) {
+                        MappingIO.writeUtf(out, mapping.fieldName(i));
+                    }
+                    for (int i = 0; i < mapping.fieldCount(); i++) {
+                        MappingIO.writeUtf(out, mapping.mappedField(i));
                     }
-                    val mappedF = MappingIO.readUtf(in);
-                    builderMappingF.put(transformer.restoreField(originalF), mappedF);
                 }
             }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
         } catch (Exception e) {
-            MappingIO.LOGGER.error("Exception happened during Rhizo Minecraft remapper initialization!", e);
+            MappingIO.LOGGER.warn("Unable to write Rhizo mapping cache", e);
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                }
+            }
         }
-        mappingC = ImmutableMap.copyOf(builderMappingC);
-        unmappingC = ImmutableMap.copyOf(builderUnmappingC);
-        mappingM = ImmutableMap.copyOf(builderMappingM);
-        mappingF = ImmutableMap.copyOf(builderMappingF);
     }
 
-    private static InputStream locateMappingFile() {
+    private static String[] readStrings(MappingReader in) {
+        return readStrings(in, in.readVarInt());
+    }
+
+    private static String[] readStrings(MappingReader in, int count) {
+        if (count == 0) {
+            return ClassMappings.EMPTY;
+        }
+        val strings = new String[count];
+        for (int i = 0; i < count; i++) {
+            strings[i] = in.readUtf();
+        }
+        return strings;
+    }
+
+    private static long checksum(byte[] bytes) {
+        val crc = new CRC32();
+        crc.update(bytes, 0, bytes.length);
+        return crc.getValue();
+    }
+
+    /**
+     * @return compressed content of the mapping file
+     */
+    private static byte[] locateMappingFile() {
         val cfgPath = RhinoProperties.getGameDir().resolve("config/" + RhizoMappingGen.MAPPING_FILENAME);
         try {
             if (Files.exists(cfgPath)) {
                 MappingIO.LOGGER.info("Found Rhizo mapping file from config/{}.", RhizoMappingGen.MAPPING_FILENAME);
-                return new GZIPInputStream(Files.newInputStream(cfgPath));
+                return Files.readAllBytes(cfgPath);
+            }
+            try (val in = RhinoProperties.openResource(RhizoMappingGen.MAPPING_FILENAME)) {
+                val bytes = readAllBytes(in);
+                MappingIO.LOGGER.info("Found Rhizo mapping file from Rhizo mod jar.");
+                return bytes;
             }
-            val in = new GZIPInputStream(RhinoProperties.openResource(RhizoMappingGen.MAPPING_FILENAME));
-            MappingIO.LOGGER.info("Found Rhizo mapping file from Rhizo mod jar.");
-            return in;
         } catch (Exception e) {
             return null;
         }
     }
 
+    private static byte[] readAllBytes(InputStream in) throws IOException {
+        val out = new ByteArrayOutputStream(1 << 16);
+        val buffer = new byte[1 << 14];
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
     public static RhizoRemapper instance() {
         if (INSTANCE == null) {
             long start = System.currentTimeMillis();
@@ -124,9 +293,33 @@ public class RhizoRemapper implements Remapper {
         return INSTANCE;
     }
 
+    private ClassMappings[] collectHierarchy(Class<?> type) {
+        val collected = new LinkedHashSet<ClassMappings>();
+        val visited = new HashSet<Class<?>>();
+        val queue = new ArrayDeque<Class<?>>();
+        queue.add(type);
+        while (!queue.isEmpty()) {
+            val current = queue.poll();
+            if (!visited.add(current)) {
+                continue;
+            }
+            val mapping = mappings.get(current.getName());
+            if (mapping != null) {
+                collected.add(mapping);
+            }
+            val parent = current.getSuperclass();
+            if (parent != null && parent != Object.class) {
+                queue.add(parent);
+            }
+            queue.addAll(Arrays.asList(current.getInterfaces()));
+        }
+        return collected.toArray(new ClassMappings[0]);
+    }
+
     @Override
     public String remapClass(Class<?> from) {
-        return mappingC.getOrDefault(from.getName(), NOT_REMAPPED);
+        val mapping = mappings.get(from.getName());
+        return mapping == null ? NOT_REMAPPED : mapping.mapped;
     }
 
     @Override
@@ -136,11 +329,66 @@ public class RhizoRemapper implements Remapper {
 
     @Override
     public String remapField(Class<?> from, Field field) {
-        return mappingF.getOrDefault(field.getName(), NOT_REMAPPED);
+        return remapField(hierarchies.get(from), field.getName());
     }
 
     @Override
     public String remapMethod(Class<?> from, Method method) {
-        return mappingM.getOrDefault(method.getName(), NOT_REMAPPED);
+        return remapMethod(hierarchies.get(from), method.getName());
+    }
+
+    @Override
+    public String[] remapFields(Class<?> from, Field[] fields) {
+        val hierarchy = hierarchies.get(from);
+        val remapped = new String[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            remapped[i] = remapField(hierarchy, fields[i].getName());
+        }
+        return remapped;
+    }
+
+    @Override
+    public String[] remapMethods(Class<?> from, Method[] methods) {
+        val hierarchy = hierarchies.get(from);
+        val remapped = new String[methods.length];
+        for (int i = 0; i < methods.length; i++) {
+            remapped[i] = remapMethod(hierarchy, methods[i].getName());
+        }
+        return remapped;
+    }
+
+    private static String remapField(ClassMappings[] hierarchy, String name) {
+        for (val mapping : hierarchy) {
+            val mapped = mapping.field(name);
+            if (mapped != null) {
+                return mapped;
+            }
+        }
+        return NOT_REMAPPED;
+    }
+
+    private static String remapMethod(ClassMappings[] hierarchy, String name) {
+        for (val mapping : hierarchy) {
+            val mapped = mapping.method(name);
+            if (mapped != null) {
+                return mapped;
+            }
+        }
+        return NOT_REMAPPED;
+    }
+
+    private static final class Tables {
+        final Map<String, ClassMappings> classes;
+        final Map<String, String> unmappedClasses;
+
+        Tables(int classCount) {
+            this.classes = new HashMap<>(classCount * 4 / 3 + 1);
+            this.unmappedClasses = new HashMap<>(classCount * 4 / 3 + 1);
+        }
+
+        void add(ClassMappings mapping) {
+            classes.put(mapping.original, mapping);
+            unmappedClasses.put(mapping.mapped, mapping.original);
+        }
     }
 }
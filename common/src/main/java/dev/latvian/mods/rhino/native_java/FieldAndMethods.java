@@ -5,17 +5,37 @@ import dev.latvian.mods.rhino.ScriptRuntime;
 import dev.latvian.mods.rhino.Scriptable;
 import lombok.val;
 
+/**
+ * A field and method(s) sharing the same name.
+ * <p>
+ * {@link JavaMembers} holds one shared template per name, wrappers of Java objects bind their own copy with
+ * {@link #bind(Scriptable, Object)} only when the member is actually accessed.
+ */
 public final class FieldAndMethods extends NativeJavaMethod {
     final NativeJavaField field;
+    /**
+     * position of this member in its {@link JavaMembers}, shared by the template and its bound copies
+     */
+    public final int index;
     Object javaObject;
 
-    FieldAndMethods(Scriptable scope, NativeJavaMethod methods, NativeJavaField field) {
+    FieldAndMethods(Scriptable scope, NativeJavaMethod methods, NativeJavaField field, int index) {
         super(methods.methods, methods.functionName);
         this.field = field;
+        this.index = index;
         setParentScope(scope);
         setPrototype(getFunctionPrototype(scope));
     }
 
+    /**
+     * @return a copy of this member whose field value is read from {@code javaObject}
+     */
+    public FieldAndMethods bind(Scriptable scope, Object javaObject) {
+        val bound = new FieldAndMethods(scope, this, field, index);
+        bound.javaObject = javaObject;
+        return bound;
+    }
+
     @Override
     public Object getDefaultValue(Class<?> hint) {
         if (hint == ScriptRuntime.FunctionClass) {
@@ -11,12 +11,12 @@ import dev.latvian.mods.rhino.native_java.info.MethodInfo;
 import dev.latvian.mods.rhino.native_java.info.MethodSignature;
 import dev.latvian.mods.rhino.native_java.type.info.TypeInfo;
 import dev.latvian.mods.rhino.util.HideFromJS;
+import dev.latvian.mods.rhino.util.remapper.Remapper;
 import lombok.*;
 import org.jetbrains.annotations.NotNull;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
-import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.*;
 
@@ -33,8 +33,7 @@ public final class JavaMembers {
     private final Map<String, Object> members = new HashMap<>();
     private final Map<String, Object> staticMembers = new HashMap<>();
     public final NativeJavaMethod ctors; // we use NativeJavaMethod for ctor overload resolution
-    private final Map<String, FieldAndMethods> fieldAndMethods = new HashMap<>();
-    private final Map<String, FieldAndMethods> staticFieldAndMethods = new HashMap<>();
+    private int fieldAndMethodsCount;
 
     /**
      * @deprecated use {@link ReflectsKit#javaSignature(Class)} instead
@@ -188,27 +187,21 @@ public final class JavaMembers {
             return;
         }
 
-        // We reflect methods first, because we want overloaded field/method
+        // Reflection itself is shared between Contexts, only the scope-bound wrappers are created here
+        val reflected = JavaMembersCache.get(clazz, cx.getRemapper(), includeProtected);
+
+        // We wrap methods first, because we want overloaded field/method
         // names to be allocated to the NativeJavaMethod before the field
         // gets in the way.
-        reflectMethods(cx, includeProtected);
-
-        // replace Method instances by wrapped NativeJavaMethod objects
-        // first in staticMembers and then in members
-        wrapReflectedMethods(scope, clazz);
+        wrapReflectedMethods(scope, reflected);
 
         // Reflect fields.
-        reflectFields(cx, scope, clazz, includeProtected);
+        reflectFields(scope, reflected);
 
         createBeaning();
 
         // Reflect constructors
-        val constructors = accessConstructors();
-        val ctorMembers = new MemberBox[constructors.size()];
-        for (int i = 0; i != constructors.size(); ++i) {
-            ctorMembers[i] = new MemberBox(constructors.get(i), clazz);
-        }
-        ctors = new NativeJavaMethod(ctorMembers, this.clazz.getSimpleName());
+        ctors = new NativeJavaMethod(reflected.ctors, this.clazz.getSimpleName());
     }
 
     public boolean has(String name, boolean isStatic) {
@@ -483,6 +476,10 @@ public final class JavaMembers {
     }
 
     public List<Constructor<?>> accessConstructors() {
+        return accessConstructors(clazz);
+    }
+
+    static List<Constructor<?>> accessConstructors(Class<?> clazz) {
         List<Constructor<?>> constructorsList = new ArrayList<>();
 
         for (val c : ReflectsKit.getConstructorsSafe(clazz)) {
@@ -498,8 +495,11 @@ public final class JavaMembers {
     }
 
     public LinkedHashMap<String, Field> accessFields(Context cx, boolean includeProtected) {
+        return accessFields(clazz, cx.getRemapper(), includeProtected);
+    }
+
+    static LinkedHashMap<String, Field> accessFields(Class<?> clazz, Remapper remapper, boolean includeProtected) {
         val fieldMap = new LinkedHashMap<String, Field>();
-        val remapper = cx.getRemapper();
 
         try {
             Class<?> currentClass = clazz;
@@ -508,19 +508,18 @@ public final class JavaMembers {
                 // get all declared fields in this class, make them
                 // accessible, and save
 
-                for (val field : ReflectsKit.getDeclaredFieldsSafe(currentClass)) {
+                val declared = JavaMembersCache.declared(currentClass, remapper);
+                for (int i = 0; i < declared.fields.length; i++) {
+                    val field = declared.fields[i];
                     val mods = field.getModifiers();
-                    if (Modifier.isTransient(mods)
-                        || !(Modifier.isPublic(mods) || (includeProtected && Modifier.isProtected(mods)))
-                        || field.isAnnotationPresent(HideFromJS.class)
-                    ) {
+                    if (!(Modifier.isPublic(mods) || (includeProtected && Modifier.isProtected(mods)))) {
                         continue;
                     }
                     val accessible = Modifier.isPublic(mods) || VMBridge.vm.tryToMakeAccessible(field);
                     if (!accessible) {
                         continue;
                     }
-                    fieldMap.putIfAbsent(remapper.remapFieldSafe(currentClass, field), field);
+                    fieldMap.putIfAbsent(declared.fieldNames[i], field);
                 }
 
                 // walk up superclass chain.  no need to deal specially with
@@ -534,11 +533,9 @@ public final class JavaMembers {
         return fieldMap;
     }
 
-    private void reflectFields(Context cx, Scriptable scope, Class<?> clazz, boolean includeProtected) {
-        for (val entry : accessFields(cx, includeProtected).entrySet()) {
-            val name = entry.getKey();
-
-            val f = new NativeJavaField(entry.getValue(), clazz, name);
+    private void reflectFields(Scriptable scope, JavaMembersCache.Entry reflected) {
+        for (val f : reflected.fields) {
+            val name = f.name;
 
             val ht = membersMap(f.isStatic);
             try {
@@ -546,10 +543,7 @@ public final class JavaMembers {
                 if (existed == null) {
                     ht.put(name, f);
                 } else if (existed instanceof NativeJavaMethod method) {
-                    val fam = new FieldAndMethods(scope, method, f);
-                    val fmht = f.isStatic ? staticFieldAndMethods : fieldAndMethods;
-                    fmht.put(name, fam);
-                    ht.put(name, fam);
+                    ht.put(name, new FieldAndMethods(scope, method, f, fieldAndMethodsCount++));
                 } else if (existed instanceof NativeJavaField oldField) {
                     // If this newly reflected field shadows an inherited field,
                     // then replace it. Otherwise, since access to the field
@@ -583,31 +577,13 @@ public final class JavaMembers {
         return isStatic ? staticMembers : members;
     }
 
-    private void wrapReflectedMethods(Scriptable scope, Class<?> clazz) {
+    private void wrapReflectedMethods(Scriptable scope, JavaMembersCache.Entry reflected) {
         for (int tableCursor = 0; tableCursor != 2; ++tableCursor) {
             val isStatic = (tableCursor == 0);
             val ht = membersMap(isStatic);
-            for (val entry : ht.entrySet()) {
+            for (val entry : (isStatic ? reflected.staticMethods : reflected.methods).entrySet()) {
                 val name = entry.getKey();
-                val methodRaw = entry.getValue();
-
-                MemberBox[] methodBoxes;
-                if (methodRaw instanceof Method method) {
-                    methodBoxes = new MemberBox[]{new MemberBox(method, clazz)};
-                } else if (methodRaw instanceof List<?>){
-                    val overloadedMethods = (List<Method>) methodRaw;
-                    val N = overloadedMethods.size();
-                    if (N < 2) {
-                        Kit.codeBug();
-                    }
-                    methodBoxes = new MemberBox[N];
-                    for (int i = 0; i != N; ++i) {
-                        methodBoxes[i] = new MemberBox(overloadedMethods.get(i), clazz);
-                    }
-                } else {
-                    throw Kit.codeBug();
-                }
-                val fun = new NativeJavaMethod(methodBoxes, name);
+                val fun = new NativeJavaMethod(entry.getValue(), name);
                 if (scope != null) {
                     ScriptRuntime.setFunctionProtoAndParent(fun, scope);
                 }
@@ -616,51 +592,22 @@ public final class JavaMembers {
         }
     }
 
-    private void reflectMethods(Context cx, boolean includeProtected) {
-        for (val info : accessMethods(cx, includeProtected)) {
-            if (info.hidden) {
-                continue;
-            }
-            val method = info.method;
-            val modifiers = method.getModifiers();
-            val isStatic = Modifier.isStatic(modifiers);
-            val ht = membersMap(isStatic);
-            val name = info.sig.name();
-
-            val value = ht.get(name);
-            if (value == null) {
-                ht.put(name, method);
-            } else if (value instanceof Method m) {
-                val overloads = new ArrayList<Method>(3);
-                overloads.add(m);
-                overloads.add(method);
-                ht.put(name, overloads);
-            } else if (value instanceof List overloads) {
-                overloads.add(method);
-            } else {
-                throw Kit.codeBug();
-            }
-        }
-    }
-
-    private Collection<MethodInfo> accessMethods(Context cx, boolean includeProtected) {
+    static Collection<MethodInfo> accessMethods(Class<?> clazz, Remapper remapper, boolean includeProtected) {
         val methodMap = new LinkedHashMap<MethodSignature, MethodInfo>();
-        val remapper = cx.getRemapper();
         val stack = new ArrayDeque<Class<?>>();
         stack.add(clazz);
 
         while (!stack.isEmpty()) {
             val currentClass = stack.pop();
 
-            for (val method : ReflectsKit.getDeclaredMethodsSafe(currentClass)) {
+            val declared = JavaMembersCache.declared(currentClass, remapper);
+            for (int i = 0; i < declared.methods.length; i++) {
+                val method = declared.methods[i];
                 val mods = method.getModifiers();
                 if (!(Modifier.isPublic(mods) || (includeProtected && Modifier.isProtected(mods)))) {
                     continue;
                 }
-                val signature = new MethodSignature(
-                    remapper.remapMethodSafe(currentClass, method),
-                    method.getParameterTypes()
-                );
+                val signature = new MethodSignature(declared.methodNames[i], method.getParameterTypes());
 
                 var info = methodMap.get(signature);
                 if (info == null) {
@@ -672,7 +619,7 @@ public final class JavaMembers {
                     methodMap.put(signature, info);
                 }
 
-                info.hidden |= method.isAnnotationPresent(HideFromJS.class);
+                info.hidden |= declared.hiddenMethods[i];
             }
 
             stack.addAll(Arrays.asList(currentClass.getInterfaces()));
@@ -685,13 +632,24 @@ public final class JavaMembers {
         return methodMap.values();
     }
 
+    /**
+     * @return the number of {@link FieldAndMethods} templates, static and non-static, in this class
+     * @see FieldAndMethods#index
+     */
+    public int getFieldAndMethodsCount() {
+        return fieldAndMethodsCount;
+    }
+
+    /**
+     * @deprecated wrappers now bind {@link FieldAndMethods} lazily, see {@link FieldAndMethods#bind(Scriptable, Object)}
+     */
+    @Deprecated
     public Map<String, FieldAndMethods> getFieldAndMethodsObjects(Scriptable scope, Object javaObject, boolean isStatic) {
-        val ht = isStatic ? staticFieldAndMethods : fieldAndMethods;
-        Map<String, FieldAndMethods> result = new HashMap<>(ht.size());
-        for (val fam : ht.values()) {
-            val famNew = new FieldAndMethods(scope, fam, fam.field);
-            famNew.javaObject = javaObject;
-            result.put(fam.functionName, famNew);
+        Map<String, FieldAndMethods> result = new HashMap<>(fieldAndMethodsCount);
+        for (val member : membersMap(isStatic).values()) {
+            if (member instanceof FieldAndMethods fam) {
+                result.put(fam.functionName, fam.bind(scope, javaObject));
+            }
         }
         return result;
     }
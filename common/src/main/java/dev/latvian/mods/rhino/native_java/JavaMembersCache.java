@@ -0,0 +1,235 @@
+package dev.latvian.mods.rhino.native_java;
+
+import dev.latvian.mods.rhino.Context;
+import dev.latvian.mods.rhino.util.HideFromJS;
+import dev.latvian.mods.rhino.util.remapper.Remapper;
+import lombok.val;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Process-wide cache of reflected Java members, shared by all {@link Context}s.
+ * <p>
+ * {@link JavaMembers} is bound to the Context and scope it is created in, so it cannot be shared directly. The
+ * expensive part of building it, walking the class hierarchy, remapping member names and creating {@link MemberBox}es,
+ * depends on neither, and is cached here instead. Each Context then only needs to wrap these shared members.
+ * <p>
+ * Entries are stored in a {@link ClassValue}, so the cache never keeps a reflected class, or its class loader, alive.
+ *
+ * @author ZZZank
+ * @see Context#classTable
+ */
+public final class JavaMembersCache {
+
+    private static volatile boolean cachingEnabled = true;
+    private static final AtomicInteger GENERATION = new AtomicInteger();
+    private static final ClassValue<Holder> CACHE = new ClassValue<Holder>() {
+        @Override
+        protected Holder computeValue(Class<?> type) {
+            return new Holder();
+        }
+    };
+
+    private JavaMembersCache() {
+    }
+
+    /**
+     * Check if reflected Java members are shared between Contexts.
+     */
+    public static boolean isCachingEnabled() {
+        return cachingEnabled;
+    }
+
+    /**
+     * Set whether reflected Java members are shared between Contexts.
+     * <p>
+     * If caching is disabled, every {@link JavaMembers} will reflect its class again, which is how the engine behaves
+     * without this cache. Disabling caching also invalidates all existing entries.
+     * <p>
+     * Caching is enabled by default.
+     *
+     * @param enabled if true, caching is enabled
+     * @see #invalidateAll()
+     */
+    public static void setCachingEnabled(boolean enabled) {
+        if (!enabled) {
+            invalidateAll();
+        }
+        cachingEnabled = enabled;
+    }
+
+    /**
+     * Invalidate all cached entries, for example after the mappings used by a {@link Remapper} changed.
+     * <p>
+     * Entries are rebuilt lazily. {@link JavaMembers} already cached by a Context are not affected.
+     */
+    public static void invalidateAll() {
+        GENERATION.incrementAndGet();
+    }
+
+    /**
+     * Invalidate cached entries of a single class.
+     */
+    public static void invalidate(Class<?> type) {
+        CACHE.remove(type);
+    }
+
+    static Entry get(Class<?> type, Remapper remapper, boolean includeProtected) {
+        if (!cachingEnabled) {
+            return new Entry(type, remapper, includeProtected, -1);
+        }
+        val generation = GENERATION.get();
+        val holder = CACHE.get(type);
+        var entry = includeProtected ? holder.withProtected : holder.publicOnly;
+        if (entry == null || entry.remapper != remapper || entry.generation != generation) {
+            entry = new Entry(type, remapper, includeProtected, generation);
+            if (includeProtected) {
+                holder.withProtected = entry;
+            } else {
+                holder.publicOnly = entry;
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Get public and protected members declared by {@code type} itself, with names remapped by {@code remapper}.
+     * <p>
+     * A class is usually visited once for each of its subclasses being reflected, so the remapped view is shared by
+     * all of them instead of being remapped again every time.
+     */
+    static DeclaredMembers declared(Class<?> type, Remapper remapper) {
+        if (!cachingEnabled) {
+            return new DeclaredMembers(type, remapper, -1);
+        }
+        val generation = GENERATION.get();
+        val holder = CACHE.get(type);
+        var declared = holder.declared;
+        if (declared == null || declared.remapper != remapper || declared.generation != generation) {
+            declared = new DeclaredMembers(type, remapper, generation);
+            holder.declared = declared;
+        }
+        return declared;
+    }
+
+    private static final class Holder {
+        volatile Entry publicOnly;
+        volatile Entry withProtected;
+        volatile DeclaredMembers declared;
+    }
+
+    /**
+     * Public and protected members declared by a single class, with names remapped
+     */
+    static final class DeclaredMembers {
+        final Remapper remapper;
+        final int generation;
+        final Method[] methods;
+        final String[] methodNames;
+        /**
+         * annotated with {@link HideFromJS}
+         */
+        final boolean[] hiddenMethods;
+        /**
+         * excluding transient fields and ones annotated with {@link HideFromJS}
+         */
+        final Field[] fields;
+        final String[] fieldNames;
+
+        DeclaredMembers(Class<?> type, Remapper remapper, int generation) {
+            this.remapper = remapper;
+            this.generation = generation;
+
+            val methodList = new ArrayList<Method>();
+            for (val method : ReflectsKit.getDeclaredMethodsSafe(type)) {
+                val mods = method.getModifiers();
+                if (Modifier.isPublic(mods) || Modifier.isProtected(mods)) {
+                    methodList.add(method);
+                }
+            }
+            this.methods = methodList.toArray(new Method[0]);
+            this.methodNames = remapper.remapMethods(type, methods);
+            this.hiddenMethods = new boolean[methods.length];
+            for (int i = 0; i < methods.length; i++) {
+                if (methodNames[i].isEmpty()) {
+                    methodNames[i] = methods[i].getName();
+                }
+                hiddenMethods[i] = methods[i].isAnnotationPresent(HideFromJS.class);
+            }
+
+            val fieldList = new ArrayList<Field>();
+            for (val field : ReflectsKit.getDeclaredFieldsSafe(type)) {
+                val mods = field.getModifiers();
+                if (!Modifier.isTransient(mods)
+                    && (Modifier.isPublic(mods) || Modifier.isProtected(mods))
+                    && !field.isAnnotationPresent(HideFromJS.class)
+                ) {
+                    fieldList.add(field);
+                }
+            }
+            this.fields = fieldList.toArray(new Field[0]);
+            this.fieldNames = remapper.remapFields(type, fields);
+            for (int i = 0; i < fields.length; i++) {
+                if (fieldNames[i].isEmpty()) {
+                    fieldNames[i] = fields[i].getName();
+                }
+            }
+        }
+    }
+
+    /**
+     * Members of a class, with remapped names, that are not bound to any Context or scope
+     */
+    static final class Entry {
+        final Remapper remapper;
+        final int generation;
+        final Map<String, MemberBox[]> staticMethods;
+        final Map<String, MemberBox[]> methods;
+        final List<NativeJavaField> fields;
+        final MemberBox[] ctors;
+
+        Entry(Class<?> type, Remapper remapper, boolean includeProtected, int generation) {
+            this.remapper = remapper;
+            this.generation = generation;
+
+            val staticGroups = new HashMap<String, List<MemberBox>>();
+            val groups = new HashMap<String, List<MemberBox>>();
+            for (val info : JavaMembers.accessMethods(type, remapper, includeProtected)) {
+                if (info.hidden) {
+                    continue;
+                }
+                val isStatic = Modifier.isStatic(info.method.getModifiers());
+                (isStatic ? staticGroups : groups)
+                    .computeIfAbsent(info.sig.name(), k -> new ArrayList<>(1))
+                    .add(new MemberBox(info.method, type));
+            }
+            this.staticMethods = toArrays(staticGroups);
+            this.methods = toArrays(groups);
+
+            val fieldMap = JavaMembers.accessFields(type, remapper, includeProtected);
+            val fieldList = new ArrayList<NativeJavaField>(fieldMap.size());
+            for (val entry : fieldMap.entrySet()) {
+                fieldList.add(new NativeJavaField(entry.getValue(), type, entry.getKey()));
+            }
+            this.fields = fieldList;
+
+            val constructors = JavaMembers.accessConstructors(type);
+            this.ctors = new MemberBox[constructors.size()];
+            for (int i = 0; i != constructors.size(); ++i) {
+                ctors[i] = new MemberBox(constructors.get(i), type);
+            }
+        }
+
+        private static Map<String, MemberBox[]> toArrays(Map<String, List<MemberBox>> groups) {
+            val result = new HashMap<String, MemberBox[]>(groups.size() * 4 / 3 + 1);
+            for (val entry : groups.entrySet()) {
+                result.put(entry.getKey(), entry.getValue().toArray(new MemberBox[0]));
+            }
+            return result;
+        }
+    }
+}
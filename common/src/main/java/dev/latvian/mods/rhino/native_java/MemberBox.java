@@ -7,34 +7,65 @@
 package dev.latvian.mods.rhino.native_java;
 
 import dev.latvian.mods.rhino.Context;
+import dev.latvian.mods.rhino.NativeJavaObject;
 import dev.latvian.mods.rhino.VMBridge;
+import dev.latvian.mods.rhino.mod.RhinoProperties;
 import dev.latvian.mods.rhino.native_java.type.TypeConsolidator;
+import dev.latvian.mods.rhino.native_java.type.info.ParameterizedTypeInfo;
 import dev.latvian.mods.rhino.native_java.type.info.TypeInfo;
+import dev.latvian.mods.rhino.native_java.type.info.TypeUtils;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.val;
 
 import java.io.Serializable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.*;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Wrapper class for Method and Constructor instances to cache
  * getParameterTypes() results, recover from IllegalAccessException
  * in some cases and provide serialization support.
+ * <p>
+ * Unless disabled by {@link RhinoProperties#methodHandleInvoker}, invocations go
+ * through a MethodHandle resolved on first use, and only fall back to core reflection
+ * when no handle can be created for the member.
  *
  * @author Igor Bukanov
  */
 public final class MemberBox implements Serializable {
 
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+	private static final boolean USE_METHOD_HANDLE = RhinoProperties.INSTANCE.methodHandleInvoker;
+	/**
+	 * upper bound of parameterized receivers cached by {@link #getArgTypeInfos(Class, ParameterizedTypeInfo)}, least
+	 * recently used ones are dropped first
+	 */
+	private static final int MAX_CONSOLIDATED_RECEIVERS = 32;
+
 	private final Class<?> from;
     private transient Executable memberObject;
 	public transient final Class<?>[] argTypes;
 	private TypeInfo[] argTypeInfos = null;
 	private TypeInfo returnTypeInfo;
+	/**
+	 * argument types consolidated with the type parameters of a receiver, see {@link #getArgTypeInfos(Class, ParameterizedTypeInfo)}
+	 */
+	private transient volatile Map<ReceiverKey, TypeInfo[]> consolidatedArgTypeInfos;
 	@Setter
 	@Getter
 	private transient Object delegateTo;
 	public transient final boolean vararg;
+	/**
+	 * {@code (Object, Object[])Object} for methods, {@code (Object[])Object} for constructors
+	 */
+	private transient MethodHandle handle;
+	private transient boolean handleUnavailable;
 
 	public MemberBox(Method method) {
 		this(method, method.getDeclaringClass());
@@ -124,6 +155,16 @@ public final class MemberBox implements Serializable {
 	}
 
 	public Object invoke(Object instance, Object... args) {
+		if (USE_METHOD_HANDLE) {
+			val handle = getHandle();
+			if (handle != null) {
+				try {
+					return (Object) handle.invokeExact(instance, args);
+				} catch (Throwable ex) {
+					throw Context.throwAsScriptRuntimeEx(ex);
+				}
+			}
+		}
 		val method = method();
 		try {
 			try {
@@ -144,6 +185,16 @@ public final class MemberBox implements Serializable {
 	}
 
 	public Object newInstance(Object[] args) {
+		if (USE_METHOD_HANDLE) {
+			val handle = getHandle();
+			if (handle != null) {
+				try {
+					return (Object) handle.invokeExact(args);
+				} catch (Throwable ex) {
+					throw Context.throwAsScriptRuntimeEx(ex);
+				}
+			}
+		}
 		val ctor = ctor();
 		try {
 			try {
@@ -159,6 +210,67 @@ public final class MemberBox implements Serializable {
 		}
 	}
 
+	private MethodHandle getHandle() {
+		var handle = this.handle;
+		if (handle == null && !handleUnavailable) {
+			try {
+				handle = createHandle();
+				this.handle = handle;
+			} catch (IllegalAccessException | RuntimeException e) {
+				// core reflection will report the actual error, if there's any
+				handleUnavailable = true;
+			}
+		}
+		return handle;
+	}
+
+	/**
+	 * adapt the member to a fixed shape, so that invoking it needs neither boxing of the handle nor a varargs array
+	 * other than the one we already have
+	 */
+	private MethodHandle createHandle() throws IllegalAccessException {
+		val paramCount = argTypes.length;
+		if (isCtor()) {
+			return unreflectCtor(ctor())
+				.asFixedArity()
+				.asType(MethodType.genericMethodType(paramCount))
+				.asSpreader(Object[].class, paramCount);
+		}
+		var handle = unreflectMethod(method()).asFixedArity();
+		if (isStatic()) {
+			handle = MethodHandles.dropArguments(handle, 0, Object.class);
+		}
+		return handle
+			.asType(MethodType.genericMethodType(paramCount + 1))
+			.asSpreader(Object[].class, paramCount);
+	}
+
+	private MethodHandle unreflectMethod(Method method) throws IllegalAccessException {
+		try {
+			return LOOKUP.unreflect(method);
+		} catch (IllegalAccessException e) {
+			val accessible = searchAccessibleMethod(method, argTypes);
+			if (accessible != null) {
+				memberObject = accessible;
+				return LOOKUP.unreflect(accessible);
+			} else if (VMBridge.vm.tryToMakeAccessible(method)) {
+				return LOOKUP.unreflect(method);
+			}
+			throw e;
+		}
+	}
+
+	private static MethodHandle unreflectCtor(Constructor<?> ctor) throws IllegalAccessException {
+		try {
+			return LOOKUP.unreflectConstructor(ctor);
+		} catch (IllegalAccessException e) {
+			if (VMBridge.vm.tryToMakeAccessible(ctor)) {
+				return LOOKUP.unreflectConstructor(ctor);
+			}
+			throw e;
+		}
+	}
+
 	private static Method searchAccessibleMethod(Method method, Class<?>[] params) {
 		val modifiers = method.getModifiers();
 		if (!Modifier.isPublic(modifiers) || Modifier.isStatic(modifiers)) {
@@ -206,6 +318,57 @@ public final class MemberBox implements Serializable {
 		return this.argTypeInfos;
 	}
 
+	/**
+	 * Get argument types consolidated with the type parameters of a parameterized receiver, e.g. {@code E} in
+	 * {@code List<E>.add(E)} becomes {@code String} for a {@code List<String>} receiver.
+	 * <p>
+	 * Results are cached for the last {@value #MAX_CONSOLIDATED_RECEIVERS} receivers, so that calls on the same
+	 * parameterized type only consolidate once. Receivers containing classes not visible from the declaring class are
+	 * not cached.
+	 *
+	 * @param receiverType the class of the receiver, whose type variables are mapped
+	 * @param receiverTypeInfo the parameterized type of the receiver, providing the actual type parameters
+	 */
+	public TypeInfo[] getArgTypeInfos(Class<?> receiverType, ParameterizedTypeInfo receiverTypeInfo) {
+		val key = new ReceiverKey(receiverType, receiverTypeInfo);
+		var cache = consolidatedArgTypeInfos;
+		if (cache != null) {
+			val consolidated = cache.get(key);
+			if (consolidated != null) {
+				return consolidated;
+			}
+		}
+		val original = getArgTypeInfos();
+		val mapping = NativeJavaObject.extractMapping(receiverType, receiverTypeInfo);
+		val consolidated = mapping.isEmpty() ? original : TypeConsolidator.consolidateAll(original, mapping);
+		if (isVisibleFromDeclaringClass(receiverType, receiverTypeInfo)) {
+			if (cache == null) {
+				synchronized (this) {
+					cache = consolidatedArgTypeInfos;
+					if (cache == null) {
+						consolidatedArgTypeInfos = cache = Collections.synchronizedMap(new LinkedHashMap<ReceiverKey, TypeInfo[]>(16, 0.75F, true) {
+							@Override
+							protected boolean removeEldestEntry(Map.Entry<ReceiverKey, TypeInfo[]> eldest) {
+								return size() > MAX_CONSOLIDATED_RECEIVERS;
+							}
+						});
+					}
+				}
+			}
+			cache.put(key, consolidated);
+		}
+		return consolidated;
+	}
+
+	/**
+	 * MemberBoxes are cached for the whole process, so a receiver is only cached if it can not keep a class loader
+	 * alive that the declaring class does not
+	 */
+	private boolean isVisibleFromDeclaringClass(Class<?> receiverType, ParameterizedTypeInfo receiverTypeInfo) {
+		val loader = memberObject.getDeclaringClass().getClassLoader();
+		return TypeUtils.isVisibleFrom(loader, receiverType) && TypeUtils.isVisibleFrom(loader, receiverTypeInfo);
+	}
+
 	public TypeInfo getReturnTypeInfo() {
 		if (returnTypeInfo == null && isMethod()) {
 			returnTypeInfo = TypeInfo.of(method().getReturnType());
@@ -215,5 +378,24 @@ public final class MemberBox implements Serializable {
 		}
 		return returnTypeInfo;
 	}
-}
 
+	private static final class ReceiverKey {
+		private final Class<?> type;
+		private final ParameterizedTypeInfo typeInfo;
+
+		ReceiverKey(Class<?> type, ParameterizedTypeInfo typeInfo) {
+			this.type = type;
+			this.typeInfo = typeInfo;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * type.hashCode() + typeInfo.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return this == obj || obj instanceof ReceiverKey other && type == other.type && typeInfo.equals(other.typeInfo);
+		}
+	}
+}
@@ -17,8 +17,6 @@ import java.lang.reflect.Modifier;
 public class NativeJavaField {
 
     private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
-    private static final byte ACCESS_GETTER = 1;
-    private static final byte ACCESS_SETTER = ACCESS_GETTER << 1;
 
     public final Field raw;
     private final Class<?> from;
@@ -28,7 +26,10 @@ public class NativeJavaField {
     public final boolean isStatic;
     public final boolean isFinal;
 
-    private byte access = 0;
+    /**
+     * lazily resolved, and read into a local before use, because fields can be shared between threads, see
+     * {@link JavaMembersCache}
+     */
     private MethodHandle getter;
     private MethodHandle setter;
 
@@ -54,7 +55,7 @@ public class NativeJavaField {
                 throw Context.throwAsScriptRuntimeEx(e);
             }
             try { // retry after recovery
-                access = (byte) (access & (~ACCESS_SETTER));
+                setter = null;
                 setInternal(instance, value);
             } catch (Throwable ex) {
                 throw Context.throwAsScriptRuntimeEx(ex);
@@ -65,26 +66,28 @@ public class NativeJavaField {
     }
 
     private void setInternal(Object instance, Object value) throws IllegalAccessException, Throwable {
-        if ((access & ACCESS_SETTER) == 0) {
-            access = (byte) (access | ACCESS_SETTER);
-            setter = LOOKUP.unreflectSetter(raw);
+        var handle = setter;
+        if (handle == null) {
+            handle = LOOKUP.unreflectSetter(raw);
+            setter = handle;
         }
         if (isStatic) {
-            setter.invoke(value);
+            handle.invoke(value);
         } else {
-            setter.invoke(instance, value);
+            handle.invoke(instance, value);
         }
     }
 
     private Object getInternal(Object instance) throws IllegalAccessException, Throwable {
-        if ((access & ACCESS_GETTER) == 0) {
-            access = (byte) (access | ACCESS_GETTER);
-            getter = LOOKUP.unreflectGetter(raw);
+        var handle = getter;
+        if (handle == null) {
+            handle = LOOKUP.unreflectGetter(raw);
+            getter = handle;
         }
         if (isStatic) {
-            return getter.invoke();
+            return handle.invoke();
         } else {
-            return getter.invoke(instance);
+            return handle.invoke(instance);
         }
     }
 
@@ -100,7 +103,7 @@ public class NativeJavaField {
                 throw Context.throwAsScriptRuntimeEx(e);
             }
             try { // retry after recovery
-                access = (byte) (access & (~ACCESS_GETTER));
+                getter = null;
                 return getInternal(instance);
             } catch (Throwable ex) {
                 throw Context.throwAsScriptRuntimeEx(ex);
@@ -8,15 +8,11 @@ package dev.latvian.mods.rhino.native_java;
 
 import dev.latvian.mods.rhino.*;
 import dev.latvian.mods.rhino.native_java.type.Converter;
-import dev.latvian.mods.rhino.native_java.type.TypeConsolidator;
-import it.unimi.dsi.fastutil.ints.IntArrayList;
+import dev.latvian.mods.rhino.util.wrap.TypeWrappers;
 import lombok.val;
-import org.jetbrains.annotations.Nullable;
 
 import java.lang.reflect.Method;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * This class reflects Java methods into the JavaScript environment and
@@ -32,7 +28,22 @@ public class NativeJavaMethod extends BaseFunction {
 
 	public final MemberBox[] methods;
 	public final String functionName;
-	private transient final CopyOnWriteArrayList<ResolvedOverload> overloadCache = new CopyOnWriteArrayList<>();
+	/**
+	 * monomorphic fast path of the inline cache, the first overload resolved by argument classes
+	 */
+	private transient volatile ResolvedOverload monomorphic;
+	/**
+	 * polymorphic part of the inline cache, indexed by {@link ResolvedOverload#hash}, entries are replaced on
+	 * collision
+	 */
+	private transient final ResolvedOverload[] polymorphic = new ResolvedOverload[POLYMORPHIC_SIZE];
+	private transient volatile boolean megamorphic;
+	/**
+	 * only written on cache misses, after a full overload resolution, a count lost to a racing thread just delays going
+	 * megamorphic
+	 */
+	private transient int cacheMisses;
+	private transient volatile DispatchTable dispatchTable = DispatchTable.EMPTY;
 
 	public NativeJavaMethod(MemberBox[] methods) {
 		this(methods, methods[0].getName());
@@ -129,13 +140,9 @@ public class NativeJavaMethod extends BaseFunction {
 		}
 
 		val meth = methods[index];
-		var argTypes = meth.getArgTypeInfos();
-		if (thisObj instanceof NativeJavaObject object) {
-			val mapping = object.extractMapping();
-			if (!mapping.isEmpty()) {
-				argTypes = TypeConsolidator.consolidateAll(argTypes, mapping);
-			}
-		}
+		val argTypes = thisObj instanceof NativeJavaObject object
+			? object.getArgTypeInfos(meth)
+			: meth.getArgTypeInfos();
 
         args = meth.vararg
 			? JavaArgWrapping.wrapVarArgs(cx, args, argTypes)
@@ -191,34 +198,136 @@ public class NativeJavaMethod extends BaseFunction {
 		if (methods.length <= 1) {
 			return findFunction(cx, methods, args);
 		}
-		for (val ovl : overloadCache) {
-			if (ovl.matches(args)) {
-				return ovl.index;
+		val key = typeCodeKey(args);
+		if (key != NOT_CACHEABLE) {
+			val table = dispatchTable;
+			if (table.wrappersModCount == TypeWrappers.getModCount()) {
+				val cached = table.find(key);
+				if (cached != NOT_CACHED) {
+					return cached;
+				}
+			}
+			val index = findFunction(cx, methods, args);
+			if (isValueIndependent(cx)) {
+				dispatchTable = table.with(key, index);
 			}
+			return index;
+		}
+		if (megamorphic) {
+			return findFunction(cx, methods, args);
+		}
+		val hash = ResolvedOverload.hashArgs(args);
+		val mono = monomorphic;
+		if (mono != null && mono.matches(hash, args)) {
+			return mono.index;
 		}
+		val slot = hash & (POLYMORPHIC_SIZE - 1);
+		val poly = polymorphic[slot];
+		if (poly != null && poly.matches(hash, args)) {
+			return poly.index;
+		}
+
 		val index = findFunction(cx, methods, args);
-		// As a sanity measure, don't let the lookup cache grow longer
-		// than twice the number of overloaded methods
-		if (overloadCache.size() < methods.length * 2) {
-			overloadCache.addIfAbsent(new ResolvedOverload(args, index));
+		val resolved = new ResolvedOverload(args, hash, index);
+		if (mono == null) {
+			monomorphic = resolved;
+		} else {
+			polymorphic[slot] = resolved;
+		}
+		if (++cacheMisses > MEGAMORPHIC_THRESHOLD) {
+			// too many argument class combinations, or too many collisions, caching no longer pays off
+			megamorphic = true;
 		}
 		return index;
 	}
 
-	private static int @Nullable [] failFastConvWeight(Context cx, MemberBox member, Object[] args) {
-		int argsLength = member.getArgTypeInfos().length;
+	/**
+	 * @return approximate number of calls that needed full overload resolution, before the call site went megamorphic
+	 */
+	public int getCacheMisses() {
+		return cacheMisses;
+	}
+
+	/**
+	 * @return true if this method stopped caching resolved overloads, because too many of them missed the cache
+	 */
+	public boolean isMegamorphic() {
+		return megamorphic;
+	}
+
+	private static final int POLYMORPHIC_SIZE = 8;
+	private static final int MEGAMORPHIC_THRESHOLD = POLYMORPHIC_SIZE * 4;
+	private static final long NOT_CACHEABLE = -1L;
+	private static final int NOT_CACHED = -2;
+	private static final int TYPE_CODE_BITS = 3;
+	private static final int MAX_TYPE_CODE_ARGS = 15;
+
+	/**
+	 * Encode argument count and {@link Converter#getJSTypeCode(Object) JS type codes} of arguments into a single
+	 * key, if all arguments are JS primitives, whose conversion weights only depend on their type codes.
+	 *
+	 * @return the key, or {@link #NOT_CACHEABLE}
+	 */
+	private static long typeCodeKey(Object[] args) {
+		if (args.length > MAX_TYPE_CODE_ARGS) {
+			return NOT_CACHEABLE;
+		}
+		long key = args.length;
+		for (int i = 0; i < args.length; i++) {
+			val arg = args[i];
+			val code = Converter.getJSTypeCode(arg);
+			if (code > Converter.JSTYPE_STRING || (code == Converter.JSTYPE_STRING && !(arg instanceof String))) {
+				// weights of other strings like ConsString also depend on interfaces they implement
+				return NOT_CACHEABLE;
+			}
+			key |= (long) code << (4 + i * TYPE_CODE_BITS);
+		}
+		return key;
+	}
+
+	/**
+	 * @return true if no type wrapper of any parameter type can accept or reject a value based on the value itself
+	 */
+	private boolean isValueIndependent(Context cx) {
+		if (!cx.hasTypeWrappers()) {
+			return true;
+		}
+		val typeWrappers = cx.getTypeWrappers();
+		for (val method : methods) {
+			for (val type : method.getArgTypeInfos()) {
+				if (typeWrappers.hasValueDependentWrapper(type)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Number of arguments whose conversion weight is computed in advance, varargs are computed on demand
+	 */
+	private static int weightedArgCount(MemberBox member) {
+		val paramCount = member.getArgTypeInfos().length;
+		return member.vararg ? paramCount - 1 : paramCount;
+	}
+
+	/**
+	 * Compute conversion weights of {@code args} for {@code member} into {@code weights}, starting at {@code offset}
+	 *
+	 * @return false if {@code member} is not applicable to {@code args}
+	 */
+	private static boolean computeWeights(Context cx, MemberBox member, Object[] args, int[] weights, int offset) {
+		val argsLength = weightedArgCount(member);
 
 		if (member.vararg) {
-			argsLength--;
 			if (argsLength > args.length) {
-				return null;
+				return false;
 			}
 		} else {
 			if (argsLength != args.length) {
-				return null;
+				return false;
 			}
 		}
-		val weights = new int[argsLength];
 		val argTypes = member.getArgTypeInfos();
 		for (int j = 0; j != argsLength; ++j) {
 			val weight = Converter.getConversionWeight(cx, args[j], argTypes[j]);
@@ -226,27 +335,29 @@ public class NativeJavaMethod extends BaseFunction {
 				if (DEBUG) {
 					printDebug("Rejecting (args can't convert) ", member, args);
 				}
-				return null;
+				return false;
+			}
+			if (weights != null) {
+				weights[offset + j] = weight;
 			}
-			weights[j] = weight;
 		}
-		return weights;
+		return true;
 	}
 
-	private static final IntArrayList BEST_FIT_BUFFER = new IntArrayList();
-	private static final ArrayList<int[]> BEST_WEIGHT_BUFFER = new ArrayList<>();
-
 	/**
 	 * Find the index of the correct function to call given the set of methods
 	 * or constructors and the arguments.
 	 * If no function can be found to call, return -1.
+	 * <p>
+	 * All intermediate state is local to this call, so this can be called from
+	 * multiple threads at the same time.
 	 */
 	static int findFunction(Context cx, MemberBox[] members, Object[] args) {
 		if (members.length == 0) {
 			return -1;
 		}
 		if (members.length == 1) {
-			if (failFastConvWeight(cx, members[0], args) == null) {
+			if (!computeWeights(cx, members[0], args, null, 0)) {
 				return -1;
 			}
 			if (DEBUG) {
@@ -255,73 +366,83 @@ public class NativeJavaMethod extends BaseFunction {
 			return 0;
 		}
 
-		BEST_FIT_BUFFER.clear();
-		BEST_WEIGHT_BUFFER.clear();
-        for (int i = 0, membersLength = members.length; i < membersLength; i++) {
-            val member = members[i];
-            val weights = failFastConvWeight(cx, member, args);
-            if (weights == null) {
-                continue;
-            }
-            if (BEST_FIT_BUFFER.isEmpty()) {
-                BEST_FIT_BUFFER.add(i);
-                BEST_WEIGHT_BUFFER.add(weights);
-                if (DEBUG) {
-                    printDebug("Found first applicable ", member, args);
-                }
-                continue;
-            }
-            val bestSize = BEST_FIT_BUFFER.size();
-            for (int j = 0; j < bestSize; j++) { //compare current <-> known best
-                val knownBestFit = members[BEST_FIT_BUFFER.getInt(j)];
-                val knownBestWeight = BEST_WEIGHT_BUFFER.get(j);
-                val prefer = preferSignature(
-                    cx, args,
-                    member,
-                    weights,
-                    knownBestFit,
-                    knownBestWeight
-                );
-                if (prefer == PREFERENCE_FIRST_ARG) { //current > known best
-                    BEST_FIT_BUFFER.clear();
-                    BEST_WEIGHT_BUFFER.clear();
-                    BEST_FIT_BUFFER.add(i);
-                    BEST_WEIGHT_BUFFER.add(weights);
-                } else if (prefer == PREFERENCE_SECOND_ARG) { //current < known best
-                    continue;
-                } else if (prefer == PREFERENCE_EQUAL) {
-                    // This should not happen in theory, since methods
-                    // but (see below)
-                    if (knownBestFit.isStatic() && knownBestFit.getDeclaringClass().isAssignableFrom(member.getDeclaringClass())) {
-                        // On some JVMs, Class.getMethods will return all
-                        // static methods of the class hierarchy, even if
-                        // a derived class's parameters match exactly.
-                        // We want to call the derived class's method.
-                        if (DEBUG) {
-                            printDebug("Substituting (overridden static)", member, args);
-                        }
-                        //in this case, consider it as current>knownBest
-                        BEST_FIT_BUFFER.clear();
-                        BEST_WEIGHT_BUFFER.clear();
-                        BEST_FIT_BUFFER.add(i);
-                        BEST_WEIGHT_BUFFER.add(weights);
-                    } else {
-                        if (DEBUG) {
-                            printDebug("Ignoring same signature member ", member, args);
-                        }
-                    }
-                } else if (prefer == PREFERENCE_AMBIGUOUS) {
-                    BEST_FIT_BUFFER.add(i);
-                    BEST_WEIGHT_BUFFER.add(weights);
-                }
-            }
-        }
+		// weights of member i start at i * stride
+		val stride = args.length;
+		val weights = new int[members.length * stride];
+		val bestFits = new int[members.length];
+		int bestFitCount = 0;
+
+		search:
+		for (int i = 0, membersLength = members.length; i < membersLength; i++) {
+			val member = members[i];
+			if (!computeWeights(cx, member, args, weights, i * stride)) {
+				continue;
+			}
+			if (bestFitCount == 0) {
+				bestFits[bestFitCount++] = i;
+				if (DEBUG) {
+					printDebug("Found first applicable ", member, args);
+				}
+				continue;
+			}
+			int betterCount = 0;
+			int worseCount = 0;
+			for (int j = 0; j < bestFitCount; j++) { //compare current <-> known best
+				val knownBestIndex = bestFits[j];
+				val knownBestFit = members[knownBestIndex];
+				val prefer = preferSignature(
+					cx, args,
+					member,
+					weights,
+					i * stride,
+					knownBestFit,
+					weights,
+					knownBestIndex * stride
+				);
+				if (prefer == PREFERENCE_AMBIGUOUS) {
+					break;
+				} else if (prefer == PREFERENCE_FIRST_ARG) { //current > known best
+					++betterCount;
+				} else if (prefer == PREFERENCE_SECOND_ARG) { //current < known best
+					++worseCount;
+				} else {
+					if (prefer != PREFERENCE_EQUAL) {
+						Kit.codeBug();
+					}
+					// This should not happen in theory, since methods
+					// but (see below)
+					if (knownBestFit.isStatic() && knownBestFit.getDeclaringClass().isAssignableFrom(member.getDeclaringClass())) {
+						// On some JVMs, Class.getMethods will return all
+						// static methods of the class hierarchy, even if
+						// a derived class's parameters match exactly.
+						// We want to call the derived class's method.
+						if (DEBUG) {
+							printDebug("Substituting (overridden static)", member, args);
+						}
+						bestFits[j] = i;
+					} else {
+						if (DEBUG) {
+							printDebug("Ignoring same signature member ", member, args);
+						}
+					}
+					continue search;
+				}
+			}
+			if (betterCount == bestFitCount) {
+				// member is better than all known best fits
+				bestFits[0] = i;
+				bestFitCount = 1;
+			} else if (worseCount != bestFitCount) {
+				// member is neither better nor worse than all known best fits
+				bestFits[bestFitCount++] = i;
+			}
+		}
 
-        return switch (BEST_FIT_BUFFER.size()) {
-            case 0 -> -1;
-            case 1 -> BEST_FIT_BUFFER.getInt(0);
+		return switch (bestFitCount) {
+			case 0 -> -1;
+			case 1 -> bestFits[0];
 			// report remaining ambiguity
-			default -> throw reportRemainingAmbiguity(cx, members, args, BEST_FIT_BUFFER);
+			default -> throw reportRemainingAmbiguity(cx, members, args, bestFits, bestFitCount);
 		};
 	}
 
@@ -329,17 +450,18 @@ public class NativeJavaMethod extends BaseFunction {
 		Context cx,
 		MemberBox[] methodsOrCtors,
 		Object[] args,
-		IntArrayList bestFits
+		int[] bestFits,
+		int bestFitCount
 	) {
 		val buf = new StringBuilder();
-		for (val bestFitIndex : bestFits) {
+		for (int i = 0; i < bestFitCount; i++) {
 			buf.append("\n    ");
-			buf.append(methodsOrCtors[bestFitIndex].toJavaDeclaration(cx));
+			buf.append(methodsOrCtors[bestFits[i]].toJavaDeclaration(cx));
 		}
 
         return Context.reportRuntimeError3(
 			methodsOrCtors[0].isCtor() ? "msg.constructor.ambiguous" : "msg.method.ambiguous",
-            methodsOrCtors[bestFits.getInt(0)].getName(),
+            methodsOrCtors[bestFits[0]].getName(),
 			scriptSignature(args),
 			buf.toString()
 		);
@@ -366,11 +488,15 @@ public class NativeJavaMethod extends BaseFunction {
 		Object[] args,
 		MemberBox member1,
 		int[] computedWeights1,
+		int offset1,
 		MemberBox member2,
-		int[] computedWeights2
+		int[] computedWeights2,
+		int offset2
 	) {
 		val types1 = member1.getArgTypeInfos();
 		val types2 = member2.getArgTypeInfos();
+		val computed1 = weightedArgCount(member1);
+		val computed2 = weightedArgCount(member2);
 
         int totalPreference = 0;
 		for (int j = 0; j < args.length; j++) {
@@ -383,11 +509,11 @@ public class NativeJavaMethod extends BaseFunction {
 
 			// Determine which of type1, type2 is easier to convert from arg.
 
-            val rank1 = j < computedWeights1.length
-				? computedWeights1[j]
+            val rank1 = j < computed1
+				? computedWeights1[offset1 + j]
 				: Converter.getConversionWeight(cx, arg, type1);
-            val rank2 = j < computedWeights2.length
-				? computedWeights2[j]
+            val rank2 = j < computed2
+				? computedWeights2[offset2 + j]
 				: Converter.getConversionWeight(cx, arg, type2);
 
 			int preference;
@@ -439,63 +565,94 @@ public class NativeJavaMethod extends BaseFunction {
 		}
 	}
 
+	/**
+	 * Overloads resolved by {@link #typeCodeKey(Object[])}. Immutable, so it can be read without locking, and
+	 * replaced as a whole when a new key is resolved
+	 */
+	private static final class DispatchTable {
+		static final DispatchTable EMPTY = new DispatchTable(new long[0], new int[0], -1);
+		private static final int MAX_SIZE = 16;
+
+		final long[] keys;
+		final int[] indices;
+		final int wrappersModCount;
+
+		DispatchTable(long[] keys, int[] indices, int wrappersModCount) {
+			this.keys = keys;
+			this.indices = indices;
+			this.wrappersModCount = wrappersModCount;
+		}
+
+		int find(long key) {
+			val keys = this.keys;
+			for (int i = 0; i < keys.length; i++) {
+				if (keys[i] == key) {
+					return indices[i];
+				}
+			}
+			return NOT_CACHED;
+		}
+
+		DispatchTable with(long key, int index) {
+			val modCount = TypeWrappers.getModCount();
+			if (wrappersModCount != modCount) {
+				return new DispatchTable(new long[]{key}, new int[]{index}, modCount);
+			} else if (keys.length >= MAX_SIZE || find(key) != NOT_CACHED) {
+				return this;
+			}
+			val newKeys = Arrays.copyOf(keys, keys.length + 1);
+			val newIndices = Arrays.copyOf(indices, indices.length + 1);
+			newKeys[keys.length] = key;
+			newIndices[indices.length] = index;
+			return new DispatchTable(newKeys, newIndices, modCount);
+		}
+	}
+
+	/**
+	 * An overload resolved for arguments of specific classes, {@link Wrapper}s are unwrapped first. Immutable
+	 */
 	static final class ResolvedOverload {
 		final Class<?>[] types;
+		final int hash;
 		final int index;
 
-		ResolvedOverload(Object[] args, int index) {
+		ResolvedOverload(Object[] args, int hash, int index) {
+			this.hash = hash;
 			this.index = index;
 			types = new Class<?>[args.length];
 			for (int i = 0, l = args.length; i < l; i++) {
-				Object arg = args[i];
-				if (arg instanceof Wrapper) {
-					arg = ((Wrapper) arg).unwrap();
-				}
-				types[i] = arg == null ? null : arg.getClass();
+				types[i] = argClass(args[i]);
 			}
 		}
 
-		boolean matches(Object[] args) {
-			if (args.length != types.length) {
+		static Class<?> argClass(Object arg) {
+			if (arg instanceof Wrapper wrapper) {
+				arg = wrapper.unwrap();
+			}
+			return arg == null ? null : arg.getClass();
+		}
+
+		static int hashArgs(Object[] args) {
+			int hash = args.length;
+			for (val arg : args) {
+				val type = argClass(arg);
+				hash = hash * 31 + (type == null ? 0 : type.hashCode());
+			}
+			// spread high bits, the hash is used as a slot index
+			return hash ^ (hash >>> 16);
+		}
+
+		boolean matches(int hash, Object[] args) {
+			if (this.hash != hash || args.length != types.length) {
 				return false;
 			}
 			for (int i = 0, len = args.length; i < len; i++) {
-				Object arg = args[i];
-				if (arg instanceof Wrapper) {
-                    arg = ((Wrapper) arg).unwrap();
-				}
-//				val type = types[i];
-//				if (type == null) {
-//					if (arg != null) {
-//						return false;
-//					}
-//				} else if (arg == null) {
-//					return false;
-//				} else if (!type.isAssignableFrom(arg.getClass())) {
-//					return false;
-//				}
-				if (arg == null) {
-					if (types[i] != null) {
-						return false;
-					}
-				} else if (arg.getClass() != types[i]) {
+				if (argClass(args[i]) != types[i]) {
 					return false;
 				}
 			}
 			return true;
 		}
-
-		@Override
-		public boolean equals(Object other) {
-			return other instanceof ResolvedOverload overload
-				&& Arrays.equals(types, overload.types)
-				&& index == overload.index;
-		}
-
-		@Override
-		public int hashCode() {
-			return Arrays.hashCode(types);
-		}
 	}
 }
 
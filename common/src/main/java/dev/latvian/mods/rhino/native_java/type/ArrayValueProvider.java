@@ -5,6 +5,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import dev.latvian.mods.rhino.Context;
 import dev.latvian.mods.rhino.EvaluatorException;
+import dev.latvian.mods.rhino.ExternalArrayData;
 import dev.latvian.mods.rhino.NativeArray;
 import dev.latvian.mods.rhino.NativeJavaObject;
 import dev.latvian.mods.rhino.native_java.type.info.TypeInfo;
@@ -186,6 +187,28 @@ public interface ArrayValueProvider {
 		}
 	}
 
+	static ArrayValueProvider fromExternalArray(ExternalArrayData array, Object errorSource) {
+		return array.getArrayLength() == 0 ? EMPTY : new FromExternalArray(array, errorSource);
+	}
+
+	@Desugar
+	record FromExternalArray(ExternalArrayData array, Object errorSource) implements ArrayValueProvider {
+		@Override
+		public int getLength(Context cx) {
+			return array.getArrayLength();
+		}
+
+		@Override
+		public Object getArrayValue(Context cx, int index) {
+			return array.getArrayElement(index);
+		}
+
+		@Override
+		public Object getErrorSource(Context cx) {
+			return errorSource;
+		}
+	}
+
 	static ArrayValueProvider fromJavaList(List<?> list, Object errorSource) {
 		return list.isEmpty() ? EMPTY : new FromJavaList(list, errorSource);
 	}
@@ -3,12 +3,15 @@ package dev.latvian.mods.rhino.native_java.type;
 import dev.latvian.mods.rhino.*;
 import dev.latvian.mods.rhino.native_java.type.info.ArrayTypeInfo;
 import dev.latvian.mods.rhino.native_java.type.info.TypeInfo;
+import dev.latvian.mods.rhino.typedarrays.NativeArrayBuffer;
+import dev.latvian.mods.rhino.typedarrays.NativeTypedArrayView;
 import dev.latvian.mods.rhino.util.wrap.TypeWrapperFactory;
 import lombok.AllArgsConstructor;
 import lombok.val;
 import org.jetbrains.annotations.Nullable;
 
 import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
 import java.util.*;
 
 /**
@@ -124,6 +127,9 @@ public final class Converter {
                     // No conversion required, but don't apply for java.lang.Object
                     return CONVERSION_TRIVIAL;
                 }
+                if (from instanceof NativeArrayBuffer && target != TypeInfo.OBJECT && target.asClass().isAssignableFrom(ByteBuffer.class)) {
+                    return CONVERSION_TRIVIAL;
+                }
                 if (target instanceof ArrayTypeInfo) {
                     if (from instanceof NativeArray) {
                         // This is a native array conversion to a java array
@@ -345,6 +351,8 @@ public final class Converter {
                     return NativeJavaObject.coerceToNumber(target, from);
                 } else if (target.asClass().isInstance(from)) {
                     return from;
+                } else if (from instanceof NativeArrayBuffer buffer && target.asClass().isAssignableFrom(ByteBuffer.class)) {
+                    return buffer.getBuffer();
                 } else if (target == TypeInfo.DATE && from instanceof NativeDate) {
                     double time = ((NativeDate) from).getJSTimeValue();
                     // XXX: This will replace NaN by 0
@@ -388,6 +396,8 @@ public final class Converter {
             return ArrayValueProvider.fromNativeArray(array);
         } else if (value instanceof NativeJavaList list) {
             return ArrayValueProvider.fromJavaList(list.list, list);
+        } else if (value instanceof NativeTypedArrayView<?> view) {
+            return ArrayValueProvider.fromExternalArray(view, view);
         } else if (value instanceof List<?> list) {
             return ArrayValueProvider.fromJavaList(list, list);
         } else if (value instanceof Iterable<?> itr) {
@@ -412,6 +422,12 @@ public final class Converter {
 
             int len = Array.getLength(from);
             return len == 0 ? target.newArray(0) : new ArrayValueProvider.FromJavaArray(from, len).createArray(cx, target);
+        } else if (from instanceof NativeTypedArrayView<?> view) {
+            // a typed array wrapping a Java array of the requested type is passed back without copying
+            val array = view.getJavaArray();
+            if (array != null && (target == null || array.getClass().getComponentType() == target.asClass())) {
+                return array;
+            }
         }
 
         return arrayValueProviderOf(from).createArray(cx, target);
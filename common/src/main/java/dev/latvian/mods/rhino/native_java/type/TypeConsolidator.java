@@ -2,7 +2,6 @@ package dev.latvian.mods.rhino.native_java.type;
 
 import dev.latvian.mods.rhino.native_java.type.info.TypeInfo;
 import dev.latvian.mods.rhino.native_java.type.info.VariableTypeInfo;
-import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import lombok.val;
@@ -18,7 +17,12 @@ import java.util.*;
  */
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public final class TypeConsolidator {
-    private static final Map<Class<?>, Map<VariableTypeInfo, TypeInfo>> MAPPINGS = new Reference2ObjectOpenHashMap<>();
+    private static final ClassValue<Map<VariableTypeInfo, TypeInfo>> MAPPINGS = new ClassValue<Map<VariableTypeInfo, TypeInfo>>() {
+        @Override
+        protected Map<VariableTypeInfo, TypeInfo> computeValue(Class<?> type) {
+            return collect(type);
+        }
+    };
 
     private static final boolean DEBUG = false;
 
@@ -73,9 +77,7 @@ public final class TypeConsolidator {
         if (type == null || type.isPrimitive() || type == Object.class) {
             return null;
         }
-        synchronized (MAPPINGS) {
-            return MAPPINGS.computeIfAbsent(type, TypeConsolidator::collect);
-        }
+        return MAPPINGS.get(type);
     }
 
     @NotNull
@@ -1,11 +1,6 @@
 package dev.latvian.mods.rhino.native_java.type.info;
 
-import java.util.IdentityHashMap;
-import java.util.Map;
-
 public class InterfaceTypeInfo extends ClassTypeInfo {
-	static final Map<Class<?>, InterfaceTypeInfo> CACHE = new IdentityHashMap<>();
-
 	private Boolean functional;
 
 	InterfaceTypeInfo(Class<?> type) {
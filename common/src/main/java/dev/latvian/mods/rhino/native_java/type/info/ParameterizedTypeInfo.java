@@ -35,22 +35,30 @@ public final class ParameterizedTypeInfo extends TypeInfoBase {
 		return index >= 0 && index < params.length && params[index] != TypeInfo.OBJECT ? params[index] : TypeInfo.NONE;
 	}
 
+	static int hashCode(TypeInfo rawType, TypeInfo[] params) {
+		val hash = Objects.hash(rawType, Arrays.hashCode(params));
+		return hash == 0 ? 1 : hash;
+	}
+
 	@Override
 	public int hashCode() {
 		if (hashCode == 0) {
-			hashCode = Objects.hash(rawType, Arrays.hashCode(params));
-
-			if (hashCode == 0) {
-				hashCode = 1;
-			}
+			hashCode = hashCode(rawType, params);
 		}
 
 		return hashCode;
 	}
 
+	/**
+	 * {@link #equals(Object)} without a {@link ParameterizedTypeInfo} to compare with
+	 */
+	boolean matches(TypeInfo rawType, TypeInfo[] params) {
+		return this.params.length == params.length && this.rawType.equals(rawType) && Arrays.deepEquals(this.params, params);
+	}
+
 	@Override
 	public boolean equals(Object object) {
-		return this == object || object instanceof ParameterizedTypeInfo that && params.length == that.params.length && rawType.equals(that.rawType) && Arrays.deepEquals(params, that.params);
+		return this == object || object instanceof ParameterizedTypeInfo that && matches(that.rawType, that.params);
 	}
 
 	@Override
@@ -127,6 +135,6 @@ public final class ParameterizedTypeInfo extends TypeInfoBase {
 		val consolidatedParams = TypeConsolidator.consolidateAll(this.params, mapping);
 		return consolidatedParams == this.params
 			? this
-			: new ParameterizedTypeInfo(rawType, consolidatedParams);
+			: TypeInfoInterner.ofParameterized(rawType, consolidatedParams);
 	}
 }
@@ -162,18 +162,8 @@ public interface TypeInfo {
 			return STRING_ARRAY;
 		} else if (c.isArray()) {
 			return of(c.getComponentType()).asArray();
-		} else if (c.isEnum()) {
-			synchronized (EnumTypeInfo.CACHE) {
-				return EnumTypeInfo.CACHE.computeIfAbsent(c, EnumTypeInfo::new);
-			}
-		} else if (c.isInterface()) {
-			synchronized (InterfaceTypeInfo.CACHE) {
-				return InterfaceTypeInfo.CACHE.computeIfAbsent(c, InterfaceTypeInfo::new);
-			}
-		}
-		synchronized (BasicClassTypeInfo.CACHE) {
-			return BasicClassTypeInfo.CACHE.computeIfAbsent(c, BasicClassTypeInfo::new);
 		}
+		return TypeInfoInterner.ofClass(c);
 	}
 
 	static TypeInfo of(Type type) {
@@ -238,7 +228,7 @@ public interface TypeInfo {
 			return this;
 		}
 
-		return new ParameterizedTypeInfo(this, params);
+		return TypeInfoInterner.ofParameterized(this, params);
 	}
 
 	default boolean isFunctionalInterface() {
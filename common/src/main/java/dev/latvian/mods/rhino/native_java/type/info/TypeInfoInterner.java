@@ -0,0 +1,157 @@
+package dev.latvian.mods.rhino.native_java.type.info;
+
+import lombok.val;
+
+import java.lang.reflect.Executable;
+import java.lang.reflect.TypeVariable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lock-free interning of {@link TypeInfo}s, read without any monitor once a type is known.
+ * <p>
+ * Everything is stored in {@link ClassValue}s of the class a type is derived from. A parameterization is only interned
+ * if all classes it contains, including the classes declaring its type variables, are visible from the class loader of
+ * its raw class, so that the cache does not keep any class loader alive that the raw class itself does not, see
+ * {@link TypeUtils#isVisibleFrom(ClassLoader, TypeInfo)}.
+ *
+ * @author ZZZank
+ */
+final class TypeInfoInterner {
+	/**
+	 * upper bound of parameterizations interned for a single raw class, further ones are created on demand
+	 */
+	private static final int MAX_PARAMETERIZED = 256;
+
+	private static final ClassValue<ClassTypeInfo> CLASSES = new ClassValue<ClassTypeInfo>() {
+		@Override
+		protected ClassTypeInfo computeValue(Class<?> type) {
+			if (type.isEnum()) {
+				return new EnumTypeInfo(type);
+			} else if (type.isInterface()) {
+				return new InterfaceTypeInfo(type);
+			}
+			return new BasicClassTypeInfo(type);
+		}
+	};
+
+	private static final ClassValue<Parameterizations> PARAMETERIZED = new ClassValue<Parameterizations>() {
+		@Override
+		protected Parameterizations computeValue(Class<?> type) {
+			return new Parameterizations();
+		}
+	};
+
+	/**
+	 * keyed by the class declaring a type variable, or declaring the method/constructor that declares it
+	 */
+	private static final ClassValue<Map<TypeVariable<?>, VariableTypeInfo>> VARIABLES = new ClassValue<Map<TypeVariable<?>, VariableTypeInfo>>() {
+		@Override
+		protected Map<TypeVariable<?>, VariableTypeInfo> computeValue(Class<?> type) {
+			return new ConcurrentHashMap<>();
+		}
+	};
+
+	private TypeInfoInterner() {
+	}
+
+	/**
+	 * @param type a non-primitive, non-array class
+	 */
+	static ClassTypeInfo ofClass(Class<?> type) {
+		return CLASSES.get(type);
+	}
+
+	static TypeInfo ofParameterized(TypeInfo rawType, TypeInfo[] params) {
+		val raw = rawType.asClass();
+		if (raw == null || raw.isPrimitive()) {
+			return new ParameterizedTypeInfo(rawType, params);
+		}
+		val interned = PARAMETERIZED.get(raw);
+		val hash = ParameterizedTypeInfo.hashCode(rawType, params);
+		val existing = interned.find(rawType, params, hash);
+		if (existing != null) {
+			return existing;
+		}
+		val created = new ParameterizedTypeInfo(rawType, params);
+		return isVisibleFrom(raw, params) ? interned.intern(created, hash) : created;
+	}
+
+	private static boolean isVisibleFrom(Class<?> raw, TypeInfo[] params) {
+		val loader = raw.getClassLoader();
+		for (val param : params) {
+			if (!TypeUtils.isVisibleFrom(loader, param)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Open addressing table of the parameterizations of one raw class, searched without allocating or locking, replaced
+	 * as a whole when a parameterization is added
+	 */
+	private static final class Parameterizations {
+		private volatile ParameterizedTypeInfo[] table = new ParameterizedTypeInfo[8];
+		private int size;
+
+		ParameterizedTypeInfo find(TypeInfo rawType, TypeInfo[] params, int hash) {
+			val t = table;
+			val mask = t.length - 1;
+			for (int i = hash & mask; ; i = (i + 1) & mask) {
+				val entry = t[i];
+				if (entry == null) {
+					return null;
+				} else if (entry.hashCode() == hash && entry.matches(rawType, params)) {
+					return entry;
+				}
+			}
+		}
+
+		synchronized ParameterizedTypeInfo intern(ParameterizedTypeInfo created, int hash) {
+			val raced = find(created.rawType(), created.params(), hash);
+			if (raced != null) {
+				return raced;
+			} else if (size >= MAX_PARAMETERIZED) {
+				return created;
+			}
+			val old = table;
+			final ParameterizedTypeInfo[] t;
+			// keep the load factor at most 1/2, so that searches always end on an empty slot
+			if ((size + 1) * 2 > old.length) {
+				t = new ParameterizedTypeInfo[old.length * 2];
+				for (val entry : old) {
+					if (entry != null) {
+						insert(t, entry, entry.hashCode());
+					}
+				}
+			} else {
+				t = old.clone();
+			}
+			insert(t, created, hash);
+			size++;
+			table = t;
+			return created;
+		}
+
+		private static void insert(ParameterizedTypeInfo[] t, ParameterizedTypeInfo entry, int hash) {
+			val mask = t.length - 1;
+			int i = hash & mask;
+			while (t[i] != null) {
+				i = (i + 1) & mask;
+			}
+			t[i] = entry;
+		}
+	}
+
+	static VariableTypeInfo ofVariable(TypeVariable<?> variable) {
+		return VARIABLES.get(ownerOf(variable)).computeIfAbsent(variable, VariableTypeInfo::new);
+	}
+
+	static Class<?> ownerOf(TypeVariable<?> variable) {
+		val declaration = variable.getGenericDeclaration();
+		return declaration instanceof Class<?> c
+			? c
+			: declaration instanceof Executable e ? e.getDeclaringClass() : Object.class;
+	}
+}
@@ -38,4 +38,62 @@ public class TypeUtils {
 			return fallback;
 		}
 	}
+
+	/**
+	 * @return true if every class {@code type} refers to, including the classes declaring its type variables, is loaded
+	 * by {@code loader} or one of its parents, so that keeping {@code type} alongside {@code loader} does not keep any
+	 * other class loader alive
+	 */
+	public static boolean isVisibleFrom(ClassLoader loader, TypeInfo type) {
+		if (type instanceof VariableTypeInfo variable) {
+			// bounds are not resolved, they may refer to the variable itself like E extends Enum<E>
+			return isVisibleFrom(loader, variable.owner);
+		} else if (type instanceof ParameterizedTypeInfo parameterized) {
+			if (!isVisibleFrom(loader, parameterized.rawType())) {
+				return false;
+			}
+
+			for (var param : parameterized.params()) {
+				if (!isVisibleFrom(loader, param)) {
+					return false;
+				}
+			}
+
+			return true;
+		} else if (type instanceof ArrayTypeInfo array) {
+			return isVisibleFrom(loader, array.componentType());
+		}
+
+		for (var c : type.getContainedComponentClasses()) {
+			if (!isVisibleFrom(loader, c)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * @return true if {@code type} is null, or loaded by {@code loader} or one of its parents
+	 */
+	public static boolean isVisibleFrom(ClassLoader loader, Class<?> type) {
+		if (type == null) {
+			return true;
+		}
+
+		var ancestor = type.getClassLoader();
+
+		if (ancestor == null) {
+			// bootstrap loader, never unloaded
+			return true;
+		}
+
+		for (var l = loader; l != null; l = l.getParent()) {
+			if (l == ancestor) {
+				return true;
+			}
+		}
+
+		return false;
+	}
 }
@@ -4,44 +4,28 @@ import lombok.val;
 import org.jetbrains.annotations.NotNull;
 
 import java.lang.reflect.TypeVariable;
-import java.util.IdentityHashMap;
 import java.util.Map;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * @author ZZZank
  */
 public class VariableTypeInfo extends TypeInfoBase {
-    private static final Map<TypeVariable<?>, VariableTypeInfo> CACHE = new IdentityHashMap<>();
-    private static final Lock READ;
-    private static final Lock WRITE;
-
-    static {
-        val l = new ReentrantReadWriteLock();
-        READ = l.readLock();
-        WRITE = l.writeLock();
-    }
-
     private Object bound;
+    /**
+     * the class declaring the variable, or declaring the method/constructor that declares it
+     */
+    final Class<?> owner;
 
     VariableTypeInfo(TypeVariable<?> t) {
         this.bound = t;
+        this.owner = TypeInfoInterner.ownerOf(t);
     }
 
     /**
      * we don't need type name to match a TypeVariable, it's designed to be unique
      */
     static TypeInfo of(TypeVariable<?> t) {
-        READ.lock();
-        var got = CACHE.get(t);
-        READ.unlock();
-        if (got == null) {
-            WRITE.lock();
-            got = CACHE.computeIfAbsent(t, VariableTypeInfo::new);
-            WRITE.unlock();
-        }
-        return got;
+        return TypeInfoInterner.ofVariable(t);
     }
 
     public TypeInfo getBound() {
@@ -0,0 +1,199 @@
+package dev.latvian.mods.rhino.typedarrays;
+
+import dev.latvian.mods.rhino.Context;
+import dev.latvian.mods.rhino.IdFunctionObject;
+import dev.latvian.mods.rhino.IdScriptableObject;
+import dev.latvian.mods.rhino.ScriptRuntime;
+import dev.latvian.mods.rhino.Scriptable;
+import dev.latvian.mods.rhino.Undefined;
+
+import java.nio.ByteBuffer;
+
+/**
+ * An ArrayBuffer: a fixed number of bytes that typed arrays and DataViews provide access to.
+ * <p>
+ * The bytes are stored in a {@link ByteBuffer}. Buffers created by scripts are allocated on the heap, host code can
+ * also {@link #wrap(Scriptable, ByteBuffer) wrap} a buffer of its own, including a direct one, which is then shared
+ * with scripts without copying.
+ *
+ * @author ZZZank
+ */
+public class NativeArrayBuffer extends IdScriptableObject {
+	private static final long serialVersionUID = -4951186253462451094L;
+
+	public static final String CLASS_NAME = "ArrayBuffer";
+
+	private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+	/**
+	 * position 0, limit and capacity are the byte length
+	 */
+	final transient ByteBuffer buffer;
+
+	public static void init(Context cx, Scriptable scope, boolean sealed) {
+		NativeArrayBuffer obj = new NativeArrayBuffer();
+		obj.exportAsJSClass(MAX_PROTOTYPE_ID, scope, sealed);
+	}
+
+	/**
+	 * Create an ArrayBuffer sharing the remaining bytes of {@code buffer}, with its scope and prototype set up.
+	 * Position and limit of {@code buffer} are not modified.
+	 */
+	public static NativeArrayBuffer wrap(Scriptable scope, ByteBuffer buffer) {
+		NativeArrayBuffer result = new NativeArrayBuffer(buffer);
+		ScriptRuntime.setObjectProtoAndParent(result, scope);
+		return result;
+	}
+
+	public NativeArrayBuffer() {
+		this(EMPTY);
+	}
+
+	/**
+	 * Create an ArrayBuffer sharing the remaining bytes of {@code buffer}. Position and limit of {@code buffer} are
+	 * not modified.
+	 */
+	public NativeArrayBuffer(ByteBuffer buffer) {
+		this.buffer = buffer.slice();
+	}
+
+	@Override
+	public String getClassName() {
+		return CLASS_NAME;
+	}
+
+	/**
+	 * @return the bytes of this ArrayBuffer, shared with scripts. The returned buffer is a duplicate, so that its
+	 * position, limit and byte order can be changed freely
+	 */
+	public ByteBuffer getBuffer() {
+		return buffer.duplicate();
+	}
+
+	public int getLength() {
+		return buffer.capacity();
+	}
+
+	static ByteBuffer allocate(double length) {
+		if (length < 0 || length > Integer.MAX_VALUE) {
+			throw ScriptRuntime.rangeErrorById("msg.arraybuf.bad.length", ScriptRuntime.toString(length));
+		}
+		return ByteBuffer.allocate((int) length);
+	}
+
+	/**
+	 * @return a ByteBuffer over {@code length} bytes of {@code buffer} starting at {@code offset}, with its own
+	 * position and limit
+	 */
+	static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+		ByteBuffer dup = buffer.duplicate();
+		dup.position(offset);
+		dup.limit(offset + length);
+		return dup.slice();
+	}
+
+	private NativeArrayBuffer js_slice(Scriptable scope, Object[] args) {
+		int length = buffer.capacity();
+		int start = clamp(ScriptRuntime.toInteger(args, 0), length);
+		int end = args.length > 1 && args[1] != Undefined.instance ? clamp(ScriptRuntime.toInteger(args[1]), length) : length;
+		int newLength = Math.max(0, end - start);
+		ByteBuffer copy = ByteBuffer.allocate(newLength);
+		copy.put(slice(buffer, start, newLength));
+		copy.clear();
+		return wrap(scope, copy);
+	}
+
+	/**
+	 * Resolve a relative index, negative values count from {@code length}
+	 */
+	static int clamp(double index, int length) {
+		if (index < 0) {
+			return (int) Math.max(0, length + index);
+		}
+		return (int) Math.min(index, length);
+	}
+
+	@Override
+	public Object execIdCall(IdFunctionObject f, Context cx, Scriptable scope, Scriptable thisObj, Object[] args) {
+		if (!f.hasTag(CLASS_NAME)) {
+			return super.execIdCall(f, cx, scope, thisObj, args);
+		}
+		int id = f.methodId();
+		return switch (id) {
+			case ConstructorId_isView -> args.length > 0 && args[0] instanceof NativeArrayBufferView;
+			case Id_constructor -> {
+				if (thisObj != null) {
+					throw ScriptRuntime.typeError1("msg.only.from.new", CLASS_NAME);
+				}
+				yield new NativeArrayBuffer(allocate(ScriptRuntime.toInteger(args, 0)));
+			}
+			case Id_slice -> realThis(thisObj, f).js_slice(scope, args);
+			default -> throw new IllegalArgumentException(String.valueOf(id));
+		};
+	}
+
+	private static NativeArrayBuffer realThis(Scriptable thisObj, IdFunctionObject f) {
+		if (!(thisObj instanceof NativeArrayBuffer buffer)) {
+			throw incompatibleCallError(f);
+		}
+		return buffer;
+	}
+
+	@Override
+	protected void fillConstructorProperties(IdFunctionObject ctor) {
+		addIdFunctionProperty(ctor, CLASS_NAME, ConstructorId_isView, "isView", 1);
+	}
+
+	@Override
+	protected void initPrototypeId(int id) {
+		switch (id) {
+			case Id_constructor -> initPrototypeMethod(CLASS_NAME, id, "constructor", 1);
+			case Id_slice -> initPrototypeMethod(CLASS_NAME, id, "slice", 2);
+			default -> throw new IllegalArgumentException(String.valueOf(id));
+		}
+	}
+
+	@Override
+	protected int findPrototypeId(String s) {
+		return switch (s) {
+			case "constructor" -> Id_constructor;
+			case "slice" -> Id_slice;
+			default -> 0;
+		};
+	}
+
+	private static final int Id_constructor = 1, Id_slice = 2, MAX_PROTOTYPE_ID = Id_slice;
+
+	private static final int ConstructorId_isView = -1;
+
+	private static final int Id_byteLength = 1, MAX_INSTANCE_ID = Id_byteLength;
+
+	@Override
+	protected int getMaxInstanceId() {
+		return MAX_INSTANCE_ID;
+	}
+
+	@Override
+	protected int findInstanceIdInfo(String s) {
+		if ("byteLength".equals(s)) {
+			return instanceIdInfo(READONLY | PERMANENT | DONTENUM, Id_byteLength);
+		}
+		return super.findInstanceIdInfo(s);
+	}
+
+	@Override
+	protected String getInstanceIdName(int id) {
+		if (id == Id_byteLength) {
+			return "byteLength";
+		}
+		return super.getInstanceIdName(id);
+	}
+
+	@Override
+	protected Object getInstanceIdValue(int id) {
+		if (id == Id_byteLength) {
+			return ScriptRuntime.wrapInt(buffer.capacity());
+		}
+		return super.getInstanceIdValue(id);
+	}
+}
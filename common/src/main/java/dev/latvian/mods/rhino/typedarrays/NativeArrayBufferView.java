@@ -0,0 +1,99 @@
+package dev.latvian.mods.rhino.typedarrays;
+
+import dev.latvian.mods.rhino.Context;
+import dev.latvian.mods.rhino.IdScriptableObject;
+import dev.latvian.mods.rhino.ScriptRuntime;
+import dev.latvian.mods.rhino.Undefined;
+
+import java.nio.ByteOrder;
+
+/**
+ * Base class of typed arrays and DataView: a view of a range of bytes of a {@link NativeArrayBuffer}.
+ *
+ * @author ZZZank
+ */
+public abstract class NativeArrayBufferView extends IdScriptableObject {
+	private static final long serialVersionUID = 6884475582973958419L;
+
+	/**
+	 * null for typed arrays that wrap a Java array
+	 */
+	protected final NativeArrayBuffer arrayBuffer;
+	protected final int offset;
+	protected final int byteLength;
+
+	protected NativeArrayBufferView() {
+		this(null, 0, 0);
+	}
+
+	protected NativeArrayBufferView(NativeArrayBuffer arrayBuffer, int offset, int byteLength) {
+		this.arrayBuffer = arrayBuffer;
+		this.offset = offset;
+		this.byteLength = byteLength;
+	}
+
+	/**
+	 * @return the ArrayBuffer this view accesses, or null if this is a typed array wrapping a Java array
+	 */
+	public NativeArrayBuffer getBuffer() {
+		return arrayBuffer;
+	}
+
+	public int getByteOffset() {
+		return offset;
+	}
+
+	public int getByteLength() {
+		return byteLength;
+	}
+
+	/**
+	 * @return the byte order that typed arrays created now store their elements in, see
+	 * {@link Context#FEATURE_LITTLE_ENDIAN}
+	 */
+	protected static ByteOrder byteOrder() {
+		Context cx = Context.getCurrentContext();
+		return cx != null && cx.hasFeature(Context.FEATURE_LITTLE_ENDIAN) ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+	}
+
+	protected static boolean isArg(Object[] args, int index) {
+		return index < args.length && args[index] != Undefined.instance;
+	}
+
+	protected static final int Id_buffer = 1, Id_byteOffset = 2, Id_byteLength = 3, MAX_INSTANCE_ID = Id_byteLength;
+
+	@Override
+	protected int getMaxInstanceId() {
+		return MAX_INSTANCE_ID;
+	}
+
+	@Override
+	protected int findInstanceIdInfo(String s) {
+		return switch (s) {
+			case "buffer" -> instanceIdInfo(READONLY | PERMANENT | DONTENUM, Id_buffer);
+			case "byteOffset" -> instanceIdInfo(READONLY | PERMANENT | DONTENUM, Id_byteOffset);
+			case "byteLength" -> instanceIdInfo(READONLY | PERMANENT | DONTENUM, Id_byteLength);
+			default -> super.findInstanceIdInfo(s);
+		};
+	}
+
+	@Override
+	protected String getInstanceIdName(int id) {
+		return switch (id) {
+			case Id_buffer -> "buffer";
+			case Id_byteOffset -> "byteOffset";
+			case Id_byteLength -> "byteLength";
+			default -> super.getInstanceIdName(id);
+		};
+	}
+
+	@Override
+	protected Object getInstanceIdValue(int id) {
+		return switch (id) {
+			case Id_buffer -> arrayBuffer == null ? Undefined.instance : arrayBuffer;
+			case Id_byteOffset -> ScriptRuntime.wrapInt(offset);
+			case Id_byteLength -> ScriptRuntime.wrapInt(byteLength);
+			default -> super.getInstanceIdValue(id);
+		};
+	}
+}
@@ -0,0 +1,207 @@
+package dev.latvian.mods.rhino.typedarrays;
+
+import dev.latvian.mods.rhino.Context;
+import dev.latvian.mods.rhino.IdFunctionObject;
+import dev.latvian.mods.rhino.ScriptRuntime;
+import dev.latvian.mods.rhino.Scriptable;
+import dev.latvian.mods.rhino.Undefined;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * DataView: reads and writes numbers of any type at any offset of an ArrayBuffer. Unlike typed arrays, the byte
+ * order is chosen by each call, and is big endian unless requested otherwise. Writes to a sealed DataView throw, writes
+ * to a read-only buffer wrapped by host code are ignored.
+ *
+ * @author ZZZank
+ */
+public class NativeDataView extends NativeArrayBufferView {
+	private static final long serialVersionUID = 1427967607557438968L;
+
+	public static final String CLASS_NAME = "DataView";
+
+	private final transient ByteBuffer bigEndian;
+	private final transient ByteBuffer littleEndian;
+
+	public static void init(Context cx, Scriptable scope, boolean sealed) {
+		NativeDataView obj = new NativeDataView();
+		obj.exportAsJSClass(MAX_PROTOTYPE_ID, scope, sealed);
+	}
+
+	public NativeDataView() {
+		this.bigEndian = null;
+		this.littleEndian = null;
+	}
+
+	public NativeDataView(NativeArrayBuffer arrayBuffer, int offset, int length) {
+		super(arrayBuffer, offset, length);
+		this.bigEndian = NativeArrayBuffer.slice(arrayBuffer.buffer, offset, length);
+		this.littleEndian = bigEndian.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	@Override
+	public String getClassName() {
+		return CLASS_NAME;
+	}
+
+	private static NativeDataView js_constructor(Object[] args) {
+		if (!(args.length > 0 && args[0] instanceof NativeArrayBuffer buffer)) {
+			throw ScriptRuntime.typeError1("msg.arg.not.object", ScriptRuntime.typeof(args.length > 0 ? args[0] : Undefined.instance));
+		}
+		double offset = isArg(args, 1) ? ScriptRuntime.toInteger(args[1]) : 0;
+		if (offset < 0 || offset > buffer.getLength()) {
+			throw ScriptRuntime.rangeErrorById("msg.dataview.bad.offset", ScriptRuntime.toString(offset));
+		}
+		double length = isArg(args, 2) ? ScriptRuntime.toInteger(args[2]) : buffer.getLength() - offset;
+		if (length < 0 || offset + length > buffer.getLength()) {
+			throw ScriptRuntime.rangeErrorById("msg.typed.array.bad.range", ScriptRuntime.toString(offset), ScriptRuntime.toString(offset + length));
+		}
+		return new NativeDataView(buffer, (int) offset, (int) length);
+	}
+
+	/**
+	 * @return the buffer to access for the endianness argument at {@code args[index]}
+	 */
+	private ByteBuffer buffer(Object[] args, int index) {
+		return index < args.length && ScriptRuntime.toBoolean(args[index]) ? littleEndian : bigEndian;
+	}
+
+	/**
+	 * @return the offset given by {@code args[0]}, checked to have {@code size} bytes accessible
+	 */
+	private int offset(Object[] args, int size) {
+		double offset = ScriptRuntime.toInteger(args, 0);
+		if (offset < 0 || offset + size > byteLength) {
+			throw ScriptRuntime.rangeErrorById("msg.dataview.bad.offset", ScriptRuntime.toString(offset));
+		}
+		return (int) offset;
+	}
+
+	private Object js_get(int id, Object[] args) {
+		return switch (id) {
+			case Id_getInt8 -> (int) bigEndian.get(offset(args, 1));
+			case Id_getUint8 -> bigEndian.get(offset(args, 1)) & 0xFF;
+			case Id_getInt16 -> (int) buffer(args, 1).getShort(offset(args, 2));
+			case Id_getUint16 -> buffer(args, 1).getShort(offset(args, 2)) & 0xFFFF;
+			case Id_getInt32 -> buffer(args, 1).getInt(offset(args, 4));
+			case Id_getUint32 -> {
+				int value = buffer(args, 1).getInt(offset(args, 4));
+				if (value >= 0) {
+					yield value;
+				}
+				yield (double) (value & 0xFFFFFFFFL);
+			}
+			case Id_getFloat32 -> (double) buffer(args, 1).getFloat(offset(args, 4));
+			case Id_getFloat64 -> buffer(args, 1).getDouble(offset(args, 8));
+			default -> throw new IllegalArgumentException(String.valueOf(id));
+		};
+	}
+
+	private Object js_set(int id, Object[] args) {
+		Object value = args.length > 1 ? args[1] : Undefined.instance;
+		if (isSealed()) {
+			throw Context.reportRuntimeError1("msg.modify.sealed", ScriptRuntime.toString(args, 0));
+		} else if (bigEndian.isReadOnly()) {
+			// like typed arrays, writes to a read-only buffer wrapped by host code are ignored
+			return Undefined.instance;
+		}
+		switch (id) {
+			case Id_setInt8, Id_setUint8 -> bigEndian.put(offset(args, 1), (byte) ScriptRuntime.toInt32(value));
+			case Id_setInt16, Id_setUint16 -> buffer(args, 2).putShort(offset(args, 2), (short) ScriptRuntime.toInt32(value));
+			case Id_setInt32 -> buffer(args, 2).putInt(offset(args, 4), ScriptRuntime.toInt32(value));
+			case Id_setUint32 -> buffer(args, 2).putInt(offset(args, 4), (int) ScriptRuntime.toUint32(value));
+			case Id_setFloat32 -> buffer(args, 2).putFloat(offset(args, 4), (float) ScriptRuntime.toNumber(value));
+			case Id_setFloat64 -> buffer(args, 2).putDouble(offset(args, 8), ScriptRuntime.toNumber(value));
+			default -> throw new IllegalArgumentException(String.valueOf(id));
+		}
+		return Undefined.instance;
+	}
+
+	@Override
+	public Object execIdCall(IdFunctionObject f, Context cx, Scriptable scope, Scriptable thisObj, Object[] args) {
+		if (!f.hasTag(CLASS_NAME)) {
+			return super.execIdCall(f, cx, scope, thisObj, args);
+		}
+		int id = f.methodId();
+		if (id == Id_constructor) {
+			if (thisObj != null) {
+				throw ScriptRuntime.typeError1("msg.only.from.new", CLASS_NAME);
+			}
+			return js_constructor(args);
+		}
+		if (!(thisObj instanceof NativeDataView self) || self.bigEndian == null) {
+			throw incompatibleCallError(f);
+		}
+		return id <= Id_getFloat64 ? self.js_get(id, args) : self.js_set(id, args);
+	}
+
+	@Override
+	protected void initPrototypeId(int id) {
+		String name = switch (id) {
+			case Id_constructor -> "constructor";
+			case Id_getInt8 -> "getInt8";
+			case Id_getUint8 -> "getUint8";
+			case Id_getInt16 -> "getInt16";
+			case Id_getUint16 -> "getUint16";
+			case Id_getInt32 -> "getInt32";
+			case Id_getUint32 -> "getUint32";
+			case Id_getFloat32 -> "getFloat32";
+			case Id_getFloat64 -> "getFloat64";
+			case Id_setInt8 -> "setInt8";
+			case Id_setUint8 -> "setUint8";
+			case Id_setInt16 -> "setInt16";
+			case Id_setUint16 -> "setUint16";
+			case Id_setInt32 -> "setInt32";
+			case Id_setUint32 -> "setUint32";
+			case Id_setFloat32 -> "setFloat32";
+			case Id_setFloat64 -> "setFloat64";
+			default -> throw new IllegalArgumentException(String.valueOf(id));
+		};
+		int arity = id == Id_constructor ? 3 : id <= Id_getFloat64 ? 1 : 2;
+		initPrototypeMethod(CLASS_NAME, id, name, arity);
+	}
+
+	@Override
+	protected int findPrototypeId(String s) {
+		return switch (s) {
+			case "constructor" -> Id_constructor;
+			case "getInt8" -> Id_getInt8;
+			case "getUint8" -> Id_getUint8;
+			case "getInt16" -> Id_getInt16;
+			case "getUint16" -> Id_getUint16;
+			case "getInt32" -> Id_getInt32;
+			case "getUint32" -> Id_getUint32;
+			case "getFloat32" -> Id_getFloat32;
+			case "getFloat64" -> Id_getFloat64;
+			case "setInt8" -> Id_setInt8;
+			case "setUint8" -> Id_setUint8;
+			case "setInt16" -> Id_setInt16;
+			case "setUint16" -> Id_setUint16;
+			case "setInt32" -> Id_setInt32;
+			case "setUint32" -> Id_setUint32;
+			case "setFloat32" -> Id_setFloat32;
+			case "setFloat64" -> Id_setFloat64;
+			default -> 0;
+		};
+	}
+
+	private static final int Id_constructor = 1,
+		Id_getInt8 = 2,
+		Id_getUint8 = 3,
+		Id_getInt16 = 4,
+		Id_getUint16 = 5,
+		Id_getInt32 = 6,
+		Id_getUint32 = 7,
+		Id_getFloat32 = 8,
+		Id_getFloat64 = 9,
+		Id_setInt8 = 10,
+		Id_setUint8 = 11,
+		Id_setInt16 = 12,
+		Id_setUint16 = 13,
+		Id_setInt32 = 14,
+		Id_setUint32 = 15,
+		Id_setFloat32 = 16,
+		Id_setFloat64 = 17,
+		MAX_PROTOTYPE_ID = Id_setFloat64;
+}
@@ -0,0 +1,77 @@
+package dev.latvian.mods.rhino.typedarrays;
+
+import dev.latvian.mods.rhino.Context;
+import dev.latvian.mods.rhino.ScriptRuntime;
+import dev.latvian.mods.rhino.Scriptable;
+
+import java.nio.FloatBuffer;
+
+/**
+ * Float32Array: a typed array of 32-bit floating point numbers
+ *
+ * @author ZZZank
+ */
+public class NativeFloat32Array extends NativeTypedArrayView<FloatBuffer> {
+	private static final long serialVersionUID = 1896169039555320421L;
+
+	public static final String CLASS_NAME = "Float32Array";
+	public static final int BYTES_PER_ELEMENT = 4;
+
+	public static void init(Context cx, Scriptable scope, boolean sealed) {
+		NativeFloat32Array obj = new NativeFloat32Array();
+		obj.exportAsJSClass(MAX_PROTOTYPE_ID, scope, sealed);
+	}
+
+	public NativeFloat32Array() {
+	}
+
+	public NativeFloat32Array(NativeArrayBuffer arrayBuffer, int offset, int length) {
+		this(arrayBuffer, offset, length, bytes(arrayBuffer, offset, length * BYTES_PER_ELEMENT).asFloatBuffer(), 0);
+	}
+
+	/**
+	 * Create a typed array sharing the elements of {@code array}
+	 */
+	public NativeFloat32Array(float[] array) {
+		this(null, 0, array.length, FloatBuffer.wrap(array), 0);
+	}
+
+	private NativeFloat32Array(NativeArrayBuffer arrayBuffer, int offset, int length, FloatBuffer elements, int start) {
+		super(arrayBuffer, offset, length, BYTES_PER_ELEMENT, elements, start);
+	}
+
+	@Override
+	public String getClassName() {
+		return CLASS_NAME;
+	}
+
+	@Override
+	public int getBytesPerElement() {
+		return BYTES_PER_ELEMENT;
+	}
+
+	@Override
+	protected Object js_get(int index) {
+		return (double) elements.get(start + index);
+	}
+
+	@Override
+	protected void js_set(int index, Object value) {
+		elements.put(start + index, (float) ScriptRuntime.toNumber(value));
+	}
+
+	@Override
+	protected NativeFloat32Array newInstance(NativeArrayBuffer arrayBuffer, int offset, int length) {
+		return new NativeFloat32Array(arrayBuffer, offset, length);
+	}
+
+	@Override
+	protected NativeFloat32Array newView(NativeArrayBuffer arrayBuffer, int offset, int length, FloatBuffer elements, int start) {
+		return new NativeFloat32Array(arrayBuffer, offset, length, elements, start);
+	}
+
+	@Override
+	public float[] getJavaArray() {
+		return (float[]) javaArray();
+	}
+}
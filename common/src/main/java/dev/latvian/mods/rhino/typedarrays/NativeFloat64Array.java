@@ -0,0 +1,77 @@
+package dev.latvian.mods.rhino.typedarrays;
+
+import dev.latvian.mods.rhino.Context;
+import dev.latvian.mods.rhino.ScriptRuntime;
+import dev.latvian.mods.rhino.Scriptable;
+
+import java.nio.DoubleBuffer;
+
+/**
+ * Float64Array: a typed array of 64-bit floating point numbers
+ *
+ * @author ZZZank
+ */
+public class NativeFloat64Array extends NativeTypedArrayView<DoubleBuffer> {
+	private static final long serialVersionUID = 7259544643672944372L;
+
+	public static final String CLASS_NAME = "Float64Array";
+	public static final int BYTES_PER_ELEMENT = 8;
+
+	public static void init(Context cx, Scriptable scope, boolean sealed) {
+		NativeFloat64Array obj = new NativeFloat64Array();
+		obj.exportAsJSClass(MAX_PROTOTYPE_ID, scope, sealed);
+	}
+
+	public NativeFloat64Array() {
+	}
+
+	public NativeFloat64Array(NativeArrayBuffer arrayBuffer, int offset, int length) {
+		this(arrayBuffer, offset, length, bytes(arrayBuffer, offset, length * BYTES_PER_ELEMENT).asDoubleBuffer(), 0);
+	}
+
+	/**
+	 * Create a typed array sharing the elements of {@code array}
+	 */
+	public NativeFloat64Array(double[] array) {
+		this(null, 0, array.length, DoubleBuffer.wrap(array), 0);
+	}
+
+	private NativeFloat64Array(NativeArrayBuffer arrayBuffer, int offset, int length, DoubleBuffer elements, int start) {
+		super(arrayBuffer, offset, length, BYTES_PER_ELEMENT, elements, start);
+	}
+
+	@Override
+	public String getClassName() {
+		return CLASS_NAME;
+	}
+
+	@Override
+	public int getBytesPerElement() {
+		return BYTES_PER_ELEMENT;
+	}
+
+	@Override
+	protected Object js_get(int index) {
+		return elements.get(start + index);
+	}
+
+	@Override
+	protected void js_set(int index, Object value) {
+		elements.put(start + index, ScriptRuntime.toNumber(value));
+	}
+
+	@Override
+	protected NativeFloat64Array newInstance(NativeArrayBuffer arrayBuffer, int offset, int length) {
+		return new NativeFloat64Array(arrayBuffer, offset, length);
+	}
+
+	@Override
+	protected NativeFloat64Array newView(NativeArrayBuffer arrayBuffer, int offset, int length, DoubleBuffer elements, int start) {
+		return new NativeFloat64Array(arrayBuffer, offset, length, elements, start);
+	}
+
+	@Override
+	public double[] getJavaArray() {
+		return (double[]) javaArray();
+	}
+}
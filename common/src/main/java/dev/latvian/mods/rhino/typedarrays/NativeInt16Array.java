@@ -0,0 +1,77 @@
+package dev.latvian.mods.rhino.typedarrays;
+
+import dev.latvian.mods.rhino.Context;
+import dev.latvian.mods.rhino.ScriptRuntime;
+import dev.latvian.mods.rhino.Scriptable;
+
+import java.nio.ShortBuffer;
+
+/**
+ * Int16Array: a typed array of 16-bit signed integers
+ *
+ * @author ZZZank
+ */
+public class NativeInt16Array extends NativeTypedArrayView<ShortBuffer> {
+	private static final long serialVersionUID = -9036536539002098286L;
+
+	public static final String CLASS_NAME = "Int16Array";
+	public static final int BYTES_PER_ELEMENT = 2;
+
+	public static void init(Context cx, Scriptable scope, boolean sealed) {
+		NativeInt16Array obj = new NativeInt16Array();
+		obj.exportAsJSClass(MAX_PROTOTYPE_ID, scope, sealed);
+	}
+
+	public NativeInt16Array() {
+	}
+
+	public NativeInt16Array(NativeArrayBuffer arrayBuffer, int offset, int length) {
+		this(arrayBuffer, offset, length, bytes(arrayBuffer, offset, length * BYTES_PER_ELEMENT).asShortBuffer(), 0);
+	}
+
+	/**
+	 * Create a typed array sharing the elements of {@code array}
+	 */
+	public NativeInt16Array(short[] array) {
+		this(null, 0, array.length, ShortBuffer.wrap(array), 0);
+	}
+
+	private NativeInt16Array(NativeArrayBuffer arrayBuffer, int offset, int length, ShortBuffer elements, int start) {
+		super(arrayBuffer, offset, length, BYTES_PER_ELEMENT, elements, start);
+	}
+
+	@Override
+	public String getClassName() {
+		return CLASS_NAME;
+	}
+
+	@Override
+	public int getBytesPerElement() {
+		return BYTES_PER_ELEMENT;
+	}
+
+	@Override
+	protected Object js_get(int index) {
+		return (int) elements.get(start + index);
+	}
+
+	@Override
+	protected void js_set(int index, Object value) {
+		elements.put(start + index, (short) ScriptRuntime.toInt32(value));
+	}
+
+	@Override
+	protected NativeInt16Array newInstance(NativeArrayBuffer arrayBuffer, int offset, int length) {
+		return new NativeInt16Array(arrayBuffer, offset, length);
+	}
+
+	@Override
+	protected NativeInt16Array newView(NativeArrayBuffer arrayBuffer, int offset, int length, ShortBuffer elements, int start) {
+		return new NativeInt16Array(arrayBuffer, offset, length, elements, start);
+	}
+
+	@Override
+	public short[] getJavaArray() {
+		return (short[]) javaArray();
+	}
+}
@@ -0,0 +1,77 @@
+package dev.latvian.mods.rhino.typedarrays;
+
+import dev.latvian.mods.rhino.Context;
+import dev.latvian.mods.rhino.ScriptRuntime;
+import dev.latvian.mods.rhino.Scriptable;
+
+import java.nio.IntBuffer;
+
+/**
+ * Int32Array: a typed array of 32-bit signed integers
+ *
+ * @author ZZZank
+ */
+public class NativeInt32Array extends NativeTypedArrayView<IntBuffer> {
+	private static final long serialVersionUID = 1883559040430138724L;
+
+	public static final String CLASS_NAME = "Int32Array";
+	public static final int BYTES_PER_ELEMENT = 4;
+
+	public static void init(Context cx, Scriptable scope, boolean sealed) {
+		NativeInt32Array obj = new NativeInt32Array();
+		obj.exportAsJSClass(MAX_PROTOTYPE_ID, scope, sealed);
+	}
+
+	public NativeInt32Array() {
+	}
+
+	public NativeInt32Array(NativeArrayBuffer arrayBuffer, int offset, int length) {
+		this(arrayBuffer, offset, length, bytes(arrayBuffer, offset, length * BYTES_PER_ELEMENT).asIntBuffer(), 0);
+	}
+
+	/**
+	 * Create a typed array sharing the elements of {@code array}
+	 */
+	public NativeInt32Array(int[] array) {
+		this(null, 0, array.length, IntBuffer.wrap(array), 0);
+	}
+
+	private NativeInt32Array(NativeArrayBuffer arrayBuffer, int offset, int length, IntBuffer elements, int start) {
+		super(arrayBuffer, offset, length, BYTES_PER_ELEMENT, elements, start);
+	}
+
+	@Override
+	public String getClassName() {
+		return CLASS_NAME;
+	}
+
+	@Override
+	public int getBytesPerElement() {
+		return BYTES_PER_ELEMENT;
+	}
+
+	@Override
+	protected Object js_get(int index) {
+		return elements.get(start + index);
+	}
+
+	@Override
+	protected void js_set(int index, Object value) {
+		elements.put(start + index, ScriptRuntime.toInt32(value));
+	}
+
+	@Override
+	protected NativeInt32Array newInstance(NativeArrayBuffer arrayBuffer, int offset, int length) {
+		return new NativeInt32Array(arrayBuffer, offset, length);
+	}
+
+	@Override
+	protected NativeInt32Array newView(NativeArrayBuffer arrayBuffer, int offset, int length, IntBuffer elements, int start) {
+		return new NativeInt32Array(arrayBuffer, offset, length, elements, start);
+	}
+
+	@Override
+	public int[] getJavaArray() {
+		return (int[]) javaArray();
+	}
+}
@@ -0,0 +1,70 @@
+package dev.latvian.mods.rhino.typedarrays;
+
+import dev.latvian.mods.rhino.Context;
+import dev.latvian.mods.rhino.ScriptRuntime;
+import dev.latvian.mods.rhino.Scriptable;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Int8Array: a typed array of 8-bit signed integers
+ *
+ * @author ZZZank
+ */
+public class NativeInt8Array extends NativeTypedArrayView<ByteBuffer> {
+	private static final long serialVersionUID = -567743345824317013L;
+
+	public static final String CLASS_NAME = "Int8Array";
+	public static final int BYTES_PER_ELEMENT = 1;
+
+	public static void init(Context cx, Scriptable scope, boolean sealed) {
+		NativeInt8Array obj = new NativeInt8Array();
+		obj.exportAsJSClass(MAX_PROTOTYPE_ID, scope, sealed);
+	}
+
+	public NativeInt8Array() {
+	}
+
+	public NativeInt8Array(NativeArrayBuffer arrayBuffer, int offset, int length) {
+		this(arrayBuffer, offset, length, bytes(arrayBuffer, offset, length * BYTES_PER_ELEMENT), 0);
+	}
+
+	private NativeInt8Array(NativeArrayBuffer arrayBuffer, int offset, int length, ByteBuffer elements, int start) {
+		super(arrayBuffer, offset, length, BYTES_PER_ELEMENT, elements, start);
+	}
+
+	@Override
+	public String getClassName() {
+		return CLASS_NAME;
+	}
+
+	@Override
+	public int getBytesPerElement() {
+		return BYTES_PER_ELEMENT;
+	}
+
+	@Override
+	protected Object js_get(int index) {
+		return (int) elements.get(start + index);
+	}
+
+	@Override
+	protected void js_set(int index, Object value) {
+		elements.put(start + index, (byte) ScriptRuntime.toInt32(value));
+	}
+
+	@Override
+	protected NativeInt8Array newInstance(NativeArrayBuffer arrayBuffer, int offset, int length) {
+		return new NativeInt8Array(arrayBuffer, offset, length);
+	}
+
+	@Override
+	protected NativeInt8Array newView(NativeArrayBuffer arrayBuffer, int offset, int length, ByteBuffer elements, int start) {
+		return new NativeInt8Array(arrayBuffer, offset, length, elements, start);
+	}
+
+	@Override
+	public byte[] getJavaArray() {
+		return (byte[]) javaArray();
+	}
+}
@@ -0,0 +1,445 @@
+package dev.latvian.mods.rhino.typedarrays;
+
+import dev.latvian.mods.rhino.Context;
+import dev.latvian.mods.rhino.ExternalArrayData;
+import dev.latvian.mods.rhino.IdFunctionObject;
+import dev.latvian.mods.rhino.NativeArrayIterator;
+import dev.latvian.mods.rhino.ScriptRuntime;
+import dev.latvian.mods.rhino.Scriptable;
+import dev.latvian.mods.rhino.ScriptableObject;
+import dev.latvian.mods.rhino.Symbol;
+import dev.latvian.mods.rhino.SymbolKey;
+import dev.latvian.mods.rhino.Undefined;
+
+import java.lang.reflect.Array;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Base class of the typed arrays, such as Int32Array or Float64Array.
+ * <p>
+ * Elements are stored in a typed NIO buffer, either a view of the bytes of a {@link NativeArrayBuffer}, in the byte
+ * order given by {@link Context#FEATURE_LITTLE_ENDIAN}, or a Java array of the matching primitive type, see
+ * {@link #wrapJavaArray(Scriptable, Object)}. Indexed access goes through {@link ExternalArrayData}, so elements are
+ * never boxed into slots. Host code can iterate the elements, as JavaScript values.
+ * <p>
+ * Subclasses only convert single elements, see {@link #js_get(int)} and {@link #js_set(int, Object)}. Element
+ * {@code i} is stored at index {@code start + i} of {@link #elements}, views created by {@code subarray} share the
+ * buffer of their source with another start. Writes to a sealed typed array throw, writes to a read-only buffer wrapped
+ * by host code are ignored.
+ *
+ * @author ZZZank
+ */
+public abstract class NativeTypedArrayView<B extends Buffer> extends NativeArrayBufferView implements ExternalArrayData, Iterable<Object> {
+	private static final long serialVersionUID = -3349713302806707580L;
+
+	protected final int length;
+	/**
+	 * null for the prototype
+	 */
+	protected final transient B elements;
+	/**
+	 * index of the first element of this typed array in {@link #elements}
+	 */
+	protected final int start;
+	private final transient boolean readOnly;
+
+	protected NativeTypedArrayView() {
+		this.length = 0;
+		this.elements = null;
+		this.start = 0;
+		this.readOnly = false;
+	}
+
+	protected NativeTypedArrayView(NativeArrayBuffer arrayBuffer, int offset, int length, int bytesPerElement, B elements, int start) {
+		super(arrayBuffer, offset, length * bytesPerElement);
+		this.length = length;
+		this.elements = elements;
+		this.start = start;
+		this.readOnly = elements.isReadOnly();
+		setExternalArrayData(this);
+	}
+
+	/**
+	 * @return {@code byteLength} bytes of {@code arrayBuffer} starting at {@code offset}, in the byte order of new
+	 * typed arrays
+	 */
+	protected static ByteBuffer bytes(NativeArrayBuffer arrayBuffer, int offset, int byteLength) {
+		return NativeArrayBuffer.slice(arrayBuffer.buffer, offset, byteLength).order(byteOrder());
+	}
+
+	/**
+	 * Wrap a Java array as a typed array sharing its elements, for {@code byte[]} (Int8Array), {@code short[]}
+	 * (Int16Array), {@code int[]} (Int32Array), {@code float[]} (Float32Array) and {@code double[]} (Float64Array).
+	 * <p>
+	 * Typed arrays wrapping any array but a {@code byte[]} have no ArrayBuffer, their {@code buffer} property is
+	 * undefined.
+	 *
+	 * @return the typed array, or null if there is no typed array for the type of {@code array}
+	 */
+	public static NativeTypedArrayView<?> wrapJavaArray(Scriptable scope, Object array) {
+		NativeTypedArrayView<?> result;
+		if (array instanceof byte[] bytes) {
+			result = new NativeInt8Array(new NativeArrayBuffer(ByteBuffer.wrap(bytes)), 0, bytes.length);
+			ScriptRuntime.setObjectProtoAndParent(result.arrayBuffer, scope);
+		} else if (array instanceof short[] shorts) {
+			result = new NativeInt16Array(shorts);
+		} else if (array instanceof int[] ints) {
+			result = new NativeInt32Array(ints);
+		} else if (array instanceof float[] floats) {
+			result = new NativeFloat32Array(floats);
+		} else if (array instanceof double[] doubles) {
+			result = new NativeFloat64Array(doubles);
+		} else {
+			return null;
+		}
+		ScriptRuntime.setObjectProtoAndParent(result, scope);
+		return result;
+	}
+
+	public int getLength() {
+		return length;
+	}
+
+	public abstract int getBytesPerElement();
+
+	/**
+	 * @return the element at {@code index}, which is in range
+	 */
+	protected abstract Object js_get(int index);
+
+	/**
+	 * Convert {@code value} to the element type and store it at {@code index}, which is in range, even if this typed
+	 * array is sealed or read-only
+	 */
+	protected abstract void js_set(int index, Object value);
+
+	/**
+	 * @return a typed array of the same type over {@code length} elements of {@code arrayBuffer} starting at byte
+	 * {@code offset}
+	 */
+	protected abstract NativeTypedArrayView<B> newInstance(NativeArrayBuffer arrayBuffer, int offset, int length);
+
+	/**
+	 * @return a typed array of the same type over {@code length} elements of {@code elements} starting at index
+	 * {@code start}, which are the bytes of {@code arrayBuffer} starting at {@code offset}
+	 */
+	protected abstract NativeTypedArrayView<B> newView(NativeArrayBuffer arrayBuffer, int offset, int length, B elements, int start);
+
+	/**
+	 * @return the Java array holding exactly the elements of this typed array, or null if the elements are stored
+	 * in an ArrayBuffer or only in a part of a Java array
+	 */
+	public Object getJavaArray() {
+		return null;
+	}
+
+	/**
+	 * @see #getJavaArray()
+	 */
+	protected final Object javaArray() {
+		if (start != 0 || !elements.hasArray() || elements.arrayOffset() != 0) {
+			return null;
+		}
+		Object array = elements.array();
+		return Array.getLength(array) == length ? array : null;
+	}
+
+	/**
+	 * @return true if writes are ignored, because the elements are stored in a read-only buffer
+	 */
+	public boolean isReadOnly() {
+		return readOnly;
+	}
+
+	@Override
+	public Object getArrayElement(int index) {
+		return js_get(index);
+	}
+
+	@Override
+	public void setArrayElement(int index, Object value) {
+		if (isSealed()) {
+			throw Context.reportRuntimeError1("msg.modify.sealed", Integer.toString(index));
+		} else if (!readOnly) {
+			js_set(index, value);
+		}
+	}
+
+	@Override
+	public int getArrayLength() {
+		return length;
+	}
+
+	@Override
+	public Iterator<Object> iterator() {
+		return new Iterator<Object>() {
+			private int index;
+
+			@Override
+			public boolean hasNext() {
+				return index < length;
+			}
+
+			@Override
+			public Object next() {
+				if (index >= length) {
+					throw new NoSuchElementException();
+				}
+				return js_get(index++);
+			}
+		};
+	}
+
+	@Override
+	public void put(int index, Scriptable start, Object value) {
+		// writes out of range are ignored instead of creating a property
+		if (index >= 0 && index < length) {
+			setArrayElement(index, value);
+		}
+	}
+
+	private NativeTypedArrayView<B> js_constructor(Context cx, Scriptable scope, Object[] args) {
+		final int bytesPerElement = getBytesPerElement();
+		if (!isArg(args, 0)) {
+			return newInstance(NativeArrayBuffer.wrap(scope, NativeArrayBuffer.allocate(0)), 0, 0);
+		}
+		Object arg0 = args[0];
+		if (arg0 instanceof NativeArrayBuffer buffer) {
+			int byteOffset = isArg(args, 1) ? toIndex(args[1]) : 0;
+			if (byteOffset % bytesPerElement != 0) {
+				throw ScriptRuntime.rangeErrorById("msg.typed.array.bad.offset", byteOffset, bytesPerElement);
+			}
+			long byteLength;
+			if (isArg(args, 2)) {
+				byteLength = (long) toIndex(args[2]) * bytesPerElement;
+			} else {
+				byteLength = buffer.getLength() - byteOffset;
+				if (byteLength % bytesPerElement != 0) {
+					throw ScriptRuntime.rangeErrorById("msg.typed.array.bad.length", byteLength);
+				}
+			}
+			if (byteLength < 0 || byteOffset + byteLength > buffer.getLength()) {
+				throw ScriptRuntime.rangeErrorById("msg.typed.array.bad.range", byteOffset, byteOffset + byteLength);
+			}
+			return newInstance(buffer, byteOffset, (int) (byteLength / bytesPerElement));
+		} else if (arg0 instanceof NativeTypedArrayView<?> source) {
+			NativeTypedArrayView<B> result = allocate(scope, source.length);
+			for (int i = 0; i < source.length; i++) {
+				result.js_set(i, source.js_get(i));
+			}
+			return result;
+		} else if (arg0 instanceof Scriptable arrayLike) {
+			int len = toIndex(ScriptableObject.getProperty(arrayLike, "length"));
+			NativeTypedArrayView<B> result = allocate(scope, len);
+			for (int i = 0; i < len; i++) {
+				result.js_set(i, ScriptableObject.getProperty(arrayLike, i));
+			}
+			return result;
+		}
+		return allocate(scope, toIndex(arg0));
+	}
+
+	private NativeTypedArrayView<B> allocate(Scriptable scope, int length) {
+		long byteLength = (long) length * getBytesPerElement();
+		return newInstance(NativeArrayBuffer.wrap(scope, NativeArrayBuffer.allocate(byteLength)), 0, length);
+	}
+
+	private static int toIndex(Object value) {
+		if (value == Scriptable.NOT_FOUND) {
+			return 0;
+		}
+		double index = ScriptRuntime.toInteger(value);
+		if (index < 0 || index > Integer.MAX_VALUE) {
+			throw ScriptRuntime.rangeErrorById("msg.typed.array.bad.length", ScriptRuntime.toString(value));
+		}
+		return (int) index;
+	}
+
+	private Object js_set(Object[] args) {
+		Object source = args.length > 0 ? args[0] : Undefined.instance;
+		int offset = isArg(args, 1) ? toIndex(args[1]) : 0;
+		if (source instanceof NativeTypedArrayView<?> view) {
+			checkRange(offset, view.length);
+			if (view.arrayBuffer == arrayBuffer) {
+				// the ranges may overlap, read all elements before writing any
+				Object[] values = new Object[view.length];
+				for (int i = 0; i < values.length; i++) {
+					values[i] = view.js_get(i);
+				}
+				for (int i = 0; i < values.length; i++) {
+					setArrayElement(offset + i, values[i]);
+				}
+			} else {
+				for (int i = 0; i < view.length; i++) {
+					setArrayElement(offset + i, view.js_get(i));
+				}
+			}
+		} else if (source instanceof Scriptable arrayLike) {
+			int len = toIndex(ScriptableObject.getProperty(arrayLike, "length"));
+			checkRange(offset, len);
+			for (int i = 0; i < len; i++) {
+				setArrayElement(offset + i, ScriptableObject.getProperty(arrayLike, i));
+			}
+		} else {
+			throw ScriptRuntime.typeError1("msg.arg.not.object", ScriptRuntime.typeof(source));
+		}
+		return Undefined.instance;
+	}
+
+	private void checkRange(int offset, int count) {
+		if ((long) offset + count > length) {
+			throw ScriptRuntime.rangeErrorById("msg.typed.array.bad.range", offset, (long) offset + count);
+		}
+	}
+
+	private Object js_fill(Object[] args) {
+		Object value = args.length > 0 ? args[0] : Undefined.instance;
+		int start = isArg(args, 1) ? NativeArrayBuffer.clamp(ScriptRuntime.toInteger(args[1]), length) : 0;
+		int end = isArg(args, 2) ? NativeArrayBuffer.clamp(ScriptRuntime.toInteger(args[2]), length) : length;
+		for (int i = start; i < end; i++) {
+			setArrayElement(i, value);
+		}
+		return this;
+	}
+
+	private NativeTypedArrayView<B> js_subarray(Scriptable scope, Object[] args) {
+		int from = isArg(args, 0) ? NativeArrayBuffer.clamp(ScriptRuntime.toInteger(args[0]), length) : 0;
+		int to = isArg(args, 1) ? NativeArrayBuffer.clamp(ScriptRuntime.toInteger(args[1]), length) : length;
+		int count = Math.max(0, to - from);
+		NativeTypedArrayView<B> result = newView(arrayBuffer, offset + from * getBytesPerElement(), count, elements, start + from);
+		ScriptRuntime.setObjectProtoAndParent(result, scope);
+		return result;
+	}
+
+	private String js_toString() {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			if (i > 0) {
+				builder.append(',');
+			}
+			builder.append(ScriptRuntime.toString(js_get(i)));
+		}
+		return builder.toString();
+	}
+
+	@Override
+	public Object execIdCall(IdFunctionObject f, Context cx, Scriptable scope, Scriptable thisObj, Object[] args) {
+		if (!f.hasTag(getClassName())) {
+			return super.execIdCall(f, cx, scope, thisObj, args);
+		}
+		int id = f.methodId();
+		if (id == Id_constructor) {
+			if (thisObj != null) {
+				throw ScriptRuntime.typeError1("msg.only.from.new", getClassName());
+			}
+			return js_constructor(cx, scope, args);
+		}
+		NativeTypedArrayView<?> self = realThis(thisObj, f);
+		return switch (id) {
+			case Id_toString -> self.js_toString();
+			case Id_set -> self.js_set(args);
+			case Id_subarray -> self.js_subarray(scope, args);
+			case Id_fill -> self.js_fill(args);
+			case Id_keys -> new NativeArrayIterator(scope, self, NativeArrayIterator.ARRAY_ITERATOR_TYPE.KEYS);
+			case Id_entries -> new NativeArrayIterator(scope, self, NativeArrayIterator.ARRAY_ITERATOR_TYPE.ENTRIES);
+			case Id_values, SymbolId_iterator ->
+				new NativeArrayIterator(scope, self, NativeArrayIterator.ARRAY_ITERATOR_TYPE.VALUES);
+			default -> throw new IllegalArgumentException(String.valueOf(id));
+		};
+	}
+
+	private NativeTypedArrayView<?> realThis(Scriptable thisObj, IdFunctionObject f) {
+		if (thisObj == null || thisObj.getClass() != getClass()) {
+			throw incompatibleCallError(f);
+		}
+		return (NativeTypedArrayView<?>) thisObj;
+	}
+
+	@Override
+	protected void fillConstructorProperties(IdFunctionObject ctor) {
+		ctor.defineProperty("BYTES_PER_ELEMENT", ScriptRuntime.wrapInt(getBytesPerElement()), READONLY | PERMANENT | DONTENUM);
+	}
+
+	@Override
+	protected void initPrototypeId(int id) {
+		String tag = getClassName();
+		switch (id) {
+			case Id_constructor -> initPrototypeMethod(tag, id, "constructor", 3);
+			case Id_toString -> initPrototypeMethod(tag, id, "toString", 0);
+			case Id_set -> initPrototypeMethod(tag, id, "set", 2);
+			case Id_subarray -> initPrototypeMethod(tag, id, "subarray", 2);
+			case Id_fill -> initPrototypeMethod(tag, id, "fill", 3);
+			case Id_values -> initPrototypeMethod(tag, id, "values", 0);
+			case Id_keys -> initPrototypeMethod(tag, id, "keys", 0);
+			case Id_entries -> initPrototypeMethod(tag, id, "entries", 0);
+			case SymbolId_iterator -> initPrototypeMethod(tag, id, SymbolKey.ITERATOR, "[Symbol.iterator]", 0);
+			default -> throw new IllegalArgumentException(String.valueOf(id));
+		}
+	}
+
+	@Override
+	protected int findPrototypeId(Symbol k) {
+		return SymbolKey.ITERATOR.equals(k) ? SymbolId_iterator : 0;
+	}
+
+	@Override
+	protected int findPrototypeId(String s) {
+		return switch (s) {
+			case "constructor" -> Id_constructor;
+			case "toString" -> Id_toString;
+			case "set" -> Id_set;
+			case "subarray" -> Id_subarray;
+			case "fill" -> Id_fill;
+			case "values" -> Id_values;
+			case "keys" -> Id_keys;
+			case "entries" -> Id_entries;
+			default -> 0;
+		};
+	}
+
+	protected static final int Id_constructor = 1,
+		Id_toString = 2,
+		Id_set = 3,
+		Id_subarray = 4,
+		Id_fill = 5,
+		Id_values = 6,
+		Id_keys = 7,
+		Id_entries = 8,
+		SymbolId_iterator = 9,
+		MAX_PROTOTYPE_ID = SymbolId_iterator;
+
+	private static final int Id_BYTES_PER_ELEMENT = NativeArrayBufferView.MAX_INSTANCE_ID + 1,
+		MAX_INSTANCE_ID = Id_BYTES_PER_ELEMENT;
+
+	@Override
+	protected int getMaxInstanceId() {
+		return MAX_INSTANCE_ID;
+	}
+
+	@Override
+	protected int findInstanceIdInfo(String s) {
+		if ("BYTES_PER_ELEMENT".equals(s)) {
+			return instanceIdInfo(READONLY | PERMANENT | DONTENUM, Id_BYTES_PER_ELEMENT);
+		}
+		return super.findInstanceIdInfo(s);
+	}
+
+	@Override
+	protected String getInstanceIdName(int id) {
+		if (id == Id_BYTES_PER_ELEMENT) {
+			return "BYTES_PER_ELEMENT";
+		}
+		return super.getInstanceIdName(id);
+	}
+
+	@Override
+	protected Object getInstanceIdValue(int id) {
+		if (id == Id_BYTES_PER_ELEMENT) {
+			return ScriptRuntime.wrapInt(getBytesPerElement());
+		}
+		return super.getInstanceIdValue(id);
+	}
+}
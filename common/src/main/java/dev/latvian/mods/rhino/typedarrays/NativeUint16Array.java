@@ -0,0 +1,65 @@
+package dev.latvian.mods.rhino.typedarrays;
+
+import dev.latvian.mods.rhino.Context;
+import dev.latvian.mods.rhino.ScriptRuntime;
+import dev.latvian.mods.rhino.Scriptable;
+
+import java.nio.ShortBuffer;
+
+/**
+ * Uint16Array: a typed array of 16-bit unsigned integers
+ *
+ * @author ZZZank
+ */
+public class NativeUint16Array extends NativeTypedArrayView<ShortBuffer> {
+	private static final long serialVersionUID = 5809085595763522657L;
+
+	public static final String CLASS_NAME = "Uint16Array";
+	public static final int BYTES_PER_ELEMENT = 2;
+
+	public static void init(Context cx, Scriptable scope, boolean sealed) {
+		NativeUint16Array obj = new NativeUint16Array();
+		obj.exportAsJSClass(MAX_PROTOTYPE_ID, scope, sealed);
+	}
+
+	public NativeUint16Array() {
+	}
+
+	public NativeUint16Array(NativeArrayBuffer arrayBuffer, int offset, int length) {
+		this(arrayBuffer, offset, length, bytes(arrayBuffer, offset, length * BYTES_PER_ELEMENT).asShortBuffer(), 0);
+	}
+
+	private NativeUint16Array(NativeArrayBuffer arrayBuffer, int offset, int length, ShortBuffer elements, int start) {
+		super(arrayBuffer, offset, length, BYTES_PER_ELEMENT, elements, start);
+	}
+
+	@Override
+	public String getClassName() {
+		return CLASS_NAME;
+	}
+
+	@Override
+	public int getBytesPerElement() {
+		return BYTES_PER_ELEMENT;
+	}
+
+	@Override
+	protected Object js_get(int index) {
+		return elements.get(start + index) & 0xFFFF;
+	}
+
+	@Override
+	protected void js_set(int index, Object value) {
+		elements.put(start + index, (short) ScriptRuntime.toInt32(value));
+	}
+
+	@Override
+	protected NativeUint16Array newInstance(NativeArrayBuffer arrayBuffer, int offset, int length) {
+		return new NativeUint16Array(arrayBuffer, offset, length);
+	}
+
+	@Override
+	protected NativeUint16Array newView(NativeArrayBuffer arrayBuffer, int offset, int length, ShortBuffer elements, int start) {
+		return new NativeUint16Array(arrayBuffer, offset, length, elements, start);
+	}
+}
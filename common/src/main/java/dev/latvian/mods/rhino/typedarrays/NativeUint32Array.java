@@ -0,0 +1,72 @@
+package dev.latvian.mods.rhino.typedarrays;
+
+import dev.latvian.mods.rhino.Context;
+import dev.latvian.mods.rhino.ScriptRuntime;
+import dev.latvian.mods.rhino.Scriptable;
+
+import java.nio.IntBuffer;
+
+/**
+ * Uint32Array: a typed array of 32-bit unsigned integers
+ *
+ * @author ZZZank
+ */
+public class NativeUint32Array extends NativeTypedArrayView<IntBuffer> {
+	private static final long serialVersionUID = 5335573052269638652L;
+
+	public static final String CLASS_NAME = "Uint32Array";
+	public static final int BYTES_PER_ELEMENT = 4;
+
+	public static void init(Context cx, Scriptable scope, boolean sealed) {
+		NativeUint32Array obj = new NativeUint32Array();
+		obj.exportAsJSClass(MAX_PROTOTYPE_ID, scope, sealed);
+	}
+
+	public NativeUint32Array() {
+	}
+
+	public NativeUint32Array(NativeArrayBuffer arrayBuffer, int offset, int length) {
+		this(arrayBuffer, offset, length, bytes(arrayBuffer, offset, length * BYTES_PER_ELEMENT).asIntBuffer(), 0);
+	}
+
+	private NativeUint32Array(NativeArrayBuffer arrayBuffer, int offset, int length, IntBuffer elements, int start) {
+		super(arrayBuffer, offset, length, BYTES_PER_ELEMENT, elements, start);
+	}
+
+	@Override
+	public String getClassName() {
+		return CLASS_NAME;
+	}
+
+	@Override
+	public int getBytesPerElement() {
+		return BYTES_PER_ELEMENT;
+	}
+
+	@Override
+	protected Object js_get(int index) {
+		return toUnsigned(elements.get(start + index));
+	}
+
+	@Override
+	protected void js_set(int index, Object value) {
+		elements.put(start + index, (int) ScriptRuntime.toUint32(value));
+	}
+
+	private static Object toUnsigned(int value) {
+		if (value >= 0) {
+			return value;
+		}
+		return (double) (value & 0xFFFFFFFFL);
+	}
+
+	@Override
+	protected NativeUint32Array newInstance(NativeArrayBuffer arrayBuffer, int offset, int length) {
+		return new NativeUint32Array(arrayBuffer, offset, length);
+	}
+
+	@Override
+	protected NativeUint32Array newView(NativeArrayBuffer arrayBuffer, int offset, int length, IntBuffer elements, int start) {
+		return new NativeUint32Array(arrayBuffer, offset, length, elements, start);
+	}
+}
@@ -0,0 +1,65 @@
+package dev.latvian.mods.rhino.typedarrays;
+
+import dev.latvian.mods.rhino.Context;
+import dev.latvian.mods.rhino.ScriptRuntime;
+import dev.latvian.mods.rhino.Scriptable;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Uint8Array: a typed array of 8-bit unsigned integers
+ *
+ * @author ZZZank
+ */
+public class NativeUint8Array extends NativeTypedArrayView<ByteBuffer> {
+	private static final long serialVersionUID = -1531953561255975467L;
+
+	public static final String CLASS_NAME = "Uint8Array";
+	public static final int BYTES_PER_ELEMENT = 1;
+
+	public static void init(Context cx, Scriptable scope, boolean sealed) {
+		NativeUint8Array obj = new NativeUint8Array();
+		obj.exportAsJSClass(MAX_PROTOTYPE_ID, scope, sealed);
+	}
+
+	public NativeUint8Array() {
+	}
+
+	public NativeUint8Array(NativeArrayBuffer arrayBuffer, int offset, int length) {
+		this(arrayBuffer, offset, length, bytes(arrayBuffer, offset, length * BYTES_PER_ELEMENT), 0);
+	}
+
+	private NativeUint8Array(NativeArrayBuffer arrayBuffer, int offset, int length, ByteBuffer elements, int start) {
+		super(arrayBuffer, offset, length, BYTES_PER_ELEMENT, elements, start);
+	}
+
+	@Override
+	public String getClassName() {
+		return CLASS_NAME;
+	}
+
+	@Override
+	public int getBytesPerElement() {
+		return BYTES_PER_ELEMENT;
+	}
+
+	@Override
+	protected Object js_get(int index) {
+		return elements.get(start + index) & 0xFF;
+	}
+
+	@Override
+	protected void js_set(int index, Object value) {
+		elements.put(start + index, (byte) ScriptRuntime.toInt32(value));
+	}
+
+	@Override
+	protected NativeUint8Array newInstance(NativeArrayBuffer arrayBuffer, int offset, int length) {
+		return new NativeUint8Array(arrayBuffer, offset, length);
+	}
+
+	@Override
+	protected NativeUint8Array newView(NativeArrayBuffer arrayBuffer, int offset, int length, ByteBuffer elements, int start) {
+		return new NativeUint8Array(arrayBuffer, offset, length, elements, start);
+	}
+}
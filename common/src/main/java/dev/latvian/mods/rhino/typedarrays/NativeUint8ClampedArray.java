@@ -0,0 +1,73 @@
+package dev.latvian.mods.rhino.typedarrays;
+
+import dev.latvian.mods.rhino.Context;
+import dev.latvian.mods.rhino.ScriptRuntime;
+import dev.latvian.mods.rhino.Scriptable;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Uint8ClampedArray: a typed array of 8-bit unsigned integers, values out of range are clamped instead of wrapped
+ *
+ * @author ZZZank
+ */
+public class NativeUint8ClampedArray extends NativeTypedArrayView<ByteBuffer> {
+	private static final long serialVersionUID = -9115392408176111459L;
+
+	public static final String CLASS_NAME = "Uint8ClampedArray";
+	public static final int BYTES_PER_ELEMENT = 1;
+
+	public static void init(Context cx, Scriptable scope, boolean sealed) {
+		NativeUint8ClampedArray obj = new NativeUint8ClampedArray();
+		obj.exportAsJSClass(MAX_PROTOTYPE_ID, scope, sealed);
+	}
+
+	public NativeUint8ClampedArray() {
+	}
+
+	public NativeUint8ClampedArray(NativeArrayBuffer arrayBuffer, int offset, int length) {
+		this(arrayBuffer, offset, length, bytes(arrayBuffer, offset, length * BYTES_PER_ELEMENT), 0);
+	}
+
+	private NativeUint8ClampedArray(NativeArrayBuffer arrayBuffer, int offset, int length, ByteBuffer elements, int start) {
+		super(arrayBuffer, offset, length, BYTES_PER_ELEMENT, elements, start);
+	}
+
+	@Override
+	public String getClassName() {
+		return CLASS_NAME;
+	}
+
+	@Override
+	public int getBytesPerElement() {
+		return BYTES_PER_ELEMENT;
+	}
+
+	@Override
+	protected Object js_get(int index) {
+		return elements.get(start + index) & 0xFF;
+	}
+
+	@Override
+	protected void js_set(int index, Object value) {
+		elements.put(start + index, clamp(ScriptRuntime.toNumber(value)));
+	}
+
+	private static byte clamp(double value) {
+		if (!(value > 0)) {
+			// also NaN
+			return 0;
+		}
+		return (byte) (value >= 255 ? 255 : (int) Math.rint(value));
+	}
+
+	@Override
+	protected NativeUint8ClampedArray newInstance(NativeArrayBuffer arrayBuffer, int offset, int length) {
+		return new NativeUint8ClampedArray(arrayBuffer, offset, length);
+	}
+
+	@Override
+	protected NativeUint8ClampedArray newView(NativeArrayBuffer arrayBuffer, int offset, int length, ByteBuffer elements, int start) {
+		return new NativeUint8ClampedArray(arrayBuffer, offset, length, elements, start);
+	}
+}
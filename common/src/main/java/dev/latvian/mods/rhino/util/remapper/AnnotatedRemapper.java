@@ -14,7 +14,19 @@ import java.util.*;
 public class AnnotatedRemapper implements Remapper {
     public static final AnnotatedRemapper INSTANCE = new AnnotatedRemapper();
 
-    private static final Map<Class<?>, Set<String>> prefixRemapCache = new IdentityHashMap<>();
+    private static final ClassValue<Set<String>> prefixRemapCache = new ClassValue<Set<String>>() {
+        @Override
+        protected Set<String> computeValue(Class<?> type) {
+            val prefixes = new HashSet<String>(3);
+            for (val anno : type.getAnnotationsByType(RemapPrefixForJS.class)) {
+                val s = anno.value().trim();
+                if (!s.isEmpty()) {
+                    prefixes.add(s);
+                }
+            }
+            return prefixes;
+        }
+    };
 
     private AnnotatedRemapper() {}
 
@@ -28,18 +40,7 @@ public class AnnotatedRemapper implements Remapper {
     }
 
     private static Set<String> computeRemapPrefixes(Class<?> clazz) {
-        var prefixes = prefixRemapCache.get(clazz);
-        if (prefixes == null) {
-            prefixes = new HashSet<>(3);
-            for (val anno : clazz.getAnnotationsByType(RemapPrefixForJS.class)) {
-                val s = anno.value().trim();
-                if (!s.isEmpty()) {
-                    prefixes.add(s);
-                }
-            }
-            prefixRemapCache.put(clazz, prefixes);
-        }
-        return prefixes;
+        return prefixRemapCache.get(clazz);
     }
 
     @Override
@@ -40,6 +40,28 @@ public class DualRemapper implements Remapper {
         return remap1.isEmpty() ? second.remapField(from, field) : remap1;
     }
 
+    @Override
+    public String[] remapMethods(Class<?> from, Method[] methods) {
+        return merge(first.remapMethods(from, methods), second.remapMethods(from, methods));
+    }
+
+    @Override
+    public String[] remapFields(Class<?> from, Field[] fields) {
+        return merge(first.remapFields(from, fields), second.remapFields(from, fields));
+    }
+
+    /**
+     * fill names not remapped by the first remapper with names from the second one
+     */
+    static String[] merge(String[] remapped, String[] fallback) {
+        for (int i = 0; i < remapped.length; i++) {
+            if (remapped[i].isEmpty()) {
+                remapped[i] = fallback[i];
+            }
+        }
+        return remapped;
+    }
+
     @Override
     public String unmapClass(String from) {
         val remap1 = first.unmapClass(from);
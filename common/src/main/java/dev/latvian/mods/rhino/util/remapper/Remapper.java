@@ -42,6 +42,34 @@ public interface Remapper {
 		return NOT_REMAPPED;
 	}
 
+	/**
+	 * Remap fields declared by {@code from} in bulk, so that per-class lookups only need to be done once.
+	 *
+	 * @return remapped names, or {@link #NOT_REMAPPED}, at the same indices as {@code fields}
+	 * @see #remapField(Class, Field)
+	 */
+	default String[] remapFields(Class<?> from, Field[] fields) {
+		val remapped = new String[fields.length];
+		for (int i = 0; i < fields.length; i++) {
+			remapped[i] = remapField(from, fields[i]);
+		}
+		return remapped;
+	}
+
+	/**
+	 * Remap methods declared by {@code from} in bulk, so that per-class lookups only need to be done once.
+	 *
+	 * @return remapped names, or {@link #NOT_REMAPPED}, at the same indices as {@code methods}
+	 * @see #remapMethod(Class, Method)
+	 */
+	default String[] remapMethods(Class<?> from, Method[] methods) {
+		val remapped = new String[methods.length];
+		for (int i = 0; i < methods.length; i++) {
+			remapped[i] = remapMethod(from, methods[i]);
+		}
+		return remapped;
+	}
+
 	/**
 	 * @return a string holding remapped class name, or {@link Class#getName()} if not remapped
 	 */
@@ -1,6 +1,7 @@
 package dev.latvian.mods.rhino.util.remapper;
 
 import dev.latvian.mods.rhino.mod.remapper.RhizoRemapper;
+import dev.latvian.mods.rhino.native_java.JavaMembersCache;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 
@@ -18,6 +19,7 @@ public final class RemapperManager {
 
     public static void setDefault(Remapper defaultRemapper) {
         RemapperManager.defaultRemapper = defaultRemapper;
+        JavaMembersCache.invalidateAll();
     }
 
     public static boolean isRemapped(String mapped) {
@@ -37,6 +37,30 @@ public class SequencedRemapper implements Remapper {
         return NOT_REMAPPED;
     }
 
+    @Override
+    public String[] remapMethods(Class<?> from, Method[] methods) {
+        if (seq.length == 0) {
+            return Remapper.super.remapMethods(from, methods);
+        }
+        val remapped = seq[0].remapMethods(from, methods);
+        for (int i = 1; i < seq.length; i++) {
+            DualRemapper.merge(remapped, seq[i].remapMethods(from, methods));
+        }
+        return remapped;
+    }
+
+    @Override
+    public String[] remapFields(Class<?> from, Field[] fields) {
+        if (seq.length == 0) {
+            return Remapper.super.remapFields(from, fields);
+        }
+        val remapped = seq[0].remapFields(from, fields);
+        for (int i = 1; i < seq.length; i++) {
+            DualRemapper.merge(remapped, seq[i].remapFields(from, fields));
+        }
+        return remapped;
+    }
+
     @Override
     public String remapClass(Class<?> from) {
         String mapped;
@@ -0,0 +1,55 @@
+package dev.latvian.mods.rhino.util.unit;
+
+/**
+ * Unit compiled to a Java class by {@link UnitStorage#compile(Unit)}, evaluating to exactly the same values as the
+ * unit it was compiled from.
+ * <p>
+ * Variables of the storage are read from slots instead of being looked up by name, setting a variable with
+ * {@link UnitStorage#setVariable(String, Unit)} is visible to compiled units right away.
+ *
+ * @author ZZZank
+ */
+public abstract class CompiledUnit extends Unit {
+	public final Unit source;
+	private final UnitStorage storage;
+	/**
+	 * units that could not be compiled, called by the generated code
+	 */
+	protected final Unit[] units;
+
+	protected CompiledUnit(UnitStorage storage, Unit source, Unit[] units) {
+		this.storage = storage;
+		this.source = source;
+		this.units = units;
+	}
+
+	protected static float variable(Unit unit) {
+		return unit == null ? 0F : unit.get();
+	}
+
+	protected abstract float evaluate(Unit[] variables);
+
+	protected abstract int evaluateInt(Unit[] variables);
+
+	protected abstract boolean evaluateBoolean(Unit[] variables);
+
+	@Override
+	public final float get() {
+		return evaluate(storage.variableSlots);
+	}
+
+	@Override
+	public final int getAsInt() {
+		return evaluateInt(storage.variableSlots);
+	}
+
+	@Override
+	public final boolean getAsBoolean() {
+		return evaluateBoolean(storage.variableSlots);
+	}
+
+	@Override
+	public void append(StringBuilder sb) {
+		source.append(sb);
+	}
+}
@@ -0,0 +1,531 @@
+package dev.latvian.mods.rhino.util.unit;
+
+import dev.latvian.mods.rhino.DefiningClassLoader;
+import dev.latvian.mods.rhino.classfile.ByteCode;
+import dev.latvian.mods.rhino.classfile.ClassFileWriter;
+import lombok.val;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compiles a {@link Unit} into a subclass of {@link CompiledUnit}, see {@link UnitStorage#compile(Unit)}.
+ * <p>
+ * Built-in units are translated to the same arithmetic as their {@code get()}, {@code getAsInt()} and
+ * {@code getAsBoolean()}, subtrees without variables or functions like {@code random()} are folded into constants,
+ * and any other unit is called from the generated code.
+ *
+ * @author ZZZank
+ */
+final class UnitCompiler {
+	private static final String UNIT = "dev/latvian/mods/rhino/util/unit/Unit";
+	private static final String UNIT_ARRAY = "[L" + UNIT + ";";
+	private static final String COMPILED_UNIT = "dev/latvian/mods/rhino/util/unit/CompiledUnit";
+	private static final String CONSTRUCTOR_SIGNATURE = "(Ldev/latvian/mods/rhino/util/unit/UnitStorage;L" + UNIT + ";" + UNIT_ARRAY + ")V";
+	private static final AtomicInteger CLASS_COUNTER = new AtomicInteger();
+
+	/**
+	 * units translated by this compiler, subclasses are called like any other unit since they may override anything
+	 */
+	private static final Set<Class<?>> BUILT_IN = new HashSet<>(Arrays.asList(
+		AddUnit.class, SubUnit.class, MulUnit.class, DivUnit.class, ModUnit.class, PowUnit.class,
+		MinUnit.class, MaxUnit.class, ShiftLeftUnit.class, ShiftRightUnit.class,
+		AndUnit.class, OrUnit.class, XorUnit.class,
+		EqUnit.class, NeqUnit.class, GtUnit.class, LtUnit.class, GteUnit.class, LteUnit.class,
+		NegUnit.class, NotUnit.class, BoolUnit.class, AbsUnit.class,
+		SinUnit.class, CosUnit.class, TanUnit.class, AtanUnit.class, Atan2Unit.class, DegUnit.class, RadUnit.class,
+		LogUnit.class, Log10Unit.class, Log1pUnit.class, SqrtUnit.class, SqUnit.class, FloorUnit.class, CeilUnit.class,
+		IfUnit.class, ColorUnit.class
+	));
+
+	private enum Type {
+		FLOAT,
+		INT,
+		BOOLEAN
+	}
+
+	static CompiledUnit compile(UnitStorage storage, Unit unit) {
+		val className = "dev.latvian.mods.rhino.util.unit.GeneratedUnit" + CLASS_COUNTER.incrementAndGet();
+		val compiler = new UnitCompiler(storage, new ClassFileWriter(className, COMPILED_UNIT.replace('/', '.'), null));
+		val bytes = compiler.generate(unit);
+
+		val loader = new DefiningClassLoader(UnitCompiler.class.getClassLoader());
+		Class<?> c = loader.defineClass(className, bytes);
+		loader.linkClass(c);
+
+		try {
+			return (CompiledUnit) c.getConstructors()[0].newInstance(storage, unit, compiler.units.toArray(new Unit[0]));
+		} catch (ReflectiveOperationException ex) {
+			throw new IllegalStateException("Unable to instantiate compiled unit " + unit, ex);
+		}
+	}
+
+	private final UnitStorage storage;
+	private final ClassFileWriter cfw;
+	private final List<Unit> units = new ArrayList<>();
+	private final Map<Unit, Integer> unitIndices = new IdentityHashMap<>();
+
+	private UnitCompiler(UnitStorage storage, ClassFileWriter cfw) {
+		this.storage = storage;
+		this.cfw = cfw;
+	}
+
+	private byte[] generate(Unit unit) {
+		cfw.startMethod("<init>", CONSTRUCTOR_SIGNATURE, ClassFileWriter.ACC_PUBLIC);
+		cfw.addALoad(0);
+		cfw.addALoad(1);
+		cfw.addALoad(2);
+		cfw.addALoad(3);
+		cfw.addInvoke(ByteCode.INVOKESPECIAL, COMPILED_UNIT, "<init>", CONSTRUCTOR_SIGNATURE);
+		cfw.add(ByteCode.RETURN);
+		cfw.stopMethod((short) 4);
+
+		cfw.startMethod("evaluate", "(" + UNIT_ARRAY + ")F", ClassFileWriter.ACC_PROTECTED);
+		emit(unit, Type.FLOAT);
+		cfw.add(ByteCode.FRETURN);
+		cfw.stopMethod((short) 2);
+
+		cfw.startMethod("evaluateInt", "(" + UNIT_ARRAY + ")I", ClassFileWriter.ACC_PROTECTED);
+		emit(unit, Type.INT);
+		cfw.add(ByteCode.IRETURN);
+		cfw.stopMethod((short) 2);
+
+		cfw.startMethod("evaluateBoolean", "(" + UNIT_ARRAY + ")Z", ClassFileWriter.ACC_PROTECTED);
+		emit(unit, Type.BOOLEAN);
+		cfw.add(ByteCode.IRETURN);
+		cfw.stopMethod((short) 2);
+
+		return cfw.toByteArray();
+	}
+
+	/**
+	 * @return true if the unit always evaluates to the same values, and has no side effects
+	 */
+	private static boolean isConstant(Unit unit) {
+		if (unit.isFixed()) {
+			return true;
+		} else if (!isBuiltIn(unit)) {
+			return false;
+		}
+
+		for (Unit child : children(unit)) {
+			if (!isConstant(child)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private boolean isVariable(Unit unit) {
+		return unit.getClass() == VariableUnit.class && ((VariableUnit) unit).unitStorage == storage;
+	}
+
+	/**
+	 * @return true if the unit is one of the units of this package, which are compiled and can be folded
+	 */
+	static boolean isBuiltIn(Unit unit) {
+		return BUILT_IN.contains(unit.getClass());
+	}
+
+	static Unit[] children(Unit unit) {
+		if (unit instanceof OpUnit u) {
+			return new Unit[]{u.unit, u.with};
+		} else if (unit instanceof Func2Unit u) {
+			return new Unit[]{u.unit, u.with};
+		} else if (unit instanceof Func1Unit u) {
+			return new Unit[]{u.unit};
+		} else if (unit instanceof SpecialOpUnit u) {
+			return new Unit[]{u.unit};
+		} else if (unit instanceof IfUnit u) {
+			return new Unit[]{u.statement, u.trueUnit, u.falseUnit};
+		} else if (unit instanceof ColorUnit u) {
+			return u.a == null ? new Unit[]{u.r, u.g, u.b} : new Unit[]{u.r, u.g, u.b, u.a};
+		}
+
+		return new Unit[0];
+	}
+
+	private void emit(Unit unit, Type type) {
+		if (isConstant(unit) && emitConstant(unit, type)) {
+			return;
+		}
+
+		if (isVariable(unit)) {
+			cfw.addALoad(1);
+			cfw.addPush(storage.getVariableSlot(((VariableUnit) unit).key));
+			cfw.add(ByteCode.AALOAD);
+			cfw.addInvoke(ByteCode.INVOKESTATIC, COMPILED_UNIT, "variable", "(L" + UNIT + ";)F");
+			convertFloat(type);
+			return;
+		}
+
+		if (!isBuiltIn(unit)) {
+			emitCall(unit, type);
+			return;
+		}
+
+		switch (type) {
+			case FLOAT -> emitFloat(unit);
+			case INT -> emitInt(unit);
+			case BOOLEAN -> emitBoolean(unit);
+		}
+	}
+
+	private boolean emitConstant(Unit unit, Type type) {
+		try {
+			switch (type) {
+				case FLOAT -> cfw.addLoadConstant(unit.get());
+				case INT -> cfw.addPush(unit.getAsInt());
+				case BOOLEAN -> cfw.addPush(unit.getAsBoolean());
+			}
+		} catch (ArithmeticException ex) {
+			// integer division by zero, left to fail at runtime like the unit does
+			return false;
+		}
+
+		return true;
+	}
+
+	private void emitCall(Unit unit, Type type) {
+		Integer index = unitIndices.get(unit);
+
+		if (index == null) {
+			index = units.size();
+			units.add(unit);
+			unitIndices.put(unit, index);
+		}
+
+		cfw.addALoad(0);
+		cfw.add(ByteCode.GETFIELD, COMPILED_UNIT, "units", UNIT_ARRAY);
+		cfw.addPush(index);
+		cfw.add(ByteCode.AALOAD);
+
+		switch (type) {
+			case FLOAT -> cfw.addInvoke(ByteCode.INVOKEVIRTUAL, UNIT, "get", "()F");
+			case INT -> cfw.addInvoke(ByteCode.INVOKEVIRTUAL, UNIT, "getAsInt", "()I");
+			case BOOLEAN -> cfw.addInvoke(ByteCode.INVOKEVIRTUAL, UNIT, "getAsBoolean", "()Z");
+		}
+	}
+
+	/**
+	 * Convert the float on the stack like the default {@link Unit#getAsInt()} and {@link Unit#getAsBoolean()} do
+	 */
+	private void convertFloat(Type type) {
+		if (type == Type.INT) {
+			cfw.add(ByteCode.F2I);
+		} else if (type == Type.BOOLEAN) {
+			cfw.add(ByteCode.FCONST_0);
+			cfw.add(ByteCode.FCMPL);
+			jumpToBoolean(ByteCode.IFEQ);
+		}
+	}
+
+	private void emitFloat(Unit unit) {
+		if (unit instanceof AddUnit u) {
+			binary(u.unit, u.with, Type.FLOAT, ByteCode.FADD);
+		} else if (unit instanceof SubUnit u) {
+			binary(u.unit, u.with, Type.FLOAT, ByteCode.FSUB);
+		} else if (unit instanceof MulUnit u) {
+			binary(u.unit, u.with, Type.FLOAT, ByteCode.FMUL);
+		} else if (unit instanceof DivUnit u) {
+			binary(u.unit, u.with, Type.FLOAT, ByteCode.FDIV);
+		} else if (unit instanceof ModUnit u) {
+			binary(u.unit, u.with, Type.FLOAT, ByteCode.FREM);
+		} else if (unit instanceof PowUnit u) {
+			math2(u.unit, u.with, "pow");
+		} else if (unit instanceof MinUnit u) {
+			emit(u.unit, Type.FLOAT);
+			emit(u.with, Type.FLOAT);
+			cfw.addInvoke(ByteCode.INVOKESTATIC, "java/lang/Math", "min", "(FF)F");
+		} else if (unit instanceof MaxUnit u) {
+			emit(u.unit, Type.FLOAT);
+			emit(u.with, Type.FLOAT);
+			cfw.addInvoke(ByteCode.INVOKESTATIC, "java/lang/Math", "max", "(FF)F");
+		} else if (unit instanceof EqUnit u) {
+			floatCondition(u.unit, u.with, ByteCode.FCMPL, ByteCode.IFNE);
+			cfw.add(ByteCode.I2F);
+		} else if (unit instanceof NeqUnit u) {
+			floatCondition(u.unit, u.with, ByteCode.FCMPL, ByteCode.IFEQ);
+			cfw.add(ByteCode.I2F);
+		} else if (unit instanceof GtUnit || unit instanceof LtUnit || unit instanceof GteUnit || unit instanceof LteUnit) {
+			emitBoolean(unit);
+			cfw.add(ByteCode.I2F);
+		} else if (unit instanceof NegUnit u) {
+			// 0F - f, like f == 0F ? 0F : -f
+			cfw.add(ByteCode.FCONST_0);
+			emit(u.unit, Type.FLOAT);
+			cfw.add(ByteCode.FSUB);
+		} else if (unit instanceof BoolUnit u) {
+			emit(u.unit, Type.BOOLEAN);
+			cfw.add(ByteCode.I2F);
+		} else if (unit instanceof AbsUnit u) {
+			emit(u.unit, Type.FLOAT);
+			cfw.addInvoke(ByteCode.INVOKESTATIC, "java/lang/Math", "abs", "(F)F");
+		} else if (unit instanceof SinUnit u) {
+			math1(u.unit, "sin");
+		} else if (unit instanceof CosUnit u) {
+			math1(u.unit, "cos");
+		} else if (unit instanceof TanUnit u) {
+			math1(u.unit, "tan");
+		} else if (unit instanceof AtanUnit u) {
+			math1(u.unit, "atan");
+		} else if (unit instanceof Atan2Unit u) {
+			math2(u.unit, u.with, "atan2");
+		} else if (unit instanceof DegUnit u) {
+			math1(u.unit, "toDegrees");
+		} else if (unit instanceof RadUnit u) {
+			math1(u.unit, "toRadians");
+		} else if (unit instanceof LogUnit u) {
+			math1(u.unit, "log");
+		} else if (unit instanceof Log10Unit u) {
+			math1(u.unit, "log10");
+		} else if (unit instanceof Log1pUnit u) {
+			math1(u.unit, "log1p");
+		} else if (unit instanceof SqrtUnit u) {
+			math1(u.unit, "sqrt");
+		} else if (unit instanceof SqUnit u) {
+			square(u.unit, Type.FLOAT);
+		} else if (unit instanceof FloorUnit u) {
+			emit(u.unit, Type.FLOAT);
+			cfw.addInvoke(ByteCode.INVOKESTATIC, "dev/latvian/mods/rhino/util/unit/FloorUnit", "floor", "(F)I");
+			cfw.add(ByteCode.I2F);
+		} else if (unit instanceof CeilUnit u) {
+			emit(u.unit, Type.FLOAT);
+			cfw.addInvoke(ByteCode.INVOKESTATIC, "dev/latvian/mods/rhino/util/unit/CeilUnit", "ceil", "(F)I");
+			cfw.add(ByteCode.I2F);
+		} else if (unit instanceof IfUnit u) {
+			conditional(u, Type.FLOAT);
+		} else {
+			// shifts, bitwise operations and colors are computed on ints
+			emitInt(unit);
+			cfw.add(ByteCode.I2F);
+		}
+	}
+
+	private void emitInt(Unit unit) {
+		if (unit instanceof AddUnit u) {
+			binary(u.unit, u.with, Type.INT, ByteCode.IADD);
+		} else if (unit instanceof SubUnit u) {
+			binary(u.unit, u.with, Type.INT, ByteCode.ISUB);
+		} else if (unit instanceof MulUnit u) {
+			binary(u.unit, u.with, Type.INT, ByteCode.IMUL);
+		} else if (unit instanceof ModUnit u) {
+			binary(u.unit, u.with, Type.INT, ByteCode.IREM);
+		} else if (unit instanceof MinUnit u) {
+			emit(u.unit, Type.INT);
+			emit(u.with, Type.INT);
+			cfw.addInvoke(ByteCode.INVOKESTATIC, "java/lang/Math", "min", "(II)I");
+		} else if (unit instanceof MaxUnit u) {
+			emit(u.unit, Type.INT);
+			emit(u.with, Type.INT);
+			cfw.addInvoke(ByteCode.INVOKESTATIC, "java/lang/Math", "max", "(II)I");
+		} else if (unit instanceof ShiftLeftUnit u) {
+			binary(u.unit, u.with, Type.INT, ByteCode.ISHL);
+		} else if (unit instanceof ShiftRightUnit u) {
+			binary(u.unit, u.with, Type.INT, ByteCode.ISHR);
+		} else if (unit instanceof AndUnit u) {
+			binary(u.unit, u.with, Type.INT, ByteCode.IAND);
+		} else if (unit instanceof OrUnit u) {
+			binary(u.unit, u.with, Type.INT, ByteCode.IOR);
+		} else if (unit instanceof XorUnit u) {
+			binary(u.unit, u.with, Type.INT, ByteCode.IXOR);
+		} else if (unit instanceof EqUnit u) {
+			intCondition(u.unit, u.with, ByteCode.IF_ICMPNE);
+		} else if (unit instanceof NeqUnit u) {
+			intCondition(u.unit, u.with, ByteCode.IF_ICMPEQ);
+		} else if (unit instanceof GtUnit u) {
+			intCondition(u.unit, u.with, ByteCode.IF_ICMPLE);
+		} else if (unit instanceof LtUnit u) {
+			intCondition(u.unit, u.with, ByteCode.IF_ICMPGE);
+		} else if (unit instanceof GteUnit u) {
+			intCondition(u.unit, u.with, ByteCode.IF_ICMPLT);
+		} else if (unit instanceof LteUnit u) {
+			intCondition(u.unit, u.with, ByteCode.IF_ICMPGT);
+		} else if (unit instanceof NegUnit u) {
+			emit(u.unit, Type.INT);
+			cfw.add(ByteCode.INEG);
+		} else if (unit instanceof NotUnit u) {
+			emit(u.unit, Type.INT);
+			cfw.add(ByteCode.ICONST_M1);
+			cfw.add(ByteCode.IXOR);
+		} else if (unit instanceof BoolUnit u) {
+			emit(u.unit, Type.BOOLEAN);
+		} else if (unit instanceof AbsUnit u) {
+			emit(u.unit, Type.INT);
+			cfw.addInvoke(ByteCode.INVOKESTATIC, "java/lang/Math", "abs", "(I)I");
+		} else if (unit instanceof SqUnit u) {
+			square(u.unit, Type.INT);
+		} else if (unit instanceof IfUnit u) {
+			conditional(u, Type.INT);
+		} else if (unit instanceof ColorUnit u) {
+			colorChannel(u.r);
+			cfw.addPush(16);
+			cfw.add(ByteCode.ISHL);
+			colorChannel(u.g);
+			cfw.addPush(8);
+			cfw.add(ByteCode.ISHL);
+			cfw.add(ByteCode.IOR);
+			colorChannel(u.b);
+			cfw.add(ByteCode.IOR);
+
+			if (u.a == null) {
+				cfw.addPush(0xFF000000);
+			} else {
+				colorChannel(u.a);
+				cfw.addPush(24);
+				cfw.add(ByteCode.ISHL);
+			}
+
+			cfw.add(ByteCode.IOR);
+		} else {
+			emitFloat(unit);
+			convertFloat(Type.INT);
+		}
+	}
+
+	private void emitBoolean(Unit unit) {
+		if (unit instanceof AndUnit u) {
+			shortCircuit(u.unit, u.with, ByteCode.IFEQ);
+		} else if (unit instanceof OrUnit u) {
+			shortCircuit(u.unit, u.with, ByteCode.IFNE);
+		} else if (unit instanceof XorUnit u) {
+			binary(u.unit, u.with, Type.BOOLEAN, ByteCode.IXOR);
+		} else if (unit instanceof EqUnit u) {
+			binary(u.unit, u.with, Type.BOOLEAN, ByteCode.IXOR);
+			cfw.add(ByteCode.ICONST_1);
+			cfw.add(ByteCode.IXOR);
+		} else if (unit instanceof NeqUnit u) {
+			binary(u.unit, u.with, Type.BOOLEAN, ByteCode.IXOR);
+		} else if (unit instanceof GtUnit u) {
+			// fcmpl and fcmpg differ on NaN, where every comparison is false
+			floatCondition(u.unit, u.with, ByteCode.FCMPL, ByteCode.IFLE);
+		} else if (unit instanceof LtUnit u) {
+			floatCondition(u.unit, u.with, ByteCode.FCMPG, ByteCode.IFGE);
+		} else if (unit instanceof GteUnit u) {
+			floatCondition(u.unit, u.with, ByteCode.FCMPL, ByteCode.IFLT);
+		} else if (unit instanceof LteUnit u) {
+			floatCondition(u.unit, u.with, ByteCode.FCMPG, ByteCode.IFGT);
+		} else if (unit instanceof NotUnit u) {
+			emit(u.unit, Type.BOOLEAN);
+			cfw.add(ByteCode.ICONST_1);
+			cfw.add(ByteCode.IXOR);
+		} else if (unit instanceof BoolUnit u) {
+			emit(u.unit, Type.BOOLEAN);
+		} else if (unit instanceof IfUnit u) {
+			emit(u.statement, Type.BOOLEAN);
+		} else if (unit instanceof ColorUnit) {
+			emitInt(unit);
+			jumpToBoolean(ByteCode.IFEQ);
+		} else {
+			emitFloat(unit);
+			convertFloat(Type.BOOLEAN);
+		}
+	}
+
+	private void binary(Unit unit, Unit with, Type type, int opcode) {
+		emit(unit, type);
+		emit(with, type);
+		cfw.add(opcode);
+	}
+
+	private void math1(Unit unit, String name) {
+		emit(unit, Type.FLOAT);
+		cfw.add(ByteCode.F2D);
+		cfw.addInvoke(ByteCode.INVOKESTATIC, "java/lang/Math", name, "(D)D");
+		cfw.add(ByteCode.D2F);
+	}
+
+	private void math2(Unit unit, Unit with, String name) {
+		emit(unit, Type.FLOAT);
+		cfw.add(ByteCode.F2D);
+		emit(with, Type.FLOAT);
+		cfw.add(ByteCode.F2D);
+		cfw.addInvoke(ByteCode.INVOKESTATIC, "java/lang/Math", name, "(DD)D");
+		cfw.add(ByteCode.D2F);
+	}
+
+	private void square(Unit unit, Type type) {
+		emit(unit, type);
+
+		// variables may be bound to impure units like random(), which sq evaluates twice
+		if (isConstant(unit)) {
+			cfw.add(ByteCode.DUP);
+		} else {
+			emit(unit, type);
+		}
+
+		cfw.add(type == Type.FLOAT ? ByteCode.FMUL : ByteCode.IMUL);
+	}
+
+	private void colorChannel(Unit unit) {
+		cfw.add(ByteCode.ICONST_0);
+		emit(unit, Type.INT);
+		cfw.addInvoke(ByteCode.INVOKESTATIC, "java/lang/Math", "max", "(II)I");
+		cfw.addPush(255);
+		cfw.addInvoke(ByteCode.INVOKESTATIC, "java/lang/Math", "min", "(II)I");
+	}
+
+	private void floatCondition(Unit unit, Unit with, int compare, int jumpIfFalse) {
+		emit(unit, Type.FLOAT);
+		emit(with, Type.FLOAT);
+		cfw.add(compare);
+		jumpToBoolean(jumpIfFalse);
+	}
+
+	private void intCondition(Unit unit, Unit with, int jumpIfFalse) {
+		emit(unit, Type.INT);
+		emit(with, Type.INT);
+		jumpToBoolean(jumpIfFalse);
+	}
+
+	/**
+	 * Replace the operands of a conditional jump on the stack with 1 if it would not jump, 0 if it would
+	 */
+	private void jumpToBoolean(int jumpIfFalse) {
+		int falseLabel = cfw.acquireLabel();
+		int endLabel = cfw.acquireLabel();
+		cfw.add(jumpIfFalse, falseLabel);
+		short stack = cfw.getStackTop();
+		cfw.add(ByteCode.ICONST_1);
+		cfw.add(ByteCode.GOTO, endLabel);
+		cfw.markLabel(falseLabel, stack);
+		cfw.add(ByteCode.ICONST_0);
+		cfw.markLabel(endLabel);
+	}
+
+	/**
+	 * {@code unit && with} with {@link ByteCode#IFEQ}, {@code unit || with} with {@link ByteCode#IFNE}
+	 */
+	private void shortCircuit(Unit unit, Unit with, int jump) {
+		int shortLabel = cfw.acquireLabel();
+		int endLabel = cfw.acquireLabel();
+		emit(unit, Type.BOOLEAN);
+		cfw.add(jump, shortLabel);
+		short stack = cfw.getStackTop();
+		emit(with, Type.BOOLEAN);
+		cfw.add(ByteCode.GOTO, endLabel);
+		cfw.markLabel(shortLabel, stack);
+		cfw.add(jump == ByteCode.IFEQ ? ByteCode.ICONST_0 : ByteCode.ICONST_1);
+		cfw.markLabel(endLabel);
+	}
+
+	private void conditional(IfUnit unit, Type type) {
+		int falseLabel = cfw.acquireLabel();
+		int endLabel = cfw.acquireLabel();
+		emit(unit.statement, Type.BOOLEAN);
+		cfw.add(ByteCode.IFEQ, falseLabel);
+		short stack = cfw.getStackTop();
+		emit(unit.trueUnit, type);
+		cfw.add(ByteCode.GOTO, endLabel);
+		cfw.markLabel(falseLabel, stack);
+		emit(unit.falseUnit, type);
+		cfw.markLabel(endLabel);
+	}
+}
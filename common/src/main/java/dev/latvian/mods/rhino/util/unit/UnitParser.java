@@ -1,13 +1,19 @@
 package dev.latvian.mods.rhino.util.unit;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 class UnitParser {
 	private final String string;
 	private final char[] chars;
 	private int pos;
 	private final UnitStorage storage;
+	/**
+	 * identical subtrees of the parsed unit are shared, see {@link UnitStorage#intern(Unit, Map)}
+	 */
+	private final Map<Object, Unit> nodes = new HashMap<>();
 
 	public UnitParser(String s, UnitStorage st) {
 		string = s;
@@ -114,6 +120,10 @@ class UnitParser {
 	}
 
 	public Unit readUnit() {
+		return storage.intern(readNode(), nodes);
+	}
+
+	private Unit readNode() {
 		skipS();
 		int startPos = pos;
 		char start = peek();
@@ -2,22 +2,55 @@ package dev.latvian.mods.rhino.util.unit;
 
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 public class UnitStorage {
+	/**
+	 * number of parsed units remembered by {@link #parse(String)}, least recently used ones are dropped first
+	 */
+	private static final int MAX_PARSED = 1024;
+	/**
+	 * number of compiled units remembered by {@link #compile(Unit)}, least recently used ones are dropped first
+	 */
+	private static final int MAX_COMPILED = 256;
+
 	private final Map<String, Unit> variables;
 	private final Map<String, ConstantUnit> constants;
 	private final Map<String, OpSupplier> operations;
 	private final Map<String, FuncSupplier> functions;
 	private long variableVersion = 0L;
+	private final Map<String, Integer> variableSlotIndices;
+	/**
+	 * values of the variables used by compiled units, by slot index
+	 */
+	Unit[] variableSlots;
+	private final Map<String, Unit> parsed;
+	private final Map<Unit, Unit> compiled;
 
 	public UnitStorage() {
 		variables = new HashMap<>();
 		constants = new HashMap<>();
 		operations = new HashMap<>();
 		functions = new HashMap<>();
+		variableSlotIndices = new HashMap<>();
+		variableSlots = new Unit[0];
+		parsed = Collections.synchronizedMap(new LinkedHashMap<String, Unit>(16, 0.75F, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Unit> eldest) {
+				return size() > MAX_PARSED;
+			}
+		});
+		compiled = Collections.synchronizedMap(new LinkedHashMap<Unit, Unit>(16, 0.75F, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Unit, Unit> eldest) {
+				return size() > MAX_COMPILED;
+			}
+		});
 
 		addConstant("PI", (float) Math.PI);
 		addConstant("E", (float) Math.E);
@@ -72,11 +105,18 @@ public class UnitStorage {
 
 	public void clearVariables() {
 		variables.clear();
+		Arrays.fill(variableSlots, null);
 	}
 
 	public void setVariable(String key, Unit unit) {
 		variables.put(key, unit);
 		variableVersion++;
+
+		Integer slot = variableSlotIndices.get(key);
+
+		if (slot != null) {
+			variableSlots[slot] = unit;
+		}
 	}
 
 	@Nullable
@@ -88,16 +128,32 @@ public class UnitStorage {
 		return variableVersion;
 	}
 
+	int getVariableSlot(String key) {
+		Integer slot = variableSlotIndices.get(key);
+
+		if (slot == null) {
+			slot = variableSlots.length;
+			variableSlotIndices.put(key, slot);
+			variableSlots = Arrays.copyOf(variableSlots, slot + 1);
+			variableSlots[slot] = variables.get(key);
+		}
+
+		return slot;
+	}
+
 	public void addConstant(String name, float val) {
 		constants.put(name, new ConstantUnit(name, val));
+		parsed.clear();
 	}
 
 	public void addOp(String name, OpSupplier op) {
 		operations.put(name, op);
+		parsed.clear();
 	}
 
 	public void addFunc(String name, FuncSupplier func) {
 		functions.put(name, func);
+		parsed.clear();
 	}
 
 	public void addFunc1(String name, FuncSupplier.Func1 func) {
@@ -125,7 +181,162 @@ public class UnitStorage {
 		return func == null ? null : func.create(args);
 	}
 
+	/**
+	 * Parse a unit, or return the unit parsed from the same string recently.
+	 * <p>
+	 * Fixed subtrees are folded into {@link FixedUnit}s, and identical subtrees of a unit are the same instance. Only
+	 * the last {@value #MAX_PARSED} parsed strings are remembered. Parsing may happen on several threads, as long as
+	 * constants, operations and functions are not changed meanwhile.
+	 */
 	public Unit parse(String string) {
-		return new UnitParser(string, this).parse();
+		Unit unit = parsed.get(string);
+
+		if (unit == null) {
+			unit = new UnitParser(string, this).parse();
+			parsed.put(string, unit);
+		}
+
+		return unit;
+	}
+
+	/**
+	 * Forget all parsed units, changing constants, operations or functions does it already
+	 */
+	public void clearParseCache() {
+		parsed.clear();
+	}
+
+	/**
+	 * @param nodes units read so far while parsing one string, by {@link NodeKey}
+	 * @return the folded value of the unit, or the identical unit read before
+	 */
+	Unit intern(Unit unit, Map<Object, Unit> nodes) {
+		Unit folded = fold(unit);
+
+		if (folded != null) {
+			unit = folded;
+		}
+
+		NodeKey key;
+
+		if (unit.getClass() == FixedUnit.class) {
+			key = new NodeKey(FixedUnit.class, Float.floatToIntBits(unit.get()));
+		} else if (unit.getClass() == VariableUnit.class && ((VariableUnit) unit).unitStorage == this) {
+			key = new NodeKey(VariableUnit.class, ((VariableUnit) unit).key);
+		} else if (UnitCompiler.isBuiltIn(unit)) {
+			key = new NodeKey(unit.getClass(), (Object[]) UnitCompiler.children(unit));
+		} else {
+			return unit;
+		}
+
+		Unit existing = nodes.putIfAbsent(key, unit);
+		return existing == null ? unit : existing;
+	}
+
+	/**
+	 * @return a fixed unit evaluating to the same values as a built-in unit with only fixed children, or null
+	 */
+	@Nullable
+	private static Unit fold(Unit unit) {
+		// colors are written as #RRGGBB when fixed, and compute their value once already
+		if (unit.isFixed() || unit instanceof ColorUnit || !UnitCompiler.isBuiltIn(unit)) {
+			return null;
+		}
+
+		for (Unit child : UnitCompiler.children(unit)) {
+			if (!child.isFixed()) {
+				return null;
+			}
+		}
+
+		try {
+			float f = unit.get();
+
+			// some units have their own int and boolean values, which a FixedUnit would not keep
+			if (unit.getAsInt() == (int) f && unit.getAsBoolean() == (f != 0F)) {
+				return FixedUnit.of(f);
+			}
+		} catch (ArithmeticException ignored) {
+			// integer division by zero, left to fail when evaluated
+		}
+
+		return null;
+	}
+
+	/**
+	 * Compile a unit into a Java class, for units that are evaluated many times.
+	 * <p>
+	 * Constant parts of the unit are folded, and variables of this storage are bound to slots instead of being looked up
+	 * by name. The compiled unit evaluates to the same values as the original one.
+	 * <p>
+	 * Every compilation defines a new class, so callers should compile a unit once and keep the result. The last
+	 * {@value #MAX_COMPILED} compiled units are remembered by identity, which makes compiling a unit returned by
+	 * {@link #parse(String)} again cheap.
+	 *
+	 * @return the compiled unit, or the unit itself if it is fixed
+	 */
+	public Unit compile(Unit unit) {
+		if (unit.isFixed() || unit instanceof CompiledUnit) {
+			return unit;
+		}
+
+		Unit c = compiled.get(unit);
+
+		if (c == null) {
+			c = UnitCompiler.compile(this, unit);
+			Unit existing = compiled.putIfAbsent(unit, c);
+
+			if (existing != null) {
+				c = existing;
+			}
+		}
+
+		return c;
+	}
+
+	/**
+	 * Key of a parsed unit by type and parts, units among the parts are compared by identity since they are interned
+	 * already
+	 */
+	private static final class NodeKey {
+		private final Class<?> type;
+		private final Object[] parts;
+		private final int hash;
+
+		private NodeKey(Class<?> type, Object... parts) {
+			this.type = type;
+			this.parts = parts;
+
+			int h = type.hashCode();
+
+			for (Object part : parts) {
+				h = h * 31 + (part instanceof Unit ? System.identityHashCode(part) : part.hashCode());
+			}
+
+			hash = h;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof NodeKey key) || key.hash != hash || key.type != type || key.parts.length != parts.length) {
+				return false;
+			}
+
+			for (int i = 0; i < parts.length; i++) {
+				Object a = parts[i];
+				Object b = key.parts[i];
+
+				if (a != b && (a instanceof Unit || !a.equals(b))) {
+					return false;
+				}
+			}
+
+			return true;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
 	}
 }
@@ -13,10 +13,21 @@ import java.util.function.Predicate;
  * @author LatvianModder
  */
 public class TypeWrappers {
+	private static volatile int modCount;
+
 	private final Map<Class<?>, TypeWrapper<?>> wrappers = new Reference2ObjectOpenHashMap<>();
 
+	/**
+	 * @return a number that changes whenever any TypeWrappers is modified, used to invalidate caches depending on
+	 * registered wrappers
+	 */
+	public static int getModCount() {
+		return modCount;
+	}
+
 	public void removeAll() {
 		wrappers.clear();
+		modCount++;
 	}
 
 	@Deprecated
@@ -33,6 +44,7 @@ public class TypeWrappers {
 			throw new IllegalArgumentException("Wrapper for class " + target.getName() + " already exists!");
 		}
         wrappers.put(target, new TypeWrapper<>(target, validator, factory));
+		modCount++;
 	}
 
 	@Deprecated
@@ -46,6 +58,7 @@ public class TypeWrappers {
 		}
 
         wrappers.put(target, new TypeWrapper<>(target, validator::test, factory));
+		modCount++;
 	}
 
 	public <T> void register(Class<T> target, TypeWrapperFactory<T> factory) {
@@ -61,6 +74,15 @@ public class TypeWrappers {
 		return wrapper != null && wrapper.validator.test(from, target);
 	}
 
+	/**
+	 * @return true if whether a value can be wrapped to {@code target} depends on the value itself, and not only on
+	 * its type
+	 */
+	public boolean hasValueDependentWrapper(TypeInfo target) {
+		val wrapper = wrappers.get(target.asClass());
+		return wrapper != null && wrapper.validator != TypeWrapperValidator.ALWAYS_VALID;
+	}
+
 	@Nullable
 	public TypeWrapperFactory<?> getWrapperFactory(@Nullable Object from, TypeInfo target) {
 		if (target == TypeInfo.OBJECT) {
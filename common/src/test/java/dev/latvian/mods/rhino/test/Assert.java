@@ -0,0 +1,42 @@
+package dev.latvian.mods.rhino.test;
+
+import java.util.Objects;
+
+/**
+ * Minimal assertions for the test programs, which are plain {@code main} methods failing with an
+ * {@link AssertionError}
+ *
+ * @author ZZZank
+ */
+public final class Assert {
+	public interface Action {
+		void run() throws Exception;
+	}
+
+	private Assert() {
+	}
+
+	public static void check(boolean condition, String message) {
+		if (!condition) {
+			throw new AssertionError(message);
+		}
+	}
+
+	public static void equal(Object expected, Object actual, String message) {
+		if (!Objects.equals(expected, actual)) {
+			throw new AssertionError(message + ": expected <" + expected + "> but was <" + actual + ">");
+		}
+	}
+
+	public static <T extends Throwable> T fails(Class<T> type, Action action, String message) {
+		try {
+			action.run();
+		} catch (Throwable ex) {
+			if (type.isInstance(ex)) {
+				return type.cast(ex);
+			}
+			throw new AssertionError(message + ": expected " + type.getSimpleName() + " but got " + ex, ex);
+		}
+		throw new AssertionError(message + ": expected " + type.getSimpleName() + " but nothing was thrown");
+	}
+}
@@ -0,0 +1,158 @@
+package dev.latvian.mods.rhino.test;
+
+import dev.latvian.mods.rhino.Context;
+import dev.latvian.mods.rhino.NativeArray;
+import dev.latvian.mods.rhino.Scriptable;
+import dev.latvian.mods.rhino.ScriptableObject;
+import dev.latvian.mods.rhino.json.JsonParser;
+import lombok.val;
+
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static dev.latvian.mods.rhino.test.Assert.check;
+import static dev.latvian.mods.rhino.test.Assert.equal;
+import static dev.latvian.mods.rhino.test.Assert.fails;
+
+/**
+ * Checks {@link JsonParser} producing JavaScript values and plain Java values, from all of its inputs
+ *
+ * @author ZZZank
+ */
+public class JsonParserTest {
+	public static void main(String[] args) throws Exception {
+		val cx = Context.enterWithNewFactory();
+		try {
+			val scope = cx.initStandardObjects();
+			numbers(new JsonParser(cx, scope));
+			numbers(new JsonParser());
+			objects(cx, scope);
+			nesting(new JsonParser(cx, scope));
+			nesting(new JsonParser());
+			malformed(new JsonParser(cx, scope));
+			malformed(new JsonParser());
+			javaValues();
+			inputs(new JsonParser());
+		} finally {
+			Context.exit();
+		}
+		TestConsole.log("JsonParserTest: passed");
+	}
+
+	private static void numbers(JsonParser parser) throws Exception {
+		val negativeZero = (Double) parser.parseValue("-0");
+		check(negativeZero == 0 && 1 / negativeZero < 0, "-0 keeps its sign");
+		check(1 / (Double) parser.parseValue("0") > 0, "0 is positive");
+		equal(-0.0, parser.parseValue("-0.0"), "-0.0");
+		// 15 digits take the integer fast path, 16 digits go through Double.parseDouble
+		equal(999999999999999.0, parser.parseValue("999999999999999"), "15 digits");
+		equal(-123456789012345.0, parser.parseValue("-123456789012345"), "negative 15 digits");
+		equal(9007199254740993.0, parser.parseValue("9007199254740993"), "16 digits, rounded like Double.parseDouble");
+		equal(1234567890123456.0, parser.parseValue("1234567890123456"), "16 digits");
+		equal(1.5e300, parser.parseValue("1.5e300"), "exponent");
+		equal(0.25, parser.parseValue("25E-2"), "negative exponent");
+	}
+
+	private static void objects(Context cx, Scriptable scope) throws Exception {
+		val parser = new JsonParser(cx, scope);
+		val object = (Scriptable) parser.parseValue("{\"a\": 1, \"b\": \"x\", \"a\": 2, \"0\": true}");
+		equal(2.0, ScriptableObject.getProperty(object, "a"), "the last duplicate key wins");
+		equal(Arrays.asList("0", "a", "b"), Arrays.asList(Arrays.stream(object.getIds()).map(String::valueOf).toArray()), "keys");
+		equal(Boolean.TRUE, ScriptableObject.getProperty(object, 0), "index keys are indexed properties");
+
+		val array = (NativeArray) parser.parseValue("[1, \"two\", null, [], {}]");
+		equal(5L, array.getLength(), "array length");
+		equal("two", array.get(1, array), "array element");
+		equal(null, array.get(2, array), "null element");
+
+		// equal keys of different objects are read into the same String
+		val list = (NativeArray) parser.parseValue("[{\"name\": 1}, {\"name\": 2}]");
+		val first = ((Scriptable) list.get(0, list)).getIds()[0];
+		val second = ((Scriptable) list.get(1, list)).getIds()[0];
+		check(first == second, "repeated keys are shared");
+		equal("a\"b\\c/\b\f\n\r\té", parser.parseValue("\"a\\\"b\\\\c\\/\\b\\f\\n\\r\\t\\u00e9\""), "escapes");
+	}
+
+	private static void nesting(JsonParser parser) throws Exception {
+		val depth = 500;
+		val json = new StringBuilder();
+		for (int i = 0; i < depth; i++) {
+			json.append("[{\"a\":");
+		}
+		json.append("1");
+		for (int i = 0; i < depth; i++) {
+			json.append("}, 2]");
+		}
+		Object value = parser.parseValue(json.toString());
+		for (int i = 0; i < depth; i++) {
+			if (parser.isJavaValues()) {
+				val list = (List<?>) value;
+				equal(2.0, list.get(1), "sibling after nested value at depth " + i);
+				value = ((Map<?, ?>) list.get(0)).get("a");
+			} else {
+				val array = (NativeArray) value;
+				equal(2.0, array.get(1, array), "sibling after nested value at depth " + i);
+				value = ScriptableObject.getProperty((Scriptable) array.get(0, array), "a");
+			}
+		}
+		equal(1.0, value, "innermost value");
+
+		val tooDeep = new StringBuilder();
+		for (int i = 0; i < 1_000_000; i++) {
+			tooDeep.append('[');
+		}
+		fails(JsonParser.ParseException.class, () -> parser.parseValue(tooDeep.toString()), "nesting deeper than the stack");
+		equal(1.0, parser.parseValue("1"), "parser usable after a failed parse");
+	}
+
+	private static void malformed(JsonParser parser) {
+		for (val json : new String[]{
+			"", " ", "{", "[", "[1,]", "[,1]", "[1 2]", "{\"a\":1,}", "{\"a\" 1}", "{\"a\":1 \"b\":2}", "{a:1}", "{,}",
+			"01", "-", "1.", "1e", "1e+", ".5", "+1", "\"abc", "\"\\x\"", "\"\\u12\"", "\"\\u12g4\"", "\"a\nb\"", "tru",
+			"nul", "falsy", "1 2", "[] x", "undefined", "'a'"
+		}) {
+			fails(JsonParser.ParseException.class, () -> parser.parseValue(json), "malformed " + json);
+		}
+		fails(JsonParser.ParseException.class, () -> parser.parseValue((String) null), "null input");
+	}
+
+	private static void javaValues() throws Exception {
+		val parser = new JsonParser();
+		check(parser.isJavaValues(), "no-arg parser produces Java values");
+		val map = (Map<?, ?>) parser.parseValue("{\"b\": [1, {\"c\": null}], \"a\": true, \"b\": \"last\"}");
+		equal(Arrays.asList("b", "a"), Arrays.asList(map.keySet().toArray()), "insertion order, duplicate keeps position");
+		equal("last", map.get("b"), "the last duplicate key wins");
+		equal(Boolean.TRUE, map.get("a"), "boolean");
+		val list = (List<?>) parser.parseValue("[1, {\"c\": null}, []]");
+		equal(1.0, list.get(0), "numbers are doubles");
+		check(((Map<?, ?>) list.get(1)).containsKey("c"), "null values are kept");
+		check(((List<?>) list.get(2)).isEmpty(), "empty list");
+	}
+
+	private static void inputs(JsonParser parser) throws Exception {
+		val json = "{\"k\": \"\u00e9\u4e2d\", \"n\": [1, 2]}";
+		val expected = parser.parseValue(json);
+		equal(expected, parser.parseValue(new StringReader(json)), "reader");
+		val big = new StringBuilder("[");
+		for (int i = 0; i < 5000; i++) {
+			big.append(i).append(',');
+		}
+		big.append("0]");
+		equal(5001, ((List<?>) parser.parseValue(new StringReader(big.toString()))).size(), "reader longer than its buffer");
+
+		val bytes = json.getBytes(StandardCharsets.UTF_8);
+		equal(expected, parser.parseValue(ByteBuffer.wrap(bytes)), "heap byte buffer");
+		val direct = ByteBuffer.allocateDirect(bytes.length + 2);
+		direct.put((byte) 'x').put(bytes).put((byte) 'x').flip().position(1).limit(bytes.length + 1);
+		equal(expected, parser.parseValue(direct), "direct byte buffer slice");
+		fails(JsonParser.ParseException.class, () -> parser.parseValue(ByteBuffer.wrap(new byte[]{'"', (byte) 0xC3, '"'})), "invalid UTF-8");
+
+		val chars = (json + "garbage").toCharArray();
+		equal(expected, parser.parseValue(chars, json.length()), "char array prefix");
+		fails(IndexOutOfBoundsException.class, () -> parser.parseValue(chars, chars.length + 1), "length beyond the array");
+	}
+}
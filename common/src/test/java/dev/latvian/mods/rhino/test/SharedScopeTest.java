@@ -0,0 +1,109 @@
+package dev.latvian.mods.rhino.test;
+
+import dev.latvian.mods.rhino.Context;
+import dev.latvian.mods.rhino.ContextFactory;
+import dev.latvian.mods.rhino.EvaluatorException;
+import dev.latvian.mods.rhino.ScriptableObject;
+import lombok.val;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static dev.latvian.mods.rhino.test.Assert.check;
+import static dev.latvian.mods.rhino.test.Assert.equal;
+import static dev.latvian.mods.rhino.test.Assert.fails;
+
+/**
+ * Checks that child scopes of {@link Context#newChildScope()} keep their globals apart, can not change the shared
+ * standard objects, and share the {@code Symbol.for} registry across threads
+ *
+ * @author ZZZank
+ */
+public class SharedScopeTest {
+	private static final int THREADS = 8;
+	private static final int SCOPES_PER_THREAD = 50;
+
+	public static void main(String[] args) throws Exception {
+		val cx = Context.enterWithNewFactory();
+		try {
+			globals(cx);
+			sealedBuiltins(cx);
+			symbolRegistry(cx);
+		} finally {
+			Context.exit();
+		}
+		TestConsole.log("SharedScopeTest: passed");
+	}
+
+	private static String eval(Context cx, ScriptableObject scope, String source) {
+		return Context.toString(cx.evaluateString(scope, source, "SharedScopeTest.js", 1, null));
+	}
+
+	private static void globals(Context cx) {
+		val a = cx.newChildScope();
+		val b = cx.newChildScope();
+		eval(cx, a, "var defined = 1; assigned = 2; function declared() { return 3; } var Math = 'hidden';");
+		equal("number,number,function,string", eval(cx, a, "typeof defined + ',' + typeof assigned + ',' + typeof declared + ',' + typeof Math"), "globals stay in their scope");
+		equal("undefined,undefined,undefined,object", eval(cx, b, "typeof defined + ',' + typeof assigned + ',' + typeof declared + ',' + typeof Math"), "globals do not leak into a sibling");
+		check(!cx.getFactory().getSharedScope(cx).has("defined", null), "shared scope gets no globals");
+	}
+
+	private static void sealedBuiltins(Context cx) {
+		val a = cx.newChildScope();
+		val b = cx.newChildScope();
+		fails(EvaluatorException.class, () -> eval(cx, a, "Array.prototype.leak = 1"), "builtin prototype is sealed");
+		fails(EvaluatorException.class, () -> eval(cx, a, "JSON.leak = 1"), "builtin object is sealed");
+		equal("false", eval(cx, a, "delete Math.max"), "builtin property can not be deleted");
+		fails(EvaluatorException.class, () -> eval(cx, a, "Object.prototype.toString = null"), "builtin property can not be replaced");
+		equal("undefined,undefined,function,function", eval(cx, b, "typeof [].leak + ',' + typeof JSON.leak + ',' + typeof Math.max + ',' + typeof Object.prototype.toString"), "shared objects are unchanged");
+		equal("[object Object]", eval(cx, b, "String({})"), "builtins still work");
+	}
+
+	private static void symbolRegistry(Context cx) throws Exception {
+		val factory = cx.getFactory();
+		val expected = cx.evaluateString(cx.newChildScope(), "Symbol.for('shared')", "SharedScopeTest.js", 1, null);
+		val pool = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<String>> results = new ArrayList<>();
+			for (int t = 0; t < THREADS; t++) {
+				int thread = t;
+				results.add(pool.submit(registryUser(factory, expected, thread)));
+			}
+			for (val result : results) {
+				equal("", result.get(), "Symbol.for from child scopes on several threads");
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private static Callable<String> registryUser(ContextFactory factory, Object expected, int thread) {
+		return () -> {
+			val cx = factory.enterContext();
+			try {
+				for (int i = 0; i < SCOPES_PER_THREAD; i++) {
+					val scope = cx.newChildScope();
+					if (cx.evaluateString(scope, "Symbol.for('shared')", "SharedScopeTest.js", 1, null) != expected) {
+						return "different symbol in thread " + thread;
+					}
+					// registered by one scope, found by the next
+					String key = "t" + thread + "_" + i;
+					val own = cx.evaluateString(scope, "Symbol.for('" + key + "')", "SharedScopeTest.js", 1, null);
+					if (i > 0 && !("t" + thread + "_" + (i - 1)).equals(eval(cx, scope, "Symbol.keyFor(Symbol.for('t" + thread + "_" + (i - 1) + "'))"))) {
+						return "registry lost a key in thread " + thread;
+					}
+					if (cx.evaluateString(cx.newChildScope(), "Symbol.for('" + key + "')", "SharedScopeTest.js", 1, null) != own) {
+						return "sibling scope got a different symbol in thread " + thread;
+					}
+				}
+				return "";
+			} finally {
+				Context.exit();
+			}
+		};
+	}
+}
@@ -0,0 +1,137 @@
+package dev.latvian.mods.rhino.test;
+
+import dev.latvian.mods.rhino.Context;
+import dev.latvian.mods.rhino.EcmaError;
+import dev.latvian.mods.rhino.EvaluatorException;
+import dev.latvian.mods.rhino.ScriptableObject;
+import dev.latvian.mods.rhino.typedarrays.NativeArrayBuffer;
+import dev.latvian.mods.rhino.typedarrays.NativeTypedArrayView;
+import lombok.val;
+
+import java.nio.ByteBuffer;
+
+import static dev.latvian.mods.rhino.test.Assert.check;
+import static dev.latvian.mods.rhino.test.Assert.equal;
+import static dev.latvian.mods.rhino.test.Assert.fails;
+
+/**
+ * Checks element conversion of typed arrays, DataView byte order, views over parts of a buffer, sealed and read-only
+ * typed arrays, and sharing of ByteBuffers and Java arrays with scripts
+ *
+ * @author ZZZank
+ */
+public class TypedArrayTest {
+	private static Context cx;
+	private static ScriptableObject scope;
+
+	public static void main(String[] args) {
+		cx = Context.enterWithNewFactory();
+		try {
+			scope = cx.initStandardObjects();
+			elements();
+			dataView();
+			views();
+			byteBuffers();
+			javaArrays();
+			sealedAndReadOnly();
+		} finally {
+			Context.exit();
+		}
+		TestConsole.log("TypedArrayTest: passed");
+	}
+
+	private static String eval(String source) {
+		return Context.toString(cx.evaluateString(scope, source, "TypedArrayTest.js", 1, null));
+	}
+
+	private static void elements() {
+		equal("0,0,2,2,254,255,255,0,1", eval("String(new Uint8ClampedArray([-1, 0.5, 1.5, 2.5, 254.5, 255.5, 300, NaN, 0.6]))"), "Uint8Clamped rounds half to even and clamps");
+		equal("4294967295,2147483648,2147483647,4294967295,0", eval("String(new Uint32Array([4294967295, 2147483648, 2147483647, -1, 4294967296]))"), "Uint32 above 2^31");
+		equal("-1,127,-128,0", eval("String(new Int8Array([255, 127, 128, 256]))"), "Int8 wraps");
+		equal("65535,32768,1", eval("String(new Uint16Array([-1, 32768, 65537]))"), "Uint16 wraps");
+		equal("-2147483648,-1", eval("String(new Int32Array([2147483648, 4294967295]))"), "Int32 wraps");
+		equal("0.10000000149011612,1e+300", eval("var f = new Float32Array([0.1]); var d = new Float64Array([1e300]); f[0] + ',' + d[0]"), "float precision");
+		equal("undefined,2", eval("var a = new Int32Array(2); a[5] = 1; a[1] = 2; a[5] + ',' + a[1]"), "writes out of range are ignored");
+	}
+
+	private static void dataView() {
+		equal("1,2,3,4", eval("var b = new ArrayBuffer(8); var v = new DataView(b); v.setInt32(0, 0x01020304); String(new Uint8Array(b, 0, 4))"), "big endian by default");
+		equal("67305985", eval("v.getInt32(0, true)"), "little endian read");
+		equal("4,3,2,1", eval("v.setInt32(0, 0x01020304, true); String(new Uint8Array(b, 0, 4))"), "little endian write");
+		equal("4294967295,65535,-1", eval("v.setUint32(4, 4294967295); v.getUint32(4) + ',' + v.getUint16(4, true) + ',' + v.getInt8(7)"), "unsigned reads");
+		equal("1.5,true", eval("v.setFloat64(0, 1.5, true); v.getFloat64(0, true) + ',' + (v.getFloat64(0) !== 1.5)"), "float64 byte order");
+		equal("2", eval("new DataView(b, 2, 4).getUint8(1) === new Uint8Array(b)[3] ? 2 : 0"), "DataView offset");
+		fails(EcmaError.class, () -> eval("new DataView(b, 2, 4).getInt32(1)"), "read past the end of the view");
+		fails(EcmaError.class, () -> eval("new DataView(b, 9)"), "offset past the end of the buffer");
+		fails(EcmaError.class, () -> eval("new DataView(b, 4, 5)"), "length past the end of the buffer");
+	}
+
+	private static void views() {
+		eval("var buf = new ArrayBuffer(16); var all = new Int16Array(buf); for (var i = 0; i < 8; i++) all[i] = i;");
+		equal("6,7", eval("String(all.subarray(-2))"), "negative start counts from the end");
+		equal("2,3", eval("String(all.subarray(2, 4))"), "start and end");
+		equal("", eval("String(all.subarray(5, 2))"), "end before start");
+		equal("30:8:4", eval("var sub = all.subarray(3, 7).subarray(1, 3); sub[0] = 30; all[4] + ':' + sub.byteOffset / 1 + ':' + sub.byteLength"), "nested subarray writes through to the buffer");
+		equal("8,2", eval("var mid = new Int16Array(buf, 4, 2); mid[0] = 8; all[2] + ',' + mid.length"), "view at a byte offset");
+		equal("4", eval("new Int16Array(buf, 8).length"), "view to the end of the buffer");
+		fails(EcmaError.class, () -> eval("new Int16Array(buf, 1)"), "misaligned offset");
+		fails(EcmaError.class, () -> eval("new Int16Array(buf, 8, 5)"), "view past the end of the buffer");
+		fails(EcmaError.class, () -> eval("new Int32Array(new ArrayBuffer(6))"), "buffer length not a multiple of the element size");
+		fails(EcmaError.class, () -> eval("all.set([1, 2, 3], 6)"), "set past the end");
+		equal("0,1,0,1,2,5", eval("var s = new Int16Array([0, 1, 2, 3, 4, 5]); s.set(s.subarray(0, 3), 2); String(s)"), "overlapping set");
+		equal("0,9,9,3", eval("String(new Int8Array([0, 1, 2, 3]).fill(9, 1, -1))"), "fill with relative end");
+	}
+
+	private static void byteBuffers() {
+		val bytes = ByteBuffer.allocateDirect(8);
+		ScriptableObject.putProperty(scope, "hostBuffer", NativeArrayBuffer.wrap(scope, bytes));
+		eval("new Int32Array(hostBuffer)[1] = 0x0A0B0C0D; new Uint8Array(hostBuffer)[0] = 255;");
+		equal(0x0A0B0C0D, bytes.getInt(4), "script writes are visible to the host buffer");
+		equal((byte) 255, bytes.get(0), "single byte write");
+		bytes.put(1, (byte) 7);
+		equal("7", eval("new Uint8Array(hostBuffer)[1]"), "host writes are visible to scripts");
+		equal(0, bytes.position(), "position of the host buffer is not modified");
+
+		val sliceSource = ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5});
+		sliceSource.position(1).limit(4);
+		ScriptableObject.putProperty(scope, "partial", NativeArrayBuffer.wrap(scope, sliceSource));
+		equal("3:2,3,4", eval("partial.byteLength + ':' + new Uint8Array(partial)"), "only the remaining bytes are wrapped");
+		equal("3,4", eval("var copy = partial.slice(1); new Uint8Array(copy)[0] = 0; String(new Uint8Array(partial).subarray(1))"), "slice copies");
+
+		val back = (ByteBuffer) Context.jsToJava(cx, ScriptableObject.getProperty(scope, "hostBuffer"), ByteBuffer.class);
+		equal(0x0A0B0C0D, back.getInt(4), "ArrayBuffer converts to the ByteBuffer it wraps");
+		back.put(2, (byte) 42);
+		equal((byte) 42, bytes.get(2), "converted buffer shares the bytes");
+	}
+
+	private static void javaArrays() {
+		val ints = new int[]{1, 2, 3, 4};
+		val view = NativeTypedArrayView.wrapJavaArray(scope, ints);
+		check(view != null && view.getJavaArray() == ints, "wrapped array is passed back as is");
+		ScriptableObject.putProperty(scope, "ints", view);
+		eval("ints[0] = 10; ints.subarray(2)[1] = 40;");
+		equal(10, ints[0], "write to the Java array");
+		equal(40, ints[3], "write through a subarray to the Java array");
+		equal("undefined,2", eval("typeof ints.buffer === 'undefined' ? 'undefined,' + ints.subarray(2).length : 'buffer'"), "no ArrayBuffer");
+		check(((NativeTypedArrayView<?>) cx.evaluateString(scope, "ints.subarray(1)", "t", 1, null)).getJavaArray() == null, "a part of the array is not passed back");
+		check(NativeTypedArrayView.wrapJavaArray(scope, new long[0]) == null, "no typed array for long[]");
+	}
+
+	private static void sealedAndReadOnly() {
+		eval("var sealed = new Int32Array([1, 2]); var sealedView = new DataView(new ArrayBuffer(4));");
+		((ScriptableObject) ScriptableObject.getProperty(scope, "sealed")).sealObject();
+		((ScriptableObject) ScriptableObject.getProperty(scope, "sealedView")).sealObject();
+		fails(EvaluatorException.class, () -> eval("sealed[0] = 5"), "write to a sealed typed array");
+		fails(EvaluatorException.class, () -> eval("sealed.fill(5)"), "fill of a sealed typed array");
+		fails(EvaluatorException.class, () -> eval("sealed.set([5])"), "set of a sealed typed array");
+		fails(EvaluatorException.class, () -> eval("sealedView.setInt8(0, 5)"), "write to a sealed DataView");
+		equal("1,2", eval("String(sealed)"), "sealed typed array unchanged");
+
+		val readOnly = ByteBuffer.wrap(new byte[]{1, 2, 3, 4}).asReadOnlyBuffer();
+		ScriptableObject.putProperty(scope, "readOnly", NativeArrayBuffer.wrap(scope, readOnly));
+		equal("1,2,3,4", eval("var r = new Uint8Array(readOnly); r[0] = 9; r.fill(9); r.set([9]); new DataView(readOnly).setInt8(1, 9); String(r)"), "writes to a read-only buffer are ignored");
+		check(((NativeTypedArrayView<?>) ScriptableObject.getProperty(scope, "r")).isReadOnly(), "isReadOnly");
+		equal("2,3", eval("String(new Uint8Array(readOnly.slice(1, 3)))"), "read-only buffer can be sliced");
+		equal("9", eval("var w = new Uint8Array(readOnly.slice(0)); w[0] = 9; w[0]"), "slice of a read-only buffer is writable");
+	}
+}